@@ -0,0 +1,166 @@
+import { Animation, EntityResponse, ItemResponse } from "../types/Types";
+
+// Decodes the columnar encoding written by ColumnarWriter on the server, see that class for the layout.
+// Ask for it by sending COLUMNAR_CONTENT_TYPE in the Accept header and reading the body as an ArrayBuffer.
+
+export const COLUMNAR_CONTENT_TYPE = "application/vnd.dungeonmania.columnar";
+
+const VERSION = 1;
+const KIND_JSON = 0;
+const KIND_DUNGEON = 1;
+const ID_UUID = 1;
+
+export interface ColumnarDungeon {
+  dungeonId: string | null;
+  dungeonName: string | null;
+  entities: EntityResponse[];
+  inventory: ItemResponse[];
+  battles: unknown[] | null;
+  buildables: string[];
+  goals: string | null;
+  animations: Animation[] | null;
+  nextBattle: number;
+}
+
+export interface ColumnarResponse<T> {
+  result?: T;
+  errorTitle?: string;
+  errorMessage?: string;
+  isError: boolean;
+}
+
+class Reader {
+  private offset = 0;
+  private readonly view: DataView;
+  private readonly bytes: Uint8Array;
+  private readonly text = new TextDecoder("utf-8");
+
+  constructor(buffer: ArrayBuffer) {
+    this.view = new DataView(buffer);
+    this.bytes = new Uint8Array(buffer);
+  }
+
+  byte(): number {
+    return this.view.getUint8(this.offset++);
+  }
+
+  varint(): number {
+    let value = 0;
+    let shift = 0;
+    let b: number;
+    do {
+      b = this.byte();
+      value += (b & 0x7f) * Math.pow(2, shift);
+      shift += 7;
+    } while (b & 0x80);
+    return value;
+  }
+
+  zigzag(): number {
+    const n = this.varint();
+    return n % 2 === 0 ? n / 2 : -(n + 1) / 2;
+  }
+
+  string(): string | null {
+    const length = this.varint();
+    if (length === 0) return null;
+    return this.utf8(length - 1);
+  }
+
+  utf8(length: number): string {
+    const s = this.text.decode(this.bytes.subarray(this.offset, this.offset + length));
+    this.offset += length;
+    return s;
+  }
+
+  rest(): string {
+    return this.utf8(this.bytes.length - this.offset);
+  }
+
+  ids(count: number): string[] {
+    const ids = new Array<string>(count);
+    if (this.byte() !== ID_UUID) {
+      for (let i = 0; i < count; i++) ids[i] = this.string() as string;
+      return ids;
+    }
+    for (let i = 0; i < count; i++) {
+      let hex = "";
+      for (let j = 0; j < 16; j++) hex += this.byte().toString(16).padStart(2, "0");
+      ids[i] = hex.slice(0, 8) + "-" + hex.slice(8, 12) + "-" + hex.slice(12, 16) + "-" +
+        hex.slice(16, 20) + "-" + hex.slice(20);
+    }
+    return ids;
+  }
+}
+
+function readDungeon(r: Reader): ColumnarDungeon {
+  const dungeonId = r.string();
+  const dungeonName = r.string();
+  const goals = r.string();
+  const nextBattle = r.varint();
+
+  const types = new Array<string>(r.varint());
+  for (let i = 0; i < types.length; i++) types[i] = r.string() as string;
+
+  const n = r.varint();
+  const ids = r.ids(n);
+  const typeIndices = new Array<number>(n);
+  for (let i = 0; i < n; i++) typeIndices[i] = r.varint();
+  const xs = new Array<number>(n);
+  for (let i = 0; i < n; i++) xs[i] = r.zigzag();
+  const ys = new Array<number>(n);
+  for (let i = 0; i < n; i++) ys[i] = r.zigzag();
+  const layers = new Array<number>(n);
+  for (let i = 0; i < n; i++) layers[i] = r.varint();
+  const interactable = new Array<number>(Math.ceil(n / 8));
+  for (let i = 0; i < interactable.length; i++) interactable[i] = r.byte();
+
+  const entities = new Array<EntityResponse>(n);
+  for (let i = 0; i < n; i++) {
+    entities[i] = {
+      id: ids[i],
+      type: types[typeIndices[i]],
+      position: { x: xs[i], y: ys[i], layer: layers[i] },
+      isInteractable: (interactable[i >> 3] & (1 << (i & 7))) !== 0,
+    } as EntityResponse;
+  }
+
+  const m = r.varint();
+  const itemIds = r.ids(m);
+  const inventory = new Array<ItemResponse>(m);
+  for (let i = 0; i < m; i++) {
+    inventory[i] = { id: itemIds[i], type: types[r.varint()] } as ItemResponse;
+  }
+
+  const buildables = new Array<string>(r.varint());
+  for (let i = 0; i < buildables.length; i++) buildables[i] = r.string() as string;
+
+  const rest = JSON.parse(r.string() as string);
+  return {
+    dungeonId,
+    dungeonName,
+    entities,
+    inventory,
+    battles: rest.battles ?? null,
+    buildables,
+    goals,
+    animations: rest.animations ?? null,
+    nextBattle,
+  };
+}
+
+/**
+ * Decodes a whole response body, giving the same shape as the JSON responses
+ */
+export function decodeColumnar<T = ColumnarDungeon>(buffer: ArrayBuffer): ColumnarResponse<T> {
+  const r = new Reader(buffer);
+  if (r.byte() !== "D".charCodeAt(0) || r.byte() !== "M".charCodeAt(0)) {
+    throw new Error("Not a columnar response");
+  }
+  const version = r.byte();
+  if (version !== VERSION) throw new Error("Unsupported columnar version " + version);
+  const kind = r.byte();
+  if (kind === KIND_JSON) return JSON.parse(r.rest()) as ColumnarResponse<T>;
+  if (kind !== KIND_DUNGEON) throw new Error("Unknown columnar kind " + kind);
+  return { result: readDungeon(r) as unknown as T, isError: false };
+}
@@ -0,0 +1,78 @@
+package dungeonmania.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.Game;
+import dungeonmania.util.Direction;
+
+/**
+ * Compares GameCodec against the plain Java serialization saves used to be written with,
+ * the size of both encodings is printed once per trial
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameCodecBenchmark {
+    @Param({"advanced", "maze", "bombs"})
+    private String dungeon;
+
+    private Game game;
+    private byte[] encoded;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws IOException {
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame(dungeon, "simple");
+        for (int i = 0; i < 5; i++) dmc.tick(Direction.RIGHT);
+        game = dmc.getGame();
+        encoded = GameCodec.encode(game);
+        serialized = serialize();
+        System.out.printf("%n%s: codec %d bytes, serialized %d bytes%n", dungeon, encoded.length, serialized.length);
+    }
+
+    @Benchmark
+    public byte[] encodeCodec() throws IOException {
+        return GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public byte[] encodeSerialized() throws IOException {
+        return serialize();
+    }
+
+    @Benchmark
+    public Game decodeCodec() throws IOException {
+        return GameCodec.decode(encoded);
+    }
+
+    @Benchmark
+    public Game decodeSerialized() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return (Game) in.readObject();
+        }
+    }
+
+    private byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(game);
+        }
+        return bytes.toByteArray();
+    }
+}
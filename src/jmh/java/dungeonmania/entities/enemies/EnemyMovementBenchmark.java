@@ -0,0 +1,108 @@
+package dungeonmania.entities.enemies;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import dungeonmania.Game;
+import dungeonmania.entities.ColorCodedType;
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.EntityFactory;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.Portal;
+import dungeonmania.entities.SwampTile;
+import dungeonmania.entities.Wall;
+import dungeonmania.map.GameMap;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+/**
+ * Ticks a map of zombies, spiders and mercenaries around a pair of portals, the player is walled in so nothing
+ * ever battles and every tick is only movement
+ * Meant to be run with the GC profiler (-prof gc), gc.alloc.rate.norm is the number of bytes allocated per tick.
+ * With swamped set every enemy starts out stuck in a deep swamp, which should cost next to nothing per tick.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EnemyMovementBenchmark {
+    private static final int SIZE = 40;
+    private static final int SWAMP_FACTOR = 1_000_000;
+
+    @Param({"10", "50"})
+    private int enemies;
+
+    @Param({"false", "true"})
+    private boolean swamped;
+
+    private Game game;
+
+    @Setup
+    public void setup() {
+        JSONObject config = new JSONObject();
+        config.put("spider_spawn_interval", 0);
+        config.put("zombie_spawn_interval", 0);
+        EntityFactory factory = new EntityFactory(config);
+        game = new Game("benchmark");
+        game.setEntityFactory(factory);
+        GameMap map = game.getMap();
+        map.setGame(game);
+
+        Position centre = Position.of(SIZE / 2, SIZE / 2);
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                boolean border = x == 0 || y == 0 || x == SIZE - 1 || y == SIZE - 1;
+                boolean pillar = x % 4 == 0 && y % 4 == 0;
+                if (border || pillar || Position.of(x, y).getAdjacentPositions().contains(centre)) {
+                    map.addEntity(new Wall(Position.of(x, y)));
+                }
+            }
+        }
+        Player player = factory.buildPlayer(centre);
+        map.addEntity(player);
+        map.setPlayer(player);
+        map.addEntity(new Portal(Position.of(6, 6), ColorCodedType.RED));
+        map.addEntity(new Portal(Position.of(SIZE - 6, SIZE - 6), ColorCodedType.RED));
+
+        Random random = new Random(42);
+        for (int i = 0; i < enemies; i++) {
+            Position p;
+            do {
+                p = Position.of(1 + random.nextInt(SIZE - 2), 1 + random.nextInt(SIZE - 2));
+            } while (!map.getEntities(p).isEmpty() || Math.abs(p.getX() - centre.getX()) < 4);
+            Entity enemy;
+            switch (i % 3) {
+            case 0:
+                enemy = factory.buildZombieToast(p);
+                break;
+            case 1:
+                enemy = factory.buildMercenary(p);
+                break;
+            default:
+                enemy = factory.buildSpider(p);
+                break;
+            }
+            if (swamped) {
+                map.addEntity(new SwampTile(p, SWAMP_FACTOR));
+                enemy.setMovementFactor(SWAMP_FACTOR);
+            }
+            map.addEntity(enemy);
+        }
+        game.init();
+    }
+
+    @Benchmark
+    public int tick() {
+        game.tick(Direction.NONE);
+        return game.getTick();
+    }
+}
@@ -0,0 +1,89 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.entities.Exit;
+import dungeonmania.entities.Player;
+import dungeonmania.util.Position;
+
+/**
+ * Compares the ways GameMap can store its cells on the maze dungeon and on a generated 500x500 maze,
+ * every benchmark looks up each cell of the bounding box once, or path finds from the player to the exit
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameMapStorageBenchmark {
+    @Param({"maze", "generated"})
+    private String dungeon;
+
+    @Param({"GRID", "CHUNKED", "HASH"})
+    private NodeStorage storage;
+
+    private GameMap map;
+    private Player player;
+    private Position exit;
+    private List<Position> cells = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        if (dungeon.equals("generated")) {
+            dmc.generateDungeon(1, 1, 498, 498, "simple");
+        } else {
+            dmc.newGame(dungeon, "simple");
+        }
+        map = dmc.getGame().getMap();
+        map.setNodeStorage(storage);
+        player = map.getPlayer();
+        exit = map.getEntities(Exit.class).get(0).getPosition();
+
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (GraphNode node : map.getNodes()) {
+            Position p = node.getPosition();
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+        }
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) cells.add(new Position(x, y));
+        }
+    }
+
+    @Benchmark
+    public int canMoveTo() {
+        int free = 0;
+        for (Position p : cells) {
+            if (map.canMoveTo(player, p)) free++;
+        }
+        return free;
+    }
+
+    @Benchmark
+    public int getEntities() {
+        int entities = 0;
+        for (Position p : cells) entities += map.getEntities(p).size();
+        return entities;
+    }
+
+    @Benchmark
+    public Position aStarToExit() {
+        return map.aStarPathFind(player.getPosition(), exit, player);
+    }
+}
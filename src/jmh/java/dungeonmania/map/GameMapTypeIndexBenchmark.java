@@ -0,0 +1,117 @@
+package dungeonmania.map;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.Switch;
+import dungeonmania.entities.Wall;
+import dungeonmania.entities.collectables.Treasure;
+import dungeonmania.entities.enemies.Assassin;
+import dungeonmania.entities.enemies.Enemy;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.entities.enemies.ZombieToast;
+import dungeonmania.entities.enemies.ZombieToastSpawner;
+import dungeonmania.util.Position;
+
+/**
+ * Compares the per-class index in GameMap against flattening and filtering every node,
+ * which is what getEntities(Class) used to do
+ * Mercenary and Enemy queries span several classes, Assassin and ZombieToast as well as Mercenary
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameMapTypeIndexBenchmark {
+    @Param({"50", "200"})
+    private int size;
+
+    private GameMap map;
+
+    @Setup
+    public void setup() {
+        map = new GameMap();
+        Random random = new Random(42);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                Position p = new Position(x, y);
+                if (x == 0 || y == 0 || x == size - 1 || y == size - 1 || random.nextInt(3) == 0) {
+                    map.addEntity(new Wall(p));
+                    continue;
+                }
+                int roll = random.nextInt(100);
+                if (roll < 2) {
+                    map.addEntity(new Treasure(p));
+                } else if (roll < 3) {
+                    map.addEntity(new Switch(p));
+                } else if (roll < 4) {
+                    map.addEntity(new Mercenary(p, Mercenary.DEFAULT_HEALTH, Mercenary.DEFAULT_ATTACK,
+                        Mercenary.DEFAULT_BRIBE_AMOUNT, Mercenary.DEFAULT_BRIBE_RADIUS,
+                        Mercenary.DEFAULT_MIND_CONTROL_DURATION));
+                } else if (roll < 5) {
+                    map.addEntity(new Assassin(p, Assassin.DEFAULT_HEALTH, Assassin.DEFAULT_ATTACK,
+                        Assassin.DEFAULT_BRIBE_AMOUNT, Mercenary.DEFAULT_BRIBE_RADIUS, Assassin.DEFAULT_BRIBE_FAIL_RATE,
+                        Mercenary.DEFAULT_MIND_CONTROL_DURATION));
+                } else if (roll < 6) {
+                    map.addEntity(new ZombieToast(p, ZombieToast.DEFAULT_HEALTH, ZombieToast.DEFAULT_ATTACK));
+                }
+            }
+        }
+        map.addEntity(new ZombieToastSpawner(new Position(1, 1), ZombieToastSpawner.DEFAULT_SPAWN_INTERVAL));
+    }
+
+    @Benchmark
+    public List<Treasure> indexedGetEntities() {
+        return map.getEntities(Treasure.class);
+    }
+
+    @Benchmark
+    public List<Treasure> scanningGetEntities() {
+        return scan(Treasure.class);
+    }
+
+    @Benchmark
+    public List<Mercenary> indexedGetSubtype() {
+        return map.getEntities(Mercenary.class);
+    }
+
+    @Benchmark
+    public List<Mercenary> scanningGetSubtype() {
+        return scan(Mercenary.class);
+    }
+
+    @Benchmark
+    public List<Enemy> indexedGetSupertype() {
+        return map.getEntities(Enemy.class);
+    }
+
+    @Benchmark
+    public List<Enemy> scanningGetSupertype() {
+        return scan(Enemy.class);
+    }
+
+    @Benchmark
+    public long indexedCountEntities() {
+        return map.countEntities(ZombieToastSpawner.class);
+    }
+
+    @Benchmark
+    public long scanningCountEntities() {
+        return map.getEntities().stream().filter(ZombieToastSpawner.class::isInstance).count();
+    }
+
+    private <T extends Entity> List<T> scan(Class<T> type) {
+        return map.getEntities().stream().filter(type::isInstance).map(type::cast).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,85 @@
+package dungeonmania.map;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import dungeonmania.Game;
+import dungeonmania.entities.EntityFactory;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.Wall;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+/**
+ * The first tick of a large map with hundreds of mercenaries closing in on the player from all sides,
+ * with every move searched one after another or planned in parallel first
+ * Every invocation starts from a fresh game, otherwise the mercenaries would soon all be next to the player.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallelMovementBenchmark {
+    private static final int SIZE = 120;
+
+    @Param({"300"})
+    private int mercenaries;
+
+    @Param({"A_STAR", "DISTANCE_FIELD"})
+    private PathFinding pathFinding;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private Game game;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        JSONObject config = new JSONObject();
+        config.put("spider_spawn_interval", 0);
+        config.put("zombie_spawn_interval", 0);
+        EntityFactory factory = new EntityFactory(config);
+        game = new Game("benchmark");
+        game.setEntityFactory(factory);
+        GameMap map = game.getMap();
+        map.setGame(game);
+        map.setPathFinding(pathFinding);
+        map.setParallelMovement(parallel);
+
+        Random random = new Random(42);
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                boolean border = x == 0 || y == 0 || x == SIZE - 1 || y == SIZE - 1;
+                if (border || (x % 6 == 0 && random.nextInt(3) != 0)) map.addEntity(new Wall(Position.of(x, y)));
+            }
+        }
+        Position centre = Position.of(SIZE / 2 + 1, SIZE / 2);
+        Player player = factory.buildPlayer(centre);
+        map.addEntity(player);
+        map.setPlayer(player);
+        for (int i = 0; i < mercenaries; i++) {
+            Position p;
+            do {
+                p = Position.of(1 + random.nextInt(SIZE - 2), 1 + random.nextInt(SIZE - 2));
+            } while (!map.getEntities(p).isEmpty());
+            map.addEntity(factory.buildMercenary(p));
+        }
+        game.init();
+    }
+
+    @Benchmark
+    public int tick() {
+        game.tick(Direction.NONE);
+        return game.getTick();
+    }
+}
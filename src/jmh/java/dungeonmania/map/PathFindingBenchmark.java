@@ -0,0 +1,77 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dungeonmania.entities.Player;
+import dungeonmania.entities.Wall;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.util.Position;
+
+/**
+ * One tick of path finding for every mercenary on a walled map, the player moves between ticks
+ * so the distance field has to be rebuilt every time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PathFindingBenchmark {
+    @Param({"40"})
+    private int size;
+
+    @Param({"1", "10", "50"})
+    private int mercenaries;
+
+    @Param({"DISTANCE_FIELD", "A_STAR", "DIJKSTRA"})
+    private PathFinding pathFinding;
+
+    private GameMap map;
+    private Player player;
+    private List<Mercenary> chasers = new ArrayList<>();
+    private boolean flip = false;
+
+    @Setup
+    public void setup() {
+        map = new GameMap();
+        map.setPathFinding(pathFinding);
+        Random random = new Random(42);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                boolean border = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+                if (border || (x % 4 == 0 && random.nextInt(4) != 0)) map.addEntity(new Wall(new Position(x, y)));
+            }
+        }
+        player = new Player(new Position(1, 1), 10, 10);
+        map.addEntity(player);
+        map.setPlayer(player);
+        while (chasers.size() < mercenaries) {
+            Position p = new Position(1 + random.nextInt(size - 2), 1 + random.nextInt(size - 2));
+            if (map.getNode(p) != null) continue;
+            Mercenary m = new Mercenary(p, Mercenary.DEFAULT_HEALTH, Mercenary.DEFAULT_ATTACK,
+                Mercenary.DEFAULT_BRIBE_AMOUNT, Mercenary.DEFAULT_BRIBE_RADIUS,
+                Mercenary.DEFAULT_MIND_CONTROL_DURATION);
+            map.addEntity(m);
+            chasers.add(m);
+        }
+    }
+
+    @Benchmark
+    public void tick(Blackhole blackhole) {
+        flip = !flip;
+        map.moveTo(player, new Position(flip ? 2 : 1, 1));
+        Position dest = map.getPlayerPosition();
+        for (Mercenary m : chasers) blackhole.consume(map.pathFind(m.getPosition(), dest, m));
+    }
+}
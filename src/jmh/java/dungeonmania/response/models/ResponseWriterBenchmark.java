@@ -0,0 +1,106 @@
+package dungeonmania.response.models;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import dungeonmania.Game;
+import dungeonmania.entities.EntityFactory;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.Wall;
+import dungeonmania.entities.collectables.Treasure;
+import dungeonmania.map.GameMap;
+import dungeonmania.util.Position;
+
+/**
+ * Sends the response for a large map to a stream the way App used to, Gson building a String that is then encoded,
+ * against ResponseWriter writing it field by field to the stream
+ * Run with -prof gc to compare how much each of them allocates per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ResponseWriterBenchmark {
+    @Param({"50", "200"})
+    private int size;
+
+    private final Gson gson = new GsonBuilder().create();
+    private GenericResponseWrapper<DungeonResponse> response;
+
+    @Setup
+    public void setup() {
+        EntityFactory factory = new EntityFactory(new JSONObject());
+        Game game = new Game("benchmark");
+        game.setEntityFactory(factory);
+        GameMap map = game.getMap();
+        map.setGame(game);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (x % 2 == 0 || y % 3 == 0) {
+                    map.addEntity(new Wall(Position.of(x, y)));
+                } else if (x % 7 == 1) {
+                    map.addEntity(new Treasure(Position.of(x, y)));
+                } else if (y % 5 == 1) {
+                    map.addEntity(factory.buildMercenary(Position.of(x, y)));
+                }
+            }
+        }
+        Player player = factory.buildPlayer(Position.of(1, 1));
+        map.addEntity(player);
+        map.setPlayer(player);
+        game.init();
+        response = GenericResponseWrapper.ok(ResponseBuilder.getDungeonResponse(game));
+        System.out.printf("%n%d entities, %d bytes%n", response.getResult().getEntities().size(), reflective());
+    }
+
+    @Benchmark
+    public long reflective() {
+        CountingStream out = new CountingStream();
+        try {
+            out.write(gson.toJson(response).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.count;
+    }
+
+    @Benchmark
+    public long streamed() throws IOException {
+        CountingStream out = new CountingStream();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ResponseWriter.write(writer, response, gson);
+        writer.flush();
+        return out.count;
+    }
+
+    private static final class CountingStream extends OutputStream {
+        private long count = 0;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -1,4 +1,6 @@
 import spark.Request;
+import spark.Response;
+import spark.Route;
 import spark.Spark;
 import spark.servlet.SparkApplication;
 import com.google.gson.Gson;
@@ -6,14 +8,37 @@ import com.google.gson.GsonBuilder;
 
 import dungeonmania.DungeonManiaController;
 import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.metrics.Histogram;
+import dungeonmania.metrics.Metrics;
+import dungeonmania.response.models.ColumnarWriter;
+import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.response.models.GenericResponseWrapper;
+import dungeonmania.response.models.MailboxStatsResponse;
+import dungeonmania.response.models.ResponseMode;
+import dungeonmania.response.models.ResponseWriter;
+import dungeonmania.response.models.SessionStatsResponse;
+import dungeonmania.sessions.GameSession;
+import dungeonmania.sessions.SessionExecutor;
+import dungeonmania.sessions.SessionRegistry;
 import dungeonmania.util.Direction;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import javax.servlet.AsyncContext;
+
 import scintilla.Scintilla;
 
 /**
@@ -32,22 +57,37 @@ public class App implements SparkApplication {
             super(message);
         }
     }
-    private static volatile Map<String, DungeonManiaController> sessionStates = new HashMap<>();
+    // commands for a session run on its mailbox, -Ddungeonmania.sessionWorkers threads run them for every session
+    private static final SessionExecutor executor = new SessionExecutor(
+        Integer.getInteger("dungeonmania.sessionWorkers", Runtime.getRuntime().availableProcessors()),
+        Integer.getInteger("dungeonmania.mailboxCapacity", SessionExecutor.DEFAULT_MAILBOX_CAPACITY),
+        SessionExecutor.DEFAULT_BATCH_SIZE);
+
+    // responses and socket pushes are written from these threads, so clients slow to read don't hold up commands
+    // -Ddungeonmania.writerThreads sets how many, each socket can have mailboxCapacity pushes waiting
+    private static final SessionExecutor writers = new SessionExecutor(
+        Integer.getInteger("dungeonmania.writerThreads", 4 * Runtime.getRuntime().availableProcessors()),
+        Integer.getInteger("dungeonmania.mailboxCapacity", SessionExecutor.DEFAULT_MAILBOX_CAPACITY),
+        SessionExecutor.DEFAULT_BATCH_SIZE);
+
+    // idle ttl and session cap can be set with -Ddungeonmania.sessionTtlSeconds and -Ddungeonmania.maxSessions
+    private static final SessionRegistry<GameSession> sessionStates = new SessionRegistry<>(
+        () -> new GameSession(executor),
+        TimeUnit.SECONDS.toNanos(Long.getLong("dungeonmania.sessionTtlSeconds",
+            TimeUnit.NANOSECONDS.toSeconds(SessionRegistry.DEFAULT_IDLE_TTL))),
+        Integer.getInteger("dungeonmania.maxSessions", SessionRegistry.DEFAULT_MAX_SESSIONS),
+        System::nanoTime);
 
-    private static synchronized DungeonManiaController getDungeonManiaController(Request request) {
+    private static final String ROUTE_SECONDS = "dungeonmania_route_seconds";
+    private static final Histogram SERIALIZE_TIME = Metrics.phase("serialize");
+
+    private static GameSession getSession(Request request) {
         String session = request.session().id();
         if (session == null) {
             System.out.println("No Session Found... using default.");
             session = "__DEFAULT_SESSION__";
         }
-
-        if (sessionStates.containsKey(session)) {
-            return sessionStates.get(session);
-        } else {
-            DungeonManiaController bc = new DungeonManiaController();
-            sessionStates.put(session, bc);
-            return bc;
-        }
+        return sessionStates.get(session);
     }
 
     private static <T> GenericResponseWrapper<T> callWithWrapper(Supplier<T> runnable) {
@@ -59,17 +99,155 @@ public class App implements SparkApplication {
         }
     }
 
-    private static <T> GenericResponseWrapper<T> callUsingSessionAndArgument(
+    /**
+     * Queues runnable on the session's mailbox, it runs after every command the session sent before it
+     */
+    private static <T> CompletableFuture<GenericResponseWrapper<T>> callUsingSessionAndArgument(
         Request request, Function<DungeonManiaController, T> runnable) {
+        GameSession session;
         try {
-            DungeonManiaController dmc = getDungeonManiaController(request);
-            synchronized (dmc) {
-                return GenericResponseWrapper.ok(runnable.apply(dmc));
-            }
+            session = getSession(request);
         } catch (Exception e) {
             e.printStackTrace();
-            return GenericResponseWrapper.err(e);
+            return CompletableFuture.completedFuture(GenericResponseWrapper.err(e));
         }
+        return executor.submit(session.getMailbox(), () -> {
+            session.getController().setBattleCursor(intParam(request, "battleCursor", 0));
+            return runnable.apply(session.getController());
+        }).handle((result, e) -> {
+            if (e == null) return GenericResponseWrapper.ok(result);
+            e.printStackTrace();
+            return GenericResponseWrapper.err(e instanceof Exception ? (Exception) e : new RuntimeException(e));
+        });
+    }
+
+    private static int intParam(Request request, String name, int defaultValue) {
+        String value = request.queryParams(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * The whole response, or what changed since the ackVersion query parameter when the session asked for deltas
+     */
+    private static Object respond(Request request, DungeonManiaController dmc, DungeonResponse response) {
+        if (dmc.getResponseMode() != ResponseMode.DELTA) return response;
+        return dmc.getDeltaResponse(intParam(request, "ackVersion", -1));
+    }
+
+    /**
+     * Streams what route returns to the client as JSON instead of building the whole body as a String first
+     * When it returns a future the request is made asynchronous and the request thread is let go,
+     * the response is then written from one of the writers, never from the session worker that ran the command.
+     * Clients that accept ColumnarWriter.CONTENT_TYPE get every response in that encoding instead.
+     * The time until the response is written is recorded against the route, its timer is looked up once here.
+     */
+    private static Route json(Gson gson, String route, Route handler) {
+        Histogram routeTime = Metrics.timer(ROUTE_SECONDS, "Time from a request arriving to its response being written",
+            "route", route);
+        return (request, response) -> {
+            long start = System.nanoTime();
+            Object result = handler.handle(request, response);
+            boolean columnar = ColumnarWriter.accepts(request.headers("Accept"));
+            response.type(columnar ? ColumnarWriter.CONTENT_TYPE : "application/json; charset=utf-8");
+            if (result instanceof CompletionStage) {
+                CompletableFuture<?> future = ((CompletionStage<?>) result).toCompletableFuture();
+                if (!request.raw().isAsyncSupported()) {
+                    result = future.join();
+                } else {
+                    AsyncContext async = request.raw().startAsync();
+                    async.setTimeout(0);
+                    // headers go out now, so Spark leaves the body to us once the route returns
+                    response.raw().flushBuffer();
+                    future.whenComplete((value, e) -> writers.submit(writers.newMailbox(), () -> {
+                        try {
+                            writeBody(gson, response, value, columnar);
+                        } catch (IOException ioe) {
+                            ioe.printStackTrace();
+                        } finally {
+                            async.complete();
+                            routeTime.recordSince(start);
+                        }
+                        return null;
+                    }));
+                    return "";
+                }
+            }
+            try {
+                writeBody(gson, response, result, columnar);
+            } finally {
+                routeTime.recordSince(start);
+            }
+            return "";
+        };
+    }
+
+    private static void get(String path, Gson gson, Route handler) {
+        Spark.get(path, "application/json", json(gson, "GET " + path, handler));
+    }
+
+    private static void post(String path, Gson gson, Route handler) {
+        Spark.post(path, "application/json", json(gson, "POST " + path, handler));
+    }
+
+    /**
+     * The body is streamed as it is serialized, so the time recorded for serializing includes sending it
+     */
+    private static void writeBody(Gson gson, Response response, Object value, boolean columnar) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (columnar) {
+                OutputStream out = new BufferedOutputStream(response.raw().getOutputStream());
+                ColumnarWriter.write(out, value, gson);
+                out.flush();
+                return;
+            }
+            Writer out = new BufferedWriter(
+                new OutputStreamWriter(response.raw().getOutputStream(), StandardCharsets.UTF_8));
+            ResponseWriter.write(out, value, gson);
+            out.flush();
+        } finally {
+            SERIALIZE_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Gauges and counters read off the sessions and their mailboxes when /api/metrics is scraped
+     */
+    private static void registerMetrics() {
+        Metrics.gauge("dungeonmania_sessions", "Live sessions", () -> sessionStates.size());
+        Metrics.gauge("dungeonmania_entities", "Entities on the maps of every live session", () -> {
+            long[] entities = {0};
+            sessionStates.forEach(session -> entities[0] += session.getController().getEntityCount());
+            return entities[0];
+        });
+        Metrics.counter("dungeonmania_sessions_created_total", "Sessions created",
+            () -> sessionStates.getStats().getCreatedSessions());
+        Metrics.counter("dungeonmania_sessions_evicted_total", "Sessions evicted",
+            () -> sessionStates.getStats().getIdleEvictions(), "reason", "idle");
+        Metrics.counter("dungeonmania_sessions_evicted_total", "Sessions evicted",
+            () -> sessionStates.getStats().getLruEvictions(), "reason", "lru");
+        SessionStatsResponse sessions = sessionStates.getStats();
+        Metrics.gauge("dungeonmania_sessions_max", "Sessions kept before the least recently used are evicted",
+            () -> sessions.getMaxSessions());
+        Metrics.gauge("dungeonmania_sessions_idle_ttl_seconds", "Time a session is kept without being used",
+            () -> sessions.getIdleTtlSeconds());
+
+        MailboxStatsResponse mailboxes = executor.getStats();
+        Metrics.gauge("dungeonmania_mailbox_workers", "Threads running session commands", () -> mailboxes.getWorkers());
+        Metrics.gauge("dungeonmania_mailbox_capacity", "Commands a session can have waiting",
+            () -> mailboxes.getMailboxCapacity());
+        Metrics.gauge("dungeonmania_mailbox_queued_commands", "Commands waiting or running",
+            () -> executor.getStats().getQueuedCommands());
+        Metrics.gauge("dungeonmania_mailbox_max_queue_depth", "Most commands a session has had waiting",
+            () -> executor.getStats().getMaxQueueDepth());
+        Metrics.counter("dungeonmania_mailbox_commands_total", "Commands run",
+            () -> executor.getStats().getCompletedCommands(), "outcome", "completed");
+        Metrics.counter("dungeonmania_mailbox_commands_total", "Commands run",
+            () -> executor.getStats().getRejectedCommands(), "outcome", "rejected");
+        Metrics.gauge("dungeonmania_mailbox_wait_seconds", "Time commands waited in their mailbox",
+            () -> executor.getStats().getMeanWaitMicros() / 1e6, "stat", "mean");
+        Metrics.gauge("dungeonmania_mailbox_wait_seconds", "Time commands waited in their mailbox",
+            () -> executor.getStats().getMaxWaitMicros() / 1e6, "stat", "max");
     }
 
     @Override
@@ -80,106 +258,153 @@ public class App implements SparkApplication {
         Gson gson = gsonBuilder.create();
         Object globalLock = new Object();
 
-        Spark.after((request, response) -> {
+        // websockets have to be mapped before any route or filter
+        Spark.webSocket("/api/game/socket/", new GameSocket(sessionStates::get, executor, writers, gson));
+
+        // set before the route runs, responses are streamed and may already be sent once it returns
+        Spark.before((request, response) -> {
             response.header("Access-Control-Allow-Origin", "*");
             response.header("Access-Control-Allow-Methods", "*");
             response.header("Access-Control-Allow-Headers", "*");
         });
 
-        Spark.get("/api/dungeons/", "application/json", (request, response) -> {
+        get("/api/dungeons/", gson, (request, response) -> {
             // we don't *need* to globally lock this but we might as well just to keep a nice standard.
             synchronized (globalLock) {
                 return callWithWrapper(() -> DungeonManiaController.dungeons());
             }
-        }, gson::toJson);
+        });
 
-        Spark.get("/api/configs/", "application/json", (request, response) -> {
+        get("/api/configs/", gson, (request, response) -> {
             // we don't *need* to globally lock this but we might as well just to keep a nice standard.
             synchronized (globalLock) {
                 return callWithWrapper(() -> DungeonManiaController.configs());
             }
-        }, gson::toJson);
+        });
 
-        Spark.post("/api/game/new/", "application/json", (request, response) -> {
+        post("/api/game/new/", gson, (request, response) -> {
             return callUsingSessionAndArgument(
                 request,
-                (dmc) -> dmc.newGame(request.queryParams("dungeonName"), request.queryParams("configName")));
-        }, gson::toJson);
+                (dmc) -> respond(request, dmc,
+                    dmc.newGame(request.queryParams("dungeonName"), request.queryParams("configName"))));
+        });
 
-        Spark.post("/api/game/new/generate/", "application/json", (request, response) -> {
+        post("/api/game/new/generate/", gson, (request, response) -> {
             return callUsingSessionAndArgument(
                 request,
-                (dmc) -> dmc.generateDungeon(Integer.valueOf(request.queryParams("xStart")),
+                (dmc) -> respond(request, dmc, dmc.generateDungeon(Integer.valueOf(request.queryParams("xStart")),
                  Integer.valueOf(request.queryParams("yStart")),
                 Integer.valueOf(request.queryParams("xEnd")), Integer.valueOf(request.queryParams("yEnd")),
-                 request.queryParams("configName")));
-        }, gson::toJson);
+                 request.queryParams("configName"))));
+        });
 
-        Spark.post("/api/game/tick/item/", "application/json", (request, response) -> {
+        post("/api/game/tick/item/", gson, (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> {
                 try {
-                    return dmc.tick(request.queryParams("itemUsed"));
+                    return respond(request, dmc, dmc.tick(request.queryParams("itemUsed")));
                 } catch (InvalidActionException e) {
                     throw new InvalidActionExceptionAPI(e.getMessage());
                 }
             });
-        }, gson::toJson);
+        });
 
-        Spark.post("/api/game/rewind/", "application/json", (request, response) -> {
+        post("/api/game/rewind/", gson, (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> {
-                return dmc.rewind(Integer.valueOf(request.queryParams("ticks")));
+                return respond(request, dmc, dmc.rewind(Integer.valueOf(request.queryParams("ticks"))));
             });
-        }, gson::toJson);
+        });
+
+        get("/api/game/history/", gson, (request, response) -> {
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.getHistory());
+        });
 
-        Spark.post("/api/game/tick/movement/", "application/json", (request, response) -> {
+        post("/api/game/batch/", gson, (request, response) -> {
+            // a JSON array of commands as DungeonManiaController.command takes them, e.g. ["mR", "mD", "bbow"]
+            String body = request.body();
+            boolean steps = Boolean.parseBoolean(request.queryParams("steps"));
+            return callUsingSessionAndArgument(request, (dmc) -> {
+                List<String> commands = Arrays.asList(gson.fromJson(body, String[].class));
+                return dmc.batch(commands, steps, intParam(request, "ackVersion", -1));
+            });
+        });
+
+        get("/api/game/battles/", gson, (request, response) -> {
+            return callUsingSessionAndArgument(request,
+                (dmc) -> dmc.getBattles(intParam(request, "before", -1), intParam(request, "limit", 20)));
+        });
+
+        post("/api/game/tick/movement/", gson, (request, response) -> {
             return callUsingSessionAndArgument(
                 request,
-                (dmc) -> dmc.tick(Direction.valueOf(request.queryParams("movementDirection").toUpperCase())));
-        }, gson::toJson);
+                (dmc) -> respond(request, dmc,
+                    dmc.tick(Direction.valueOf(request.queryParams("movementDirection").toUpperCase()))));
+        });
 
-        Spark.post("/api/game/build/", "application/json", (request, response) -> {
+        post("/api/game/build/", gson, (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> {
                 try {
-                    return dmc.build(request.queryParams("buildable"));
+                    return respond(request, dmc, dmc.build(request.queryParams("buildable")));
                 } catch (InvalidActionException e) {
                     throw new InvalidActionExceptionAPI(e.getMessage());
                 }
             });
-        }, gson::toJson);
+        });
 
-        Spark.get("/api/skin/current/", "application/json", (request, response) -> {
+        get("/api/skin/current/", gson, (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> dmc.getSkin());
-        }, gson::toJson);
+        });
 
-        Spark.get("/api/localisation/current/", "application/json", (request, response) -> {
+        get("/api/localisation/current/", gson, (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> dmc.getLocalisation());
-        }, gson::toJson);
+        });
 
-        Spark.post("/api/game/interact/", "application/json", (request, response) -> {
+        post("/api/game/interact/", gson, (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> {
                 try {
-                    return dmc.interact(request.queryParams("entityId"));
+                    return respond(request, dmc, dmc.interact(request.queryParams("entityId")));
                 } catch (InvalidActionException e) {
                     throw new InvalidActionExceptionAPI(e.getMessage());
                 }
             });
-        }, gson::toJson);
+        });
+
+        post("/api/game/responseMode/", gson, (request, response) -> {
+            return callUsingSessionAndArgument(request, (dmc) -> {
+                dmc.setResponseMode(ResponseMode.valueOf(request.queryParams("mode").toUpperCase()));
+                return dmc.getResponseMode();
+            });
+        });
 
-        Spark.post("/api/game/dungeonResponseModel/", "application/json", (request, response) -> {
+        post("/api/game/dungeonResponseModel/", gson, (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> dmc.getDungeonResponseModel());
-        }, gson::toJson);
+        });
 
-        Spark.post("api/game/save/", "application/json", (request, response) -> {
+        post("api/game/save/", gson, (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> dmc.saveGame(request.queryParams("name")));
-        }, gson::toJson);
+        });
 
-        Spark.post("api/game/load/", "application/json", (request, response) -> {
-            return callUsingSessionAndArgument(request, (dmc) -> dmc.loadGame(request.queryParams("name")));
-        }, gson::toJson);
+        post("api/game/load/", gson, (request, response) -> {
+            return callUsingSessionAndArgument(request,
+                (dmc) -> respond(request, dmc, dmc.loadGame(request.queryParams("name"))));
+        });
+
+        get("/api/sessions/stats/", gson, (request, response) -> {
+            return callWithWrapper(() -> sessionStates.getStats());
+        });
+
+        get("/api/sessions/mailboxes/", gson, (request, response) -> {
+            return callWithWrapper(() -> executor.getStats());
+        });
 
-        Spark.get("api/games/all/", "application/json", (request, response) -> {
+        get("api/games/all/", gson, (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> dmc.allGames());
-        }, gson::toJson);
+        });
+
+        registerMetrics();
+        Spark.get("/api/metrics", (request, response) -> {
+            response.type(Metrics.CONTENT_TYPE);
+            return Metrics.scrape();
+        });
 
         Scintilla.start();
     }
@@ -0,0 +1,72 @@
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketConnect;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
+import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+
+import com.google.gson.Gson;
+
+import dungeonmania.sessions.GameChannel;
+import dungeonmania.sessions.GameSession;
+import dungeonmania.sessions.SessionExecutor;
+
+/**
+ * The websocket end of a GameChannel, see GameChannel for the frames it takes
+ * A socket plays the same game as the REST routes when the upgrade request carries their session cookie,
+ * otherwise it gets a session of its own.
+ */
+@WebSocket
+public class GameSocket {
+    private final Function<String, GameSession> sessions;
+    private final SessionExecutor executor;
+    private final SessionExecutor writers;
+    private final Gson gson;
+    private final Map<Session, GameChannel> channels = new ConcurrentHashMap<>();
+
+    public GameSocket(Function<String, GameSession> sessions, SessionExecutor executor, SessionExecutor writers,
+     Gson gson) {
+        this.sessions = sessions;
+        this.executor = executor;
+        this.writers = writers;
+        this.gson = gson;
+    }
+
+    @OnWebSocketConnect
+    public void onConnect(Session socket) {
+        String id = GameSession.idFromCookies(socket.getUpgradeRequest().getCookies());
+        if (id == null) id = "socket-" + UUID.randomUUID();
+        GameChannel channel = new GameChannel(sessions.apply(id), executor, writers, gson,
+            frame -> push(socket, frame));
+        channels.put(socket, channel);
+        channel.open();
+    }
+
+    @OnWebSocketClose
+    public void onClose(Session socket, int statusCode, String reason) {
+        channels.remove(socket);
+    }
+
+    @OnWebSocketMessage
+    public void onMessage(Session socket, String frame) {
+        GameChannel channel = channels.get(socket);
+        if (channel != null) channel.receive(frame);
+    }
+
+    private static void push(Session socket, String frame) {
+        // blocking sends can't overlap, an error push can race the mailbox's push
+        synchronized (socket) {
+            if (!socket.isOpen()) return;
+            try {
+                socket.getRemote().sendString(frame);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
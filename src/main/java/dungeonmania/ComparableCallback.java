@@ -3,19 +3,32 @@ package dungeonmania;
 import java.io.Serializable;
 
 /**
- * ComparableCallback is a wrapper around a Runnable
- * For every runnable r, we associate a value v to it
+ * ComparableCallback is a wrapper around a TickTask (or a Runnable for one off callbacks)
+ * For every task r, we associate a value v to it
  * higher v means lower priority
  * the callback is performed based on one entity,
  * whose entityId is attached to the callback
+ * callbacks compare by priority, then by the order the scheduler gave them
  */
-public class ComparableCallback implements Comparable<ComparableCallback>, Runnable, Serializable {
+public class ComparableCallback implements Comparable<ComparableCallback>, Serializable {
 
+    private TickTask task;
     private Runnable r;
     private int v;
     private String entityId; // entityId related to the current runnable
     private boolean isValid = true; // used to invalidate the current callback
     private boolean once = false; // some callback can only be used once
+    private long order = 0; // callbacks of the same priority run in this order
+    private boolean asleep = false; // skipped by the scheduler until wakeTick
+    private int wakeTick = 0;
+    private boolean queued = false; // in one of the scheduler's buckets
+
+    public ComparableCallback(TickTask task, int v, String entityId, boolean once) {
+        this.task = task;
+        this.v = v;
+        this.entityId = entityId;
+        this.once = once;
+    }
 
     public ComparableCallback(Runnable r, int v, String entityId, boolean once) {
         this.r = r;
@@ -29,9 +42,14 @@ public class ComparableCallback implements Comparable<ComparableCallback>, Runna
     }
 
     // run the callback
-    @Override
-    public void run() {
-        if (isValid) r.run();
+    public void run(Game game) {
+        if (isValid) {
+            if (task != null) {
+                task.run(game);
+            } else {
+                r.run();
+            }
+        }
         if (once) invalidate();
     }
 
@@ -50,10 +68,18 @@ public class ComparableCallback implements Comparable<ComparableCallback>, Runna
         if (Integer.compare(v, arg0.v) != 0) {
             return Integer.compare(v, arg0.v);
         } else {
-            return 1;
+            return Long.compare(order, arg0.order);
         }
     }
 
+    public int getPriority() {
+        return v;
+    }
+
+    public TickTask getTask() {
+        return task;
+    }
+
     public String getId() {
         return this.entityId;
     }
@@ -69,4 +95,37 @@ public class ComparableCallback implements Comparable<ComparableCallback>, Runna
     public boolean isOnce() {
         return once;
     }
+
+    long getOrder() {
+        return order;
+    }
+
+    void setOrder(long order) {
+        this.order = order;
+    }
+
+    void sleep(int wakeTick) {
+        this.asleep = true;
+        this.wakeTick = wakeTick;
+    }
+
+    void wake() {
+        this.asleep = false;
+    }
+
+    boolean isAsleep() {
+        return asleep;
+    }
+
+    int getWakeTick() {
+        return wakeTick;
+    }
+
+    boolean isQueued() {
+        return queued;
+    }
+
+    void setQueued(boolean queued) {
+        this.queued = queued;
+    }
 }
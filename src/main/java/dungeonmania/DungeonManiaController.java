@@ -1,24 +1,43 @@
 package dungeonmania;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.json.JSONException;
 
+import dungeonmania.battles.BattleLog;
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.EntityFactory;
 import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.metrics.Histogram;
+import dungeonmania.metrics.Metrics;
+import dungeonmania.response.models.BatchResponse;
+import dungeonmania.response.models.BatchStepResponse;
+import dungeonmania.response.models.BattlePageResponse;
+import dungeonmania.response.models.DeltaTracker;
+import dungeonmania.response.models.DungeonDeltaResponse;
 import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.HistoryResponse;
 import dungeonmania.response.models.ResponseBuilder;
+import dungeonmania.response.models.ResponseMode;
+import dungeonmania.snapshots.SnapshotStore;
 import dungeonmania.util.Direction;
 import dungeonmania.util.FileLoader;
 
 public class DungeonManiaController {
+    private static final Histogram SNAPSHOT_TIME = Metrics.phase("snapshot");
+    private static final Histogram BUILD_TIME = Metrics.phase("build");
+
     private Game game = null;
     private DungeonResponse dungeonResponse = null;
-    private List<Game> gameSnapshots = new ArrayList<>();
-    private List<DungeonResponse> dungeonResponseSnapshots = new ArrayList<>();
+    private SnapshotStore snapshots = new SnapshotStore();
+    private ResponseMode responseMode = ResponseMode.FULL;
+    private DeltaTracker deltas = new DeltaTracker();
+    private int battleCursor = 0;
+    // set while a batch runs, actions then leave building the response to the end of the batch
+    private boolean batching = false;
+    // read by the metrics scrape from another thread, so it only sees the count as of the last action
+    private volatile int entityCount = 0;
 
     public String getSkin() {
         return "default";
@@ -61,10 +80,8 @@ public class DungeonManiaController {
         try {
             GameBuilder builder = new GameBuilder();
             game = builder.setConfigName(configName).setDungeonName(dungeonName).buildGame();
-            dungeonResponse = ResponseBuilder.getDungeonResponse(game);
-            gameSnapshots.clear();
-            dungeonResponseSnapshots.clear();
-            return dungeonResponse;
+            resetHistory();
+            return respond();
         } catch (JSONException e) {
             return null;
         }
@@ -74,16 +91,76 @@ public class DungeonManiaController {
      * /game/dungeonResponseModel
      */
     public DungeonResponse getDungeonResponseModel() {
+        if (dungeonResponse == null && game != null) {
+            long start = System.nanoTime();
+            dungeonResponse = ResponseBuilder.getDungeonResponse(game, battleCursor);
+            BUILD_TIME.recordSince(start);
+        }
         return dungeonResponse;
     }
 
+    /**
+     * Full responses only include the battles numbered battleCursor onwards,
+     * the nextBattle of the last response is the cursor that leaves out every battle already seen
+     */
+    public void setBattleCursor(int battleCursor) {
+        if (battleCursor != this.battleCursor) dungeonResponse = null;
+        this.battleCursor = battleCursor;
+    }
+
+    /**
+     * /game/battles
+     * Up to limit battles from before the battle numbered before, or the newest ones when before is negative
+     */
+    public BattlePageResponse getBattles(int before, int limit) throws IllegalArgumentException {
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive");
+        BattleLog log = game.getBattleFacade().getBattleLog();
+        int to = (before < 0) ? log.getNext() : Math.min(before, log.getNext());
+        int from = Math.max(log.getFirst(), to - limit);
+        to = Math.max(from, to);
+        return new BattlePageResponse(log.getFirst(), log.getNext(), from, to, log.getResponses(from, to));
+    }
+
+    /**
+     * How many entities were on the map after the last action
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    public ResponseMode getResponseMode() {
+        return responseMode;
+    }
+
+    /**
+     * In delta mode the actions only record what changed and return null,
+     * getDeltaResponse answers them and getDungeonResponseModel still gives the whole dungeon for a resync
+     */
+    public void setResponseMode(ResponseMode responseMode) {
+        this.responseMode = responseMode;
+        deltas = new DeltaTracker();
+        dungeonResponse = null;
+    }
+
+    /**
+     * What changed since the version the client acknowledged, a resync when that version is unknown
+     */
+    public DungeonDeltaResponse getDeltaResponse(int ackVersion) {
+        // versions are only recorded in delta mode, so nothing can be acknowledged in full mode
+        if (responseMode != ResponseMode.DELTA) deltas = new DeltaTracker();
+        long start = System.nanoTime();
+        DungeonDeltaResponse delta = deltas.since(game, ackVersion);
+        BUILD_TIME.recordSince(start);
+        return delta;
+    }
+
     /**
      * /game/tick/item
      */
     public DungeonResponse tick(String itemUsedId) throws IllegalArgumentException, InvalidActionException {
         saveSnapshot();
-        dungeonResponse = ResponseBuilder.getDungeonResponse(game.tick(itemUsedId));
-        return dungeonResponse;
+        game.tick(itemUsedId);
+        return respond();
     }
 
     /**
@@ -91,9 +168,11 @@ public class DungeonManiaController {
      */
     public DungeonResponse tick(Direction movementDirection) {
         saveSnapshot();
-        dungeonResponse = ResponseBuilder.getDungeonResponse(game.tick(movementDirection));
+        game.tick(movementDirection);
+        dungeonResponse = respond();
         if (game.playerOnTimeTravellingPortal()) {
-            dungeonResponse = rewind(30);
+            // the portal goes back as far as it can, even when the history is shorter than 30 ticks
+            dungeonResponse = rewindTo(Math.max(game.getRewindTick(30), snapshots.getOldestTick()));
         }
         return dungeonResponse;
     }
@@ -107,7 +186,8 @@ public class DungeonManiaController {
         if (!validBuildables.contains(buildable)) {
             throw new IllegalArgumentException("Only bow, shield, midnight_armour and sceptre can be built");
         }
-        return ResponseBuilder.getDungeonResponse(game.build(buildable));
+        game.build(buildable);
+        return respond();
     }
 
     /**
@@ -115,13 +195,13 @@ public class DungeonManiaController {
      */
     public DungeonResponse interact(String entityId) throws IllegalArgumentException, InvalidActionException {
         saveSnapshot();
-        dungeonResponse = ResponseBuilder.getDungeonResponse(game.interact(entityId));
-        return dungeonResponse;
+        game.interact(entityId);
+        return respond();
     }
 
     public DungeonResponse saveGame(String name) {
-        Persistence.save(name, game, dungeonResponse);
-        return dungeonResponse;
+        Persistence.save(name, game);
+        return getDungeonResponseModel();
     }
 
     /**
@@ -129,18 +209,15 @@ public class DungeonManiaController {
      */
     public DungeonResponse loadGame(String name) throws IllegalArgumentException {
         game = Persistence.loadGame(name);
-        dungeonResponse = Persistence.loadDungeonResponse(name);
-        return dungeonResponse;
+        resetHistory();
+        return respond();
     }
 
     /**
      * /games/all
      */
     public List<String> allGames() {
-        return Stream.of(new File("src/main/java/dungeonmania/savedGames/")
-            .listFiles())
-            .map(File::getName)
-            .collect(Collectors.toList());
+        return Persistence.allGames();
     }
 
     /**
@@ -155,7 +232,8 @@ public class DungeonManiaController {
             GameBuilder builder = new GameBuilder();
             game = builder.setConfigName(configName).setDungeonName("Random Dunegon").
             buildRandomGame(xStart, yStart, xEnd, yEnd);
-            return ResponseBuilder.getDungeonResponse(game);
+            resetHistory();
+            return respond();
         } catch (JSONException e) {
             return null;
         }
@@ -165,21 +243,149 @@ public class DungeonManiaController {
      * /game/dungeonResponseModel
      */
     private void saveSnapshot() {
+        long start = System.nanoTime();
         try {
-            gameSnapshots.add((Game) DeepCopy.copy(game));
-            dungeonResponseSnapshots.add((DungeonResponse) DeepCopy.copy(dungeonResponse));
+            snapshots.save(game);
         } catch (Exception e) {
             e.printStackTrace();
         }
+        SNAPSHOT_TIME.recordSince(start);
+    }
+
+    /**
+     * The history only reaches back as far as the game's config asks for
+     */
+    private void resetHistory() {
+        EntityFactory factory = game.getEntityFactory();
+        snapshots.clear();
+        snapshots = new SnapshotStore(
+            factory.getConfigValue("rewind_retention", SnapshotStore.DEFAULT_RETENTION),
+            factory.getConfigValue("rewind_keyframe_interval", SnapshotStore.DEFAULT_KEYFRAME_INTERVAL),
+            factory.getConfigValue("rewind_spill_keyframes", 0) != 0);
+    }
+
+    /**
+     * /game/history
+     */
+    public HistoryResponse getHistory() {
+        return snapshots.getStats();
     }
 
     /**
      * /game/rewind
+     * Fails when the tick it would go back to is older than the history the game's config keeps
      */
     public DungeonResponse rewind(int ticks) throws IllegalArgumentException {
-        Game oldGame = gameSnapshots.get(game.getRewindTick(ticks));
+        return rewindTo(game.getRewindTick(ticks));
+    }
+
+    private DungeonResponse rewindTo(int tick) throws IllegalArgumentException {
+        Game oldGame = snapshots.get(tick);
         oldGame.update(oldGame.getMap(), game.getMap(), game.getPlayerInventory());
         game = oldGame;
-        return ResponseBuilder.getDungeonResponse(game);
+        return respond();
+    }
+
+    /**
+     * Runs one command, written the way websocket frames and batches write them:
+     * m followed by U, D, L, R or N to move, u[itemId] to use an item, b[buildable] to build,
+     * i[entityId] to interact and r[ticks] to rewind
+     */
+    public DungeonResponse command(String command) throws IllegalArgumentException, InvalidActionException {
+        if (command == null || command.isEmpty()) throw new IllegalArgumentException("Empty command");
+        String arg = command.substring(1);
+        switch (command.charAt(0)) {
+        case 'm':
+            return tick(direction(arg));
+        case 'u':
+            return tick(arg);
+        case 'b':
+            return build(arg);
+        case 'i':
+            return interact(arg);
+        case 'r':
+            return rewind(Integer.parseInt(arg));
+        default:
+            throw new IllegalArgumentException("Unknown command " + command.charAt(0));
+        }
+    }
+
+    private static Direction direction(String arg) {
+        switch (arg) {
+        case "U":
+            return Direction.UP;
+        case "D":
+            return Direction.DOWN;
+        case "L":
+            return Direction.LEFT;
+        case "R":
+            return Direction.RIGHT;
+        case "N":
+            return Direction.NONE;
+        default:
+            throw new IllegalArgumentException("Unknown direction " + arg);
+        }
+    }
+
+    /**
+     * /game/batch
+     * Runs commands in order and only builds the response once, after the last of them.
+     * Snapshots are still taken for every tick so rewinding works the same as after single commands.
+     * The batch stops at the first command that fails, the result is the state it left the game in
+     * and the failing command is the last step. With withSteps every command gets a step.
+     * In delta mode the result is what changed since ackVersion, as getDeltaResponse gives it.
+     */
+    public BatchResponse batch(List<String> commands, boolean withSteps, int ackVersion)
+     throws IllegalArgumentException {
+        if (game == null) throw new IllegalArgumentException("No game to run commands on");
+        List<BatchStepResponse> steps = withSteps ? new ArrayList<>() : null;
+        int completed = 0;
+        batching = true;
+        try {
+            for (String command : commands) {
+                int battlesBefore = game.getBattleFacade().getBattleLog().getNext();
+                try {
+                    command(command);
+                } catch (IllegalArgumentException | InvalidActionException e) {
+                    if (steps == null) steps = new ArrayList<>();
+                    steps.add(new BatchStepResponse(command, e));
+                    break;
+                }
+                completed++;
+                if (withSteps) {
+                    int battles = game.getBattleFacade().getBattleLog().getNext() - battlesBefore;
+                    steps.add(new BatchStepResponse(command, game.getTick(), Math.max(0, battles),
+                        game.getGoalString()));
+                }
+            }
+        } finally {
+            batching = false;
+        }
+        Object result = responseMode == ResponseMode.DELTA ? getDeltaResponse(ackVersion) : getDungeonResponseModel();
+        return new BatchResponse(result, completed, steps);
+    }
+
+    public BatchResponse batch(List<String> commands, boolean withSteps) throws IllegalArgumentException {
+        return batch(commands, withSteps, -1);
+    }
+
+    /**
+     * Builds the response to an action, in delta mode only what changed is recorded
+     * and in a batch it is left until getDungeonResponseModel asks for it
+     */
+    private DungeonResponse respond() {
+        entityCount = (int) game.countEntities(Entity.class);
+        long start = System.nanoTime();
+        if (responseMode == ResponseMode.DELTA) {
+            deltas.record(game);
+            dungeonResponse = null;
+        } else if (batching) {
+            dungeonResponse = null;
+            return null;
+        } else {
+            dungeonResponse = ResponseBuilder.getDungeonResponse(game, battleCursor);
+        }
+        BUILD_TIME.recordSince(start);
+        return dungeonResponse;
     }
 }
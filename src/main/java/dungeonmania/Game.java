@@ -2,11 +2,10 @@ package dungeonmania;
 
 import java.io.Serializable;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.UUID;
 
 import dungeonmania.battles.BattleFacade;
+import dungeonmania.battles.BattleLog;
 import dungeonmania.entities.Entity;
 import dungeonmania.entities.EntityFactory;
 import dungeonmania.entities.Interactable;
@@ -14,14 +13,17 @@ import dungeonmania.entities.Player;
 import dungeonmania.entities.collectables.Bomb;
 import dungeonmania.entities.collectables.potions.Potion;
 import dungeonmania.entities.enemies.Enemy;
-import dungeonmania.entities.enemies.Mercenary;
 import dungeonmania.entities.enemies.ZombieToast;
 import dungeonmania.entities.enemies.ZombieToastSpawner;
 import dungeonmania.entities.inventory.Inventory;
 import dungeonmania.entities.inventory.InventoryItem;
 import dungeonmania.exceptions.InvalidActionException;
 import dungeonmania.goals.Goal;
+import dungeonmania.goals.GoalEngine;
+import dungeonmania.goals.GoalEvent;
 import dungeonmania.map.GameMap;
+import dungeonmania.metrics.Histogram;
+import dungeonmania.metrics.Metrics;
 import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
 
@@ -29,21 +31,26 @@ public class Game implements Serializable {
     private String id;
     private String name;
     private Goal goals;
+    // compiled from goals on first use
+    private transient GoalEngine goalEngine = null;
     private GameMap map;
     private Player player;
     private BattleFacade battleFacade;
     private int initialTreasureCount;
     private EntityFactory entityFactory;
-    private boolean isInTick = false;
     private int enemiesDestroyed = 0;
     public static final int PLAYER_MOVEMENT = 0;
     public static final int PLAYER_MOVEMENT_CALLBACK = 1;
     public static final int AI_MOVEMENT = 2;
     public static final int AI_MOVEMENT_CALLBACK = 3;
+    public static final String POTION_QUEUE = "potionQueue";
+    public static final String MIND_CONTROL_CHECK = "mindControlCheck";
+    private static final Histogram TICK_TIME = Metrics.phase("tick");
 
     private int tickCount = 0;
-    private SortedSet<ComparableCallback> sub = new TreeSet<>();
-    private SortedSet<ComparableCallback> addingSub = new TreeSet<>();
+    private TickScheduler scheduler = new TickScheduler();
+    // bumped whenever the set of long lived callbacks changes, snapshots only store sub when it moved
+    private int subscriptionVersion = 0;
 
     public Game(String dungeonName) {
         this.name = dungeonName;
@@ -56,16 +63,50 @@ public class Game implements Serializable {
         map.init();
         this.tickCount = 0;
         player = map.getPlayer();
-        register((Runnable & Serializable) () -> player.onTick(tickCount), PLAYER_MOVEMENT, "potionQueue");
-        register((Runnable & Serializable) () -> map.getEntities(Mercenary.class).forEach(m -> m.onTick(tickCount)),
-            PLAYER_MOVEMENT_CALLBACK, "mindControlCheck");
-        initialTreasureCount = map.getTreasureSize();
+        registerPotionQueue();
+        registerMindControlCheck();
+        setInitialTreasureCount(map.getTreasureSize());
+    }
+
+    private void registerPotionQueue() {
+        register(new TickTask(TickTask.Action.POTION_QUEUE, POTION_QUEUE), PLAYER_MOVEMENT, POTION_QUEUE);
+    }
+
+    private void registerMindControlCheck() {
+        register(new TickTask(TickTask.Action.MIND_CONTROL_CHECK, MIND_CONTROL_CHECK), PLAYER_MOVEMENT_CALLBACK,
+            MIND_CONTROL_CHECK);
+    }
+
+    /**
+     * Re-create a long lived callback from its id, used when a saved game is loaded
+     * callbacks run in the order they are resubscribed in
+     */
+    public void resubscribe(String id) throws IllegalArgumentException {
+        switch (id) {
+        case POTION_QUEUE:
+            registerPotionQueue();
+            return;
+        case MIND_CONTROL_CHECK:
+            registerMindControlCheck();
+            return;
+        case GameMap.SPIDER_SPAWNER:
+            map.registerSpiderSpawner();
+            return;
+        default:
+            Entity e = map.getEntity(id);
+            if (e instanceof Enemy) {
+                map.registerMovable((Enemy) e);
+            } else if (e instanceof ZombieToastSpawner) {
+                map.registerSpawner((ZombieToastSpawner) e);
+            } else {
+                throw new IllegalArgumentException("No callback belongs to " + id);
+            }
+        }
     }
 
     public Game tick(Direction movementDirection) {
-        registerOnce(
-            (Runnable & Serializable) () -> player.move(this.getMap(), movementDirection), PLAYER_MOVEMENT,
-                "playerMoves");
+        registerOnce(new TickTask(TickTask.Action.PLAYER_MOVES, player.getId(), movementDirection.name()),
+            PLAYER_MOVEMENT, "playerMoves");
         tick();
         return this;
     }
@@ -77,12 +118,8 @@ public class Game implements Serializable {
         if (!(item instanceof Bomb) && !(item instanceof Potion))
             throw new IllegalArgumentException(String.format("%s cannot be used", item.getClass()));
 
-        registerOnce((Runnable & Serializable) () -> {
-            if (item instanceof Bomb)
-                player.use((Bomb) item, map);
-            if (item instanceof Potion)
-                player.use((Potion) item, tickCount);
-        }, PLAYER_MOVEMENT, "playerUsesItem");
+        registerOnce(new TickTask(TickTask.Action.PLAYER_USES_ITEM, player.getId(), itemUsedId), PLAYER_MOVEMENT,
+            "playerUsesItem");
         tick();
         return this;
     }
@@ -94,6 +131,8 @@ public class Game implements Serializable {
      */
     public void battle(Player player, Enemy enemy) {
         battleFacade.battle(this, player, enemy);
+        map.markChanged(player);
+        map.markChanged(enemy);
         if (player.getHealth() <= 0) {
             map.destroyEntity(player);
         }
@@ -107,7 +146,7 @@ public class Game implements Serializable {
         if (!buildables.contains(buildable)) {
             throw new InvalidActionException(String.format("%s cannot be built", buildable));
         }
-        registerOnce((Runnable & Serializable) () -> player.build(buildable, entityFactory), PLAYER_MOVEMENT,
+        registerOnce(new TickTask(TickTask.Action.PLAYER_BUILDS_ITEM, player.getId(), buildable), PLAYER_MOVEMENT,
             "playerBuildsItem");
         tick();
         return this;
@@ -124,8 +163,7 @@ public class Game implements Serializable {
         if (!((Interactable) e).isInteractable(player)) {
             throw new InvalidActionException("Entity cannot be interacted");
         }
-        registerOnce((Runnable & Serializable) () -> ((Interactable) e).interact(player, this), PLAYER_MOVEMENT,
-            "playerBuildsItem");
+        registerOnce(new TickTask(TickTask.Action.PLAYER_INTERACTS, entityId), PLAYER_MOVEMENT, "playerInteracts");
         tick();
         return this;
     }
@@ -134,40 +172,55 @@ public class Game implements Serializable {
         return map.countEntities(type);
     }
 
+    public void register(TickTask task, int priority, String id) {
+        subscriptionVersion++;
+        scheduler.add(new ComparableCallback(task, priority, id, false));
+    }
+
+    public void registerOnce(TickTask task, int priority, String id) {
+        // a callback registered during a tick outlives it, so it is visible to snapshots
+        if (scheduler.isRunning()) subscriptionVersion++;
+        scheduler.add(new ComparableCallback(task, priority, id, true));
+    }
+
+    /**
+     * Registers a callback that is not one of the TickTask actions
+     * the runnable is written out with every snapshot, so the game has to be reachable from it by reference only
+     */
     public void register(Runnable r, int priority, String id) {
-        if (isInTick)
-            addingSub.add(new ComparableCallback(r, priority, id));
-        else
-            sub.add(new ComparableCallback(r, priority, id));
+        subscriptionVersion++;
+        scheduler.add(new ComparableCallback(r, priority, id));
     }
 
     public void registerOnce(Runnable r, int priority, String id) {
-        if (isInTick)
-            addingSub.add(new ComparableCallback(r, priority, id, true));
-        else
-            sub.add(new ComparableCallback(r, priority, id, true));
+        if (scheduler.isRunning()) subscriptionVersion++;
+        scheduler.add(new ComparableCallback(r, priority, id, true));
     }
 
     public void unsubscribe(String id) {
-        for (ComparableCallback c : sub) {
-            if (id.equals(c.getId())) {
-                c.invalidate();
-            }
-        }
-        for (ComparableCallback c : addingSub) {
-            if (id.equals(c.getId())) {
-                c.invalidate();
-            }
-        }
+        subscriptionVersion++;
+        scheduler.unsubscribe(id);
+    }
+
+    /**
+     * Skips every callback registered under id until the given tick, e.g. an enemy stuck in a swamp
+     * the callbacks have to cope with being woken early, a loaded or rewound game wakes everything
+     */
+    public void sleepUntil(String id, int tick) {
+        scheduler.sleepUntil(id, tick, tickCount);
+    }
+
+    /**
+     * Wakes the callbacks registered under id, they run this tick if their priority has not run yet
+     */
+    public void wake(String id) {
+        scheduler.wake(id);
     }
 
     public int tick() {
-        isInTick = true;
-        sub.forEach(s -> s.run());
-        isInTick = false;
-        sub.addAll(addingSub);
-        addingSub = new TreeSet<>();
-        sub.removeIf(s -> !s.isValid());
+        long start = System.nanoTime();
+        scheduler.run(this, tickCount);
+        TICK_TIME.recordSince(start);
         tickCount++;
         // update the weapons/potions duration
         return tickCount;
@@ -205,6 +258,14 @@ public class Game implements Serializable {
         this.goals = goals;
     }
 
+    /**
+     * The goals left to achieve, empty once they all are
+     */
+    public String getGoalString() {
+        if (goalEngine == null || goalEngine.getRoot() != goals) goalEngine = new GoalEngine(goals);
+        return goalEngine.getGoalString(this);
+    }
+
     public GameMap getMap() {
         return map;
     }
@@ -219,6 +280,7 @@ public class Game implements Serializable {
 
     public void setEntityFactory(EntityFactory factory) {
         entityFactory = factory;
+        battleFacade.getBattleLog().setWindow(factory.getConfigValue("battle_log_window", BattleLog.DEFAULT_WINDOW));
     }
 
     public Player getPlayer() {
@@ -243,6 +305,7 @@ public class Game implements Serializable {
 
     public void setInitialTreasureCount(int initialTreasureCount) {
         this.initialTreasureCount = initialTreasureCount;
+        map.goalChanged(GoalEvent.TREASURE);
     }
 
     public int getEnemiesDestroyed() {
@@ -251,18 +314,24 @@ public class Game implements Serializable {
 
     public void setEnemiesDestroyed(int enemiesDestroyed) {
         this.enemiesDestroyed = enemiesDestroyed;
+        map.goalChanged(GoalEvent.ENEMIES);
     }
 
     public void addEnemiesDestroyed() {
         enemiesDestroyed += 1;
+        map.goalChanged(GoalEvent.ENEMIES);
+    }
+
+    public TickScheduler getScheduler() {
+        return scheduler;
     }
 
-    public void setSub(SortedSet<ComparableCallback> sub) {
-        this.sub = sub;
+    public int getSubscriptionVersion() {
+        return subscriptionVersion;
     }
 
-    public void setAddingSub(SortedSet<ComparableCallback> addingSub) {
-        this.addingSub = addingSub;
+    public void setScheduler(TickScheduler scheduler) {
+        this.scheduler = scheduler;
     }
 
     public boolean playerOnTimeTravellingPortal() {
@@ -302,8 +371,8 @@ public class Game implements Serializable {
         try {
             oldMap.removeNode(player);
             player.setPosition((Position) DeepCopy.copy(newMap.getPlayerPosition()));
-            player.setId(UUID.randomUUID().toString());
             oldMap.addEntity(player);
+            oldMap.setEntityId(player, UUID.randomUUID().toString());
         } catch (Exception e) {
             e.printStackTrace();
         }
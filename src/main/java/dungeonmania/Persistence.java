@@ -1,64 +1,62 @@
 package dungeonmania;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
-import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.saves.SaveSlot;
+import dungeonmania.saves.SaveSlotStore;
 
 public class Persistence {
-    public static void save(String name, Game game, DungeonResponse dungeonResponse) {
-        ObjectOutputStream objectOutputStream = null;
-        try {
-            File file = new File("src/main/java/dungeonmania/savedGames/" + name);
-            file.createNewFile();
-            FileOutputStream fileStream = new FileOutputStream(file);
-            objectOutputStream = new ObjectOutputStream(fileStream);
-            objectOutputStream.writeObject(game);
-            objectOutputStream.flush();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    public static final String SAVE_DIRECTORY_PROPERTY = "dungeonmania.saveDirectory";
+    public static final String DEFAULT_SAVE_DIRECTORY = "src/main/java/dungeonmania/savedGames/";
+
+    private static SaveSlotStore store = new SaveSlotStore(
+        Paths.get(System.getProperty(SAVE_DIRECTORY_PROPERTY, DEFAULT_SAVE_DIRECTORY)));
+
+    public static synchronized void setSaveDirectory(String directory) {
+        store = new SaveSlotStore(Paths.get(directory));
+    }
+
+    public static synchronized SaveSlotStore getStore() {
+        return store;
+    }
+
+    public static void save(String name, Game game) {
         try {
-            File file = new File("src/main/java/dungeonmania/savedDungeonResponses/" + name);
-            file.createNewFile();
-            FileOutputStream fileStream = new FileOutputStream(file);
-            objectOutputStream = new ObjectOutputStream(fileStream);
-            objectOutputStream.writeObject(dungeonResponse);
-            objectOutputStream.flush();
+            getStore().save(name, game);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Saves made before the binary format existed are plain serialized games, those still load
+     */
     public static Game loadGame(String name)
      throws IllegalArgumentException {
-        Game game = null;
         try {
-            FileInputStream fileStream = new FileInputStream("src/main/java/dungeonmania/savedGames/" + name);
-            ObjectInputStream objectInputStream = new ObjectInputStream(fileStream);
-            game = (Game) objectInputStream.readObject();
-            objectInputStream.close();
+            return getStore().load(name);
         } catch (Exception e) {
             throw new IllegalArgumentException();
         }
-        return game;
     }
 
-    public static DungeonResponse loadDungeonResponse(String name)
-     throws IllegalArgumentException {
-        DungeonResponse dungeonResponse = null;
+    public static List<String> allGames() {
         try {
-            FileInputStream fileStream = new FileInputStream("src/main/java/dungeonmania/savedDungeonResponses/"
-                + name);
-            ObjectInputStream objectInputStream = new ObjectInputStream(fileStream);
-            dungeonResponse = (DungeonResponse) objectInputStream.readObject();
-            objectInputStream.close();
+            return getStore().getNames();
         } catch (Exception e) {
-            throw new IllegalArgumentException();
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    public static List<SaveSlot> allSlots() {
+        try {
+            return getStore().getSlots();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ArrayList<>();
         }
-        return dungeonResponse;
     }
 }
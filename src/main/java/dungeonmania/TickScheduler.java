@@ -0,0 +1,245 @@
+package dungeonmania;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import dungeonmania.metrics.Histogram;
+import dungeonmania.metrics.Metrics;
+
+/**
+ * TickScheduler -- the callbacks a Game runs every tick
+ * Callbacks are kept in one list per priority and run lowest priority value first,
+ * callbacks of the same priority run in the order they were registered.
+ *
+ * 1. callbacks registered while a tick is running wait in a pending list and join their bucket once it is over
+ * 2. unsubscribing looks the callbacks up by id and invalidates them, an invalid callback never runs again
+ * 3. invalid callbacks are only swept out of the buckets they were invalidated in, once the tick is over
+ * 4. a callback can be put to sleep until a later tick, it waits in a TimerWheel and goes back to its place
+ *    in the bucket when it wakes up
+ */
+public class TickScheduler implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final String PRIORITY_SECONDS = "dungeonmania_tick_priority_seconds";
+    // the timers of the priorities Game uses, looked up once so running a bucket only records into one
+    private static final Histogram[] PRIORITY_TIMES = new Histogram[Game.AI_MOVEMENT_CALLBACK + 1];
+    static {
+        for (int p = 0; p < PRIORITY_TIMES.length; p++) PRIORITY_TIMES[p] = priorityTime(p);
+    }
+    private static final Comparator<ComparableCallback> BY_ORDER =
+        Comparator.comparingLong(ComparableCallback::getOrder);
+
+    private List<List<ComparableCallback>> buckets = new ArrayList<>();
+    private boolean[] dirty = new boolean[0];
+    private List<ComparableCallback> pending = new ArrayList<>();
+    private Map<String, List<ComparableCallback>> byId = new HashMap<>();
+    private TimerWheel sleeping = new TimerWheel();
+    private long nextOrder = 0;
+    private boolean running = false;
+    // the priority being run, buckets after it can still take callbacks that wake up during the tick
+    private int runningPriority = -1;
+
+    public void add(ComparableCallback callback) {
+        callback.setOrder(nextOrder++);
+        byId.computeIfAbsent(callback.getId(), k -> new ArrayList<>(1)).add(callback);
+        if (running) {
+            pending.add(callback);
+        } else {
+            bucket(callback.getPriority()).add(callback);
+            callback.setQueued(true);
+        }
+    }
+
+    /**
+     * Invalidates every callback registered under id so far
+     */
+    public void unsubscribe(String id) {
+        List<ComparableCallback> callbacks = byId.remove(id);
+        if (callbacks == null) return;
+        for (ComparableCallback c : callbacks) {
+            c.invalidate();
+            markDirty(c.getPriority());
+        }
+    }
+
+    /**
+     * Skips the callbacks registered under id until wakeTick, nothing happens when that is the next tick anyway
+     */
+    public void sleepUntil(String id, int wakeTick, int tick) {
+        if (wakeTick <= tick + 1) return;
+        List<ComparableCallback> callbacks = byId.get(id);
+        if (callbacks == null) return;
+        for (ComparableCallback c : callbacks) {
+            if (!c.isValid() || c.isOnce()) continue;
+            sleeping.schedule(c, wakeTick);
+            markDirty(c.getPriority());
+        }
+    }
+
+    /**
+     * Wakes the callbacks registered under id straight away, they still run this tick if their priority has not
+     */
+    public void wake(String id) {
+        List<ComparableCallback> callbacks = byId.get(id);
+        if (callbacks == null) return;
+        List<ComparableCallback> woken = new ArrayList<>();
+        for (ComparableCallback c : callbacks) {
+            if (c.isAsleep()) woken.add(c);
+        }
+        rejoin(woken);
+    }
+
+    public void run(Game game, int tick) {
+        List<ComparableCallback> woken = new ArrayList<>();
+        sleeping.advance(tick, woken);
+        rejoin(woken);
+
+        running = true;
+        for (int p = 0; p < buckets.size(); p++) {
+            runningPriority = p;
+            List<ComparableCallback> bucket = buckets.get(p);
+            if (bucket.isEmpty()) continue;
+            long start = System.nanoTime();
+            // callbacks registered from here on are pending, so the bucket does not change while it runs
+            for (int i = 0; i < bucket.size(); i++) {
+                ComparableCallback c = bucket.get(i);
+                if (c.isAsleep()) continue;
+                c.run(game);
+                if (c.isOnce()) markDirty(p);
+            }
+            (p < PRIORITY_TIMES.length ? PRIORITY_TIMES[p] : priorityTime(p)).recordSince(start);
+        }
+        running = false;
+        runningPriority = -1;
+
+        for (int p = 0; p < dirty.length; p++) {
+            if (!dirty[p]) continue;
+            dirty[p] = false;
+            buckets.get(p).removeIf(c -> {
+                if (c.isValid() && !c.isAsleep()) return false;
+                if (!c.isValid()) forget(c);
+                c.setQueued(false);
+                return true;
+            });
+        }
+        List<ComparableCallback> added = new ArrayList<>();
+        for (ComparableCallback c : pending) {
+            if (!c.isValid()) {
+                forget(c);
+            } else if (!c.isAsleep()) {
+                added.add(c);
+            }
+        }
+        pending = new ArrayList<>();
+        insert(added);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Every live callback, asleep or not, in the order they run, pending callbacks are left out
+     */
+    public List<ComparableCallback> getCallbacks() {
+        Set<ComparableCallback> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ComparableCallback> callbacks = new ArrayList<>();
+        buckets.forEach(bucket -> bucket.forEach(c -> {
+            if (c.isValid() && !c.isAsleep() && seen.add(c)) callbacks.add(c);
+        }));
+        sleeping.forEach(c -> {
+            if (c.isValid() && c.isAsleep() && seen.add(c)) callbacks.add(c);
+        });
+        Collections.sort(callbacks);
+        return callbacks;
+    }
+
+    public List<ComparableCallback> getPending() {
+        return pending;
+    }
+
+    /**
+     * Puts woken callbacks back where they were in their buckets
+     */
+    private void rejoin(List<ComparableCallback> woken) {
+        List<ComparableCallback> back = new ArrayList<>();
+        for (ComparableCallback c : woken) {
+            // a callback can be in the wheel twice when it was woken early and put to sleep again
+            if (!c.isValid() || !c.isAsleep()) continue;
+            c.wake();
+            // put to sleep earlier this tick and not swept out yet
+            if (!c.isQueued()) back.add(c);
+        }
+        insert(back);
+    }
+
+    /**
+     * Merges callbacks into their buckets by registration order,
+     * callbacks whose bucket already ran this tick wait in pending instead
+     */
+    private void insert(List<ComparableCallback> callbacks) {
+        Map<Integer, List<ComparableCallback>> byPriority = new HashMap<>();
+        for (ComparableCallback c : callbacks) {
+            if (running && c.getPriority() <= runningPriority) {
+                pending.add(c);
+            } else {
+                byPriority.computeIfAbsent(c.getPriority(), k -> new ArrayList<>()).add(c);
+                c.setQueued(true);
+            }
+        }
+        byPriority.forEach((p, cs) -> {
+            cs.sort(BY_ORDER);
+            List<ComparableCallback> bucket = bucket(p);
+            if (bucket.isEmpty() || bucket.get(bucket.size() - 1).getOrder() < cs.get(0).getOrder()) {
+                bucket.addAll(cs);
+                return;
+            }
+            List<ComparableCallback> merged = new ArrayList<>(bucket.size() + cs.size());
+            int i = 0;
+            int j = 0;
+            while (i < bucket.size() || j < cs.size()) {
+                if (j == cs.size() || (i < bucket.size() && bucket.get(i).getOrder() < cs.get(j).getOrder())) {
+                    merged.add(bucket.get(i++));
+                } else {
+                    merged.add(cs.get(j++));
+                }
+            }
+            buckets.set(p, merged);
+        });
+    }
+
+    private static Histogram priorityTime(int priority) {
+        return Metrics.timer(PRIORITY_SECONDS, "Time spent running the callbacks of each priority in a tick",
+            "priority", Integer.toString(priority));
+    }
+
+    private List<ComparableCallback> bucket(int priority) {
+        while (buckets.size() <= priority) buckets.add(new ArrayList<>());
+        return buckets.get(priority);
+    }
+
+    private void markDirty(int priority) {
+        if (dirty.length <= priority) {
+            boolean[] grown = new boolean[priority + 1];
+            System.arraycopy(dirty, 0, grown, 0, dirty.length);
+            dirty = grown;
+        }
+        dirty[priority] = true;
+    }
+
+    // an invalid callback that was not unsubscribed by id (e.g. one that only runs once) is still indexed
+    private void forget(ComparableCallback c) {
+        List<ComparableCallback> callbacks = byId.get(c.getId());
+        if (callbacks == null) return;
+        // ComparableCallback.equals only compares ids, this has to be the same callback
+        callbacks.removeIf(other -> other == c);
+        if (callbacks.isEmpty()) byId.remove(c.getId());
+    }
+}
@@ -0,0 +1,115 @@
+package dungeonmania;
+
+import java.io.Serializable;
+
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.Interactable;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.collectables.Bomb;
+import dungeonmania.entities.collectables.potions.Potion;
+import dungeonmania.entities.enemies.Enemy;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.entities.enemies.ZombieToastSpawner;
+import dungeonmania.map.GameMap;
+import dungeonmania.util.Direction;
+
+/**
+ * TickTask -- what a scheduled callback does, kept as plain data
+ * A task is an action, the id of the entity it acts on and an argument for the player's actions.
+ * The entity is looked up in the game when the task runs, so snapshots and saves only carry these few fields
+ * instead of a lambda and everything it captured.
+ */
+public final class TickTask implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Action {
+        POTION_QUEUE,
+        MIND_CONTROL_CHECK,
+        ENEMY_MOVES,
+        SPAWNER_SPAWNS,
+        SPIDER_SPAWNS,
+        PLAYER_MOVES,
+        PLAYER_USES_ITEM,
+        PLAYER_BUILDS_ITEM,
+        PLAYER_INTERACTS
+    }
+
+    private final Action action;
+    private final String entityId;
+    private final String argument;
+
+    public TickTask(Action action, String entityId, String argument) {
+        this.action = action;
+        this.entityId = entityId;
+        this.argument = argument;
+    }
+
+    public TickTask(Action action, String entityId) {
+        this(action, entityId, null);
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public String getArgument() {
+        return argument;
+    }
+
+    /**
+     * Runs the task against the game as it is now, a task whose entity is gone does nothing
+     */
+    public void run(Game game) {
+        GameMap map = game.getMap();
+        Player player = game.getPlayer();
+        switch (action) {
+        case POTION_QUEUE:
+            player.onTick(game.getTick());
+            return;
+        case MIND_CONTROL_CHECK:
+            map.getEntities(Mercenary.class).forEach(m -> {
+                if (m.isAllied()) map.markChanged(m);
+                m.onTick(game.getTick());
+            });
+            return;
+        case ENEMY_MOVES:
+            Entity enemy = map.getEntity(entityId);
+            if (!(enemy instanceof Enemy)) return;
+            ((Enemy) enemy).move(game, map);
+            game.sleepUntil(entityId, ((Enemy) enemy).getNextMoveTick());
+            return;
+        case SPAWNER_SPAWNS:
+            Entity spawner = map.getEntity(entityId);
+            if (!(spawner instanceof ZombieToastSpawner)) return;
+            ((ZombieToastSpawner) spawner).spawn(game, game.getEntityFactory());
+            game.sleepUntil(entityId, game.getEntityFactory().getNextZombieSpawnTick(game.getTick()));
+            return;
+        case SPIDER_SPAWNS:
+            game.spawnSpider(game);
+            game.sleepUntil(entityId, game.getEntityFactory().getNextSpiderSpawnTick(game.getTick()));
+            return;
+        case PLAYER_MOVES:
+            player.move(map, Direction.valueOf(argument));
+            return;
+        case PLAYER_USES_ITEM:
+            Entity item = player.getEntity(argument);
+            if (item instanceof Bomb)
+                player.use((Bomb) item, map);
+            if (item instanceof Potion)
+                player.use((Potion) item, game.getTick());
+            return;
+        case PLAYER_BUILDS_ITEM:
+            player.build(argument, game.getEntityFactory());
+            return;
+        default:
+            Entity e = map.getEntity(entityId);
+            if (!(e instanceof Interactable)) return;
+            map.markChanged(e);
+            ((Interactable) e).interact(player, game);
+        }
+    }
+}
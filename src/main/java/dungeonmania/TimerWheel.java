@@ -0,0 +1,93 @@
+package dungeonmania;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * TimerWheel -- callbacks asleep until a given tick, in a hierarchical timing wheel
+ * Level 0 has a slot for each of the next 64 ticks, level 1 a slot for each of the next 64 blocks of 64 ticks
+ * and so on, anything further out than the top level waits in an overflow list.
+ * Whenever a block starts the slot of the level above is spread out over the levels below,
+ * so putting a callback to sleep and waking it are both O(1).
+ *
+ * The wheel expects to be advanced one tick at a time. When it is not (a loaded or rewound game)
+ * every callback is woken, callbacks that wake too early go back to sleep on their own.
+ */
+class TimerWheel implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private List<List<ComparableCallback>> slots = new ArrayList<>();
+    private List<ComparableCallback> overflow = new ArrayList<>();
+    private int now = Integer.MIN_VALUE;
+
+    TimerWheel() {
+        for (int i = 0; i < LEVELS * SLOTS; i++) slots.add(null);
+    }
+
+    /**
+     * The callback next runs on tick wakeTick, which has to be after the current tick
+     */
+    void schedule(ComparableCallback callback, int wakeTick) {
+        callback.sleep(wakeTick);
+        place(callback);
+    }
+
+    /**
+     * Moves the wheel on to tick, the callbacks that are due are handed to woken
+     */
+    void advance(int tick, List<ComparableCallback> woken) {
+        if (now == Integer.MIN_VALUE || tick != now + 1) {
+            now = tick;
+            for (int i = 0; i < slots.size(); i++) {
+                if (slots.get(i) != null) woken.addAll(slots.set(i, null));
+            }
+            woken.addAll(overflow);
+            overflow = new ArrayList<>();
+            return;
+        }
+
+        now = tick;
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((tick & ((1 << (SLOT_BITS * level)) - 1)) != 0) continue;
+            List<ComparableCallback> cascade = slots.set(level * SLOTS + ((tick >>> (SLOT_BITS * level)) & MASK), null);
+            if (cascade != null) cascade.forEach(this::place);
+        }
+        if ((tick & ((1 << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+            List<ComparableCallback> far = overflow;
+            overflow = new ArrayList<>();
+            far.forEach(this::place);
+        }
+        List<ComparableCallback> due = slots.set(tick & MASK, null);
+        if (due != null) woken.addAll(due);
+    }
+
+    /**
+     * Every callback in the wheel, including ones woken early that are still in a slot
+     */
+    void forEach(Consumer<ComparableCallback> action) {
+        slots.forEach(slot -> {
+            if (slot != null) slot.forEach(action);
+        });
+        overflow.forEach(action);
+    }
+
+    private void place(ComparableCallback callback) {
+        long delta = (long) callback.getWakeTick() - now;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                int i = level * SLOTS + ((callback.getWakeTick() >>> (SLOT_BITS * level)) & MASK);
+                if (slots.get(i) == null) slots.set(i, new ArrayList<>());
+                slots.get(i).add(callback);
+                return;
+            }
+        }
+        overflow.add(callback);
+    }
+}
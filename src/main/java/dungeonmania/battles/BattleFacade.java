@@ -1,26 +1,25 @@
 package dungeonmania.battles;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import dungeonmania.Game;
 import dungeonmania.entities.Entity;
+import dungeonmania.entities.EntityTypes;
 import dungeonmania.entities.Player;
 import dungeonmania.entities.enemies.Enemy;
 import dungeonmania.response.models.BattleResponse;
 import dungeonmania.response.models.ResponseBuilder;
-import dungeonmania.util.NameConverter;
 
 public class BattleFacade implements Serializable {
-    private List<BattleResponse> battleResponses = new ArrayList<>();
+    private BattleLog battleLog = new BattleLog();
 
     public void battle(Game game, Player player, Enemy enemy) {
         // 0. init
         double initialPlayerHealth = player.getHealth();
         double initialEnemyHealth = enemy.getHealth();
-        String enemyString = NameConverter.toSnakeCase(enemy);
+        String enemyString = EntityTypes.of(enemy).getName(enemy);
 
         player.buff();
 
@@ -31,13 +30,19 @@ public class BattleFacade implements Serializable {
 
         player.useItems(game);
 
-        // 5. Log the battle - solidate it to be a battle response
-        battleResponses.add(new BattleResponse(enemyString, rounds.stream().map(ResponseBuilder::getRoundResponse).
-        collect(Collectors.toList()), player.getBattleItems().stream().map(Entity.class::cast).
-        map(ResponseBuilder::getItemResponse).collect(Collectors.toList()), initialPlayerHealth, initialEnemyHealth));
+        // 5. Log the battle
+        battleLog.add(enemyString, initialPlayerHealth, initialEnemyHealth, rounds, player.getBattleItems().stream()
+            .map(Entity.class::cast).map(ResponseBuilder::getItemResponse).collect(Collectors.toList()));
     }
 
+    public BattleLog getBattleLog() {
+        return battleLog;
+    }
+
+    /**
+     * Every battle the log still holds
+     */
     public List<BattleResponse> getBattleResponses() {
-        return battleResponses;
+        return battleLog.getResponses(battleLog.getFirst());
     }
 }
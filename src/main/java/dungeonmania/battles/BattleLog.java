@@ -0,0 +1,171 @@
+package dungeonmania.battles;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import dungeonmania.response.models.BattleResponse;
+import dungeonmania.response.models.ItemResponse;
+import dungeonmania.response.models.RoundResponse;
+
+/**
+ * BattleLog -- the battles of a game, numbered in the order they were fought
+ * Battles are kept as primitives (the rounds as one double array) and only turned into responses when asked for.
+ * Only the newest window battles are kept, older ones are dropped, but numbering carries on from where it was,
+ * so a client can ask for the battles after the last one it has seen.
+ */
+public class BattleLog implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_WINDOW = 100;
+
+    private final ArrayDeque<Battle> battles = new ArrayDeque<>();
+    // the number of the oldest battle kept
+    private int first = 0;
+    private int window = DEFAULT_WINDOW;
+
+    /**
+     * How many battles are kept, anything below 1 keeps every battle
+     */
+    public void setWindow(int window) {
+        this.window = window;
+        trim();
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * The number of the oldest battle still kept
+     */
+    public int getFirst() {
+        return first;
+    }
+
+    /**
+     * Numbers the battles from first onwards, for a log restored from a save before its battles are added
+     */
+    public void setFirst(int first) throws IllegalArgumentException {
+        if (!battles.isEmpty()) throw new IllegalArgumentException("The log already holds battles");
+        this.first = first;
+    }
+
+    /**
+     * The number the next battle will get, also how many battles have been fought
+     */
+    public int getNext() {
+        return first + battles.size();
+    }
+
+    public int size() {
+        return battles.size();
+    }
+
+    public void add(String enemy, double initialPlayerHealth, double initialEnemyHealth, List<BattleRound> rounds,
+            List<ItemResponse> items) {
+        double[] deltas = new double[rounds.size() * 2];
+        for (int i = 0; i < rounds.size(); i++) {
+            deltas[i * 2] = rounds.get(i).getDeltaSelfHealth();
+            deltas[i * 2 + 1] = rounds.get(i).getDeltaTargetHealth();
+        }
+        String[] itemFields = new String[items.size() * 2];
+        for (int i = 0; i < items.size(); i++) {
+            itemFields[i * 2] = items.get(i).getId();
+            itemFields[i * 2 + 1] = items.get(i).getType();
+        }
+        add(new Battle(enemy, initialPlayerHealth, initialEnemyHealth, deltas, itemFields));
+    }
+
+    public void add(BattleResponse battle) {
+        List<BattleRound> rounds = new ArrayList<>();
+        for (RoundResponse round : battle.getRounds()) {
+            rounds.add(new BattleRound(round.getDeltaCharacterHealth(), round.getDeltaEnemyHealth()));
+        }
+        add(battle.getEnemy(), battle.getInitialPlayerHealth(), battle.getInitialEnemyHealth(), rounds,
+            battle.getBattleItems());
+    }
+
+    /**
+     * Appends battles copied out of another log with since
+     */
+    public void addAll(List<Battle> copied) {
+        copied.forEach(this::add);
+    }
+
+    private void add(Battle battle) {
+        battles.addLast(battle);
+        trim();
+    }
+
+    private void trim() {
+        while (window > 0 && battles.size() > window) {
+            battles.removeFirst();
+            first++;
+        }
+    }
+
+    /**
+     * The battles numbered from, or the oldest one kept, onwards, for copying into another log
+     */
+    public List<Battle> since(int from) {
+        List<Battle> copied = new ArrayList<>();
+        int n = first;
+        for (Battle battle : battles) {
+            if (n++ >= from) copied.add(battle);
+        }
+        return copied;
+    }
+
+    /**
+     * Responses for the battles numbered from, or the oldest one kept, onwards
+     */
+    public List<BattleResponse> getResponses(int from) {
+        return getResponses(from, getNext());
+    }
+
+    /**
+     * Responses for the battles numbered from up to but not including to, limited to the battles still kept
+     */
+    public List<BattleResponse> getResponses(int from, int to) {
+        List<BattleResponse> responses = new ArrayList<>();
+        int n = first;
+        for (Battle battle : battles) {
+            if (n >= to) break;
+            if (n >= from) responses.add(battle.toResponse());
+            n++;
+        }
+        return responses;
+    }
+
+    /**
+     * One battle as primitives, rounds and items are stored as flat pairs
+     */
+    public static final class Battle implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String enemy;
+        private final double initialPlayerHealth;
+        private final double initialEnemyHealth;
+        private final double[] rounds;
+        private final String[] items;
+
+        private Battle(String enemy, double initialPlayerHealth, double initialEnemyHealth, double[] rounds,
+                String[] items) {
+            this.enemy = enemy;
+            this.initialPlayerHealth = initialPlayerHealth;
+            this.initialEnemyHealth = initialEnemyHealth;
+            this.rounds = rounds;
+            this.items = items;
+        }
+
+        private BattleResponse toResponse() {
+            List<RoundResponse> roundResponses = new ArrayList<>(rounds.length / 2);
+            for (int i = 0; i < rounds.length; i += 2) roundResponses.add(new RoundResponse(rounds[i], rounds[i + 1]));
+            List<ItemResponse> itemResponses = new ArrayList<>(items.length / 2);
+            for (int i = 0; i < items.length; i += 2) itemResponses.add(new ItemResponse(items[i], items[i + 1]));
+            return new BattleResponse(enemy, roundResponses, itemResponses, initialPlayerHealth, initialEnemyHealth);
+        }
+    }
+}
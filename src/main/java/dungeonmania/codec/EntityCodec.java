@@ -0,0 +1,465 @@
+package dungeonmania.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+import dungeonmania.battles.BattleStatistics;
+import dungeonmania.entities.Boulder;
+import dungeonmania.entities.ColorCodedType;
+import dungeonmania.entities.Door;
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.Exit;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.Portal;
+import dungeonmania.entities.SwampTile;
+import dungeonmania.entities.Switch;
+import dungeonmania.entities.TimeTravellingPortal;
+import dungeonmania.entities.Wall;
+import dungeonmania.entities.buildables.Bow;
+import dungeonmania.entities.buildables.MidnightArmour;
+import dungeonmania.entities.buildables.Sceptre;
+import dungeonmania.entities.buildables.Shield;
+import dungeonmania.entities.collectables.Arrow;
+import dungeonmania.entities.collectables.Bomb;
+import dungeonmania.entities.collectables.Key;
+import dungeonmania.entities.collectables.SunStone;
+import dungeonmania.entities.collectables.Sword;
+import dungeonmania.entities.collectables.TimeTurner;
+import dungeonmania.entities.collectables.Treasure;
+import dungeonmania.entities.collectables.Wood;
+import dungeonmania.entities.collectables.potions.InvincibilityPotion;
+import dungeonmania.entities.collectables.potions.InvisibilityPotion;
+import dungeonmania.entities.collectables.potions.Potion;
+import dungeonmania.entities.enemies.Assassin;
+import dungeonmania.entities.enemies.Enemy;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.entities.enemies.Spider;
+import dungeonmania.entities.enemies.ZombieToast;
+import dungeonmania.entities.enemies.ZombieToastSpawner;
+import dungeonmania.entities.inventory.InventoryItem;
+import dungeonmania.entities.logical.AndRule;
+import dungeonmania.entities.logical.CoAndRule;
+import dungeonmania.entities.logical.Conductor;
+import dungeonmania.entities.logical.LightBulb;
+import dungeonmania.entities.logical.Logical;
+import dungeonmania.entities.logical.LogicalRule;
+import dungeonmania.entities.logical.OrRule;
+import dungeonmania.entities.logical.SwitchDoor;
+import dungeonmania.entities.logical.Wire;
+import dungeonmania.entities.logical.XOrRule;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+/**
+ * EntityCodec -- writes and reads single entities for GameCodec
+ * Every entity starts with its type tag, id, positions and movement factor, followed by what its type adds.
+ * Bombs and switches refer to each other by id, those references are only resolved by link()
+ * once every entity of the game has been read.
+ */
+class EntityCodec {
+    // tags are part of the save format, only ever append to this list
+    private static final byte PLAYER = 1;
+    private static final byte ZOMBIE_TOAST = 2;
+    private static final byte ZOMBIE_TOAST_SPAWNER = 3;
+    private static final byte MERCENARY = 4;
+    private static final byte ASSASSIN = 5;
+    private static final byte SPIDER = 6;
+    private static final byte WALL = 7;
+    private static final byte BOULDER = 8;
+    private static final byte SWITCH = 9;
+    private static final byte EXIT = 10;
+    private static final byte DOOR = 11;
+    private static final byte PORTAL = 12;
+    private static final byte SWAMP_TILE = 13;
+    private static final byte TIME_TRAVELLING_PORTAL = 14;
+    private static final byte WIRE = 15;
+    private static final byte LIGHT_BULB = 16;
+    private static final byte SWITCH_DOOR = 17;
+    private static final byte TREASURE = 18;
+    private static final byte SUN_STONE = 19;
+    private static final byte WOOD = 20;
+    private static final byte ARROW = 21;
+    private static final byte BOMB = 22;
+    private static final byte KEY = 23;
+    private static final byte SWORD = 24;
+    private static final byte TIME_TURNER = 25;
+    private static final byte INVISIBILITY_POTION = 26;
+    private static final byte INVINCIBILITY_POTION = 27;
+    private static final byte BOW = 28;
+    private static final byte SHIELD = 29;
+    private static final byte SCEPTRE = 30;
+    private static final byte MIDNIGHT_ARMOUR = 31;
+
+    private static final Map<Class<?>, Byte> TAGS = new HashMap<>();
+
+    static {
+        TAGS.put(Player.class, PLAYER);
+        TAGS.put(ZombieToast.class, ZOMBIE_TOAST);
+        TAGS.put(ZombieToastSpawner.class, ZOMBIE_TOAST_SPAWNER);
+        TAGS.put(Assassin.class, ASSASSIN);
+        TAGS.put(Mercenary.class, MERCENARY);
+        TAGS.put(Spider.class, SPIDER);
+        TAGS.put(Wall.class, WALL);
+        TAGS.put(Boulder.class, BOULDER);
+        TAGS.put(Switch.class, SWITCH);
+        TAGS.put(Exit.class, EXIT);
+        TAGS.put(Door.class, DOOR);
+        TAGS.put(Portal.class, PORTAL);
+        TAGS.put(SwampTile.class, SWAMP_TILE);
+        TAGS.put(TimeTravellingPortal.class, TIME_TRAVELLING_PORTAL);
+        TAGS.put(Wire.class, WIRE);
+        TAGS.put(LightBulb.class, LIGHT_BULB);
+        TAGS.put(SwitchDoor.class, SWITCH_DOOR);
+        TAGS.put(Treasure.class, TREASURE);
+        TAGS.put(SunStone.class, SUN_STONE);
+        TAGS.put(Wood.class, WOOD);
+        TAGS.put(Arrow.class, ARROW);
+        TAGS.put(Bomb.class, BOMB);
+        TAGS.put(Key.class, KEY);
+        TAGS.put(Sword.class, SWORD);
+        TAGS.put(TimeTurner.class, TIME_TURNER);
+        TAGS.put(InvisibilityPotion.class, INVISIBILITY_POTION);
+        TAGS.put(InvincibilityPotion.class, INVINCIBILITY_POTION);
+        TAGS.put(Bow.class, BOW);
+        TAGS.put(Shield.class, SHIELD);
+        TAGS.put(Sceptre.class, SCEPTRE);
+        TAGS.put(MidnightArmour.class, MIDNIGHT_ARMOUR);
+    }
+
+    private static final byte AND_RULE = 1;
+    private static final byte OR_RULE = 2;
+    private static final byte XOR_RULE = 3;
+    private static final byte CO_AND_RULE = 4;
+
+    private Map<String, Entity> read = new HashMap<>();
+    private Map<Bomb, List<String>> bombSwitches = new HashMap<>();
+    private Map<Switch, List<String>> switchBombs = new HashMap<>();
+
+    void write(Entity e, DataOutputStream out) throws IOException {
+        out.writeByte(tagOf(e));
+        GameCodec.writeId(e.getId(), out);
+        GameCodec.writePosition(e.getPosition(), out);
+        GameCodec.writePosition(e.getPreviousPosition(), out);
+        GameCodec.writePosition(e.getPreviousDistinctPosition(), out);
+        out.writeInt(e.getMovementFactor());
+
+        if (e instanceof Player) {
+            writePlayer((Player) e, out);
+        } else if (e instanceof Enemy) {
+            writeEnemy((Enemy) e, out);
+        } else if (e instanceof Switch) {
+            writeConductor((Conductor) e, out);
+            writeIds(((Switch) e).getBombs(), out);
+        } else if (e instanceof Wire) {
+            writeConductor((Conductor) e, out);
+        } else if (e instanceof Logical) {
+            out.writeByte(ruleTagOf(((Logical) e).getRule()));
+            out.writeBoolean(((Logical) e).isActivated());
+        } else if (e instanceof Door) {
+            out.writeInt(((Door) e).getNumber());
+            out.writeBoolean(((Door) e).isOpen());
+        } else if (e instanceof Portal) {
+            out.writeUTF(((Portal) e).getColor());
+        } else if (e instanceof SwampTile) {
+            out.writeInt(((SwampTile) e).getTileMovementFactor());
+        } else if (e instanceof TimeTravellingPortal) {
+            out.writeBoolean(((TimeTravellingPortal) e).isActive());
+            out.writeBoolean(((TimeTravellingPortal) e).isBroken());
+        } else if (e instanceof Bomb) {
+            out.writeInt(((Bomb) e).getRadius());
+            out.writeByte(((Bomb) e).getState().ordinal());
+            writeIds(((Bomb) e).getSubs(), out);
+        } else if (e instanceof Key) {
+            out.writeInt(((Key) e).getnumber());
+        } else if (e instanceof Sword) {
+            out.writeDouble(((Sword) e).getAttack());
+            out.writeInt(((Sword) e).getDurability());
+        } else if (e instanceof Potion) {
+            out.writeInt(((Potion) e).getDuration());
+        } else if (e instanceof Bow) {
+            out.writeInt(((Bow) e).getDurability());
+        } else if (e instanceof Shield) {
+            out.writeInt(((Shield) e).getDurability());
+            out.writeDouble(((Shield) e).getDefence());
+        } else if (e instanceof MidnightArmour) {
+            out.writeDouble(((MidnightArmour) e).getAttack());
+            out.writeDouble(((MidnightArmour) e).getDefence());
+        }
+    }
+
+    Entity read(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        String id = GameCodec.readId(in);
+        Position position = GameCodec.readPosition(in);
+        Position previousPosition = GameCodec.readPosition(in);
+        Position previousDistinctPosition = GameCodec.readPosition(in);
+        int movementFactor = in.readInt();
+
+        Entity e = construct(tag, position, in);
+        e.setId(id);
+        e.setPreviousPositions(previousPosition, previousDistinctPosition);
+        e.setMovementFactor(movementFactor);
+        read.put(id, e);
+        return e;
+    }
+
+    /**
+     * Point bombs and switches back at each other, references to entities that are gone are dropped
+     */
+    void link() {
+        bombSwitches.forEach((bomb, ids) -> ids.stream().map(read::get).filter(Switch.class::isInstance)
+            .forEach(s -> bomb.subscribe((Switch) s)));
+        switchBombs.forEach((s, ids) -> ids.stream().map(read::get).filter(Bomb.class::isInstance)
+            .forEach(bomb -> s.subscribe((Bomb) bomb)));
+    }
+
+    private Entity construct(byte tag, Position p, DataInputStream in) throws IOException {
+        switch (tag) {
+        case PLAYER:
+            return readPlayer(p, in);
+        case ZOMBIE_TOAST:
+            return readEnemy(new ZombieToast(p, 0, 0), in);
+        case MERCENARY:
+        case ASSASSIN:
+            return readMercenary(tag, p, in);
+        case SPIDER:
+            return readSpider(p, in);
+        case ZOMBIE_TOAST_SPAWNER:
+            return new ZombieToastSpawner(p, 0);
+        case WALL:
+            return new Wall(p);
+        case BOULDER:
+            return new Boulder(p);
+        case EXIT:
+            return new Exit(p);
+        case SWITCH:
+            Switch s = new Switch(p);
+            readConductor(s, in);
+            switchBombs.put(s, readIds(in));
+            return s;
+        case WIRE:
+            Wire wire = new Wire(p);
+            readConductor(wire, in);
+            return wire;
+        case LIGHT_BULB:
+            LightBulb bulb = new LightBulb(p, readRule(in));
+            bulb.restore(in.readBoolean());
+            return bulb;
+        case SWITCH_DOOR:
+            SwitchDoor switchDoor = new SwitchDoor(p, readRule(in));
+            switchDoor.restore(in.readBoolean());
+            return switchDoor;
+        case DOOR:
+            Door door = new Door(p, in.readInt());
+            if (in.readBoolean()) door.open();
+            return door;
+        case PORTAL:
+            return new Portal(p, ColorCodedType.valueOf(in.readUTF()));
+        case SWAMP_TILE:
+            return new SwampTile(p, in.readInt());
+        case TIME_TRAVELLING_PORTAL:
+            TimeTravellingPortal portal = new TimeTravellingPortal(p);
+            portal.restore(in.readBoolean(), in.readBoolean());
+            return portal;
+        case BOMB:
+            Bomb bomb = new Bomb(p, in.readInt());
+            bomb.setState(Bomb.State.values()[in.readByte()]);
+            bombSwitches.put(bomb, readIds(in));
+            return bomb;
+        case KEY:
+            return new Key(p, in.readInt());
+        case SWORD:
+            double attack = in.readDouble();
+            return new Sword(p, attack, in.readInt());
+        case INVISIBILITY_POTION:
+            return new InvisibilityPotion(p, in.readInt());
+        case INVINCIBILITY_POTION:
+            return new InvincibilityPotion(p, in.readInt());
+        case TREASURE:
+            return new Treasure(p);
+        case SUN_STONE:
+            return new SunStone(p);
+        case WOOD:
+            return new Wood(p);
+        case ARROW:
+            return new Arrow(p);
+        case TIME_TURNER:
+            return new TimeTurner(p);
+        case BOW:
+            return new Bow(in.readInt());
+        case SHIELD:
+            int durability = in.readInt();
+            return new Shield(durability, in.readDouble());
+        case SCEPTRE:
+            return new Sceptre();
+        case MIDNIGHT_ARMOUR:
+            double armourAttack = in.readDouble();
+            return new MidnightArmour(armourAttack, in.readDouble());
+        default:
+            throw new IOException("Unknown entity tag " + tag);
+        }
+    }
+
+    private void writePlayer(Player player, DataOutputStream out) throws IOException {
+        GameCodec.writeStatistics(player.getBattleStatistics(), out);
+        out.writeByte(player.getFacing() == null ? -1 : player.getFacing().ordinal());
+
+        List<Entity> items = player.getInventory().getEntities();
+        out.writeShort(items.size());
+        for (Entity item : items) write(item, out);
+
+        out.writeShort(player.getPotionQueue().size());
+        for (Potion potion : player.getPotionQueue()) write(potion, out);
+        out.writeBoolean(player.getEffectivePotion() != null);
+        if (player.getEffectivePotion() != null) write(player.getEffectivePotion(), out);
+        out.writeInt(player.getNextTrigger());
+    }
+
+    private Player readPlayer(Position p, DataInputStream in) throws IOException {
+        Player player = new Player(p, 0, 0);
+        GameCodec.readStatistics(player.getBattleStatistics(), in);
+        byte facing = in.readByte();
+        player.setFacing(facing < 0 ? null : Direction.values()[facing]);
+
+        int itemCount = in.readShort();
+        for (int i = 0; i < itemCount; i++) player.getInventory().add((InventoryItem) read(in));
+
+        Queue<Potion> queue = new LinkedList<>();
+        int queued = in.readShort();
+        for (int i = 0; i < queued; i++) queue.add((Potion) read(in));
+        Potion inEffective = in.readBoolean() ? (Potion) read(in) : null;
+        player.restorePotions(queue, inEffective, in.readInt());
+        return player;
+    }
+
+    private void writeEnemy(Enemy enemy, DataOutputStream out) throws IOException {
+        GameCodec.writeStatistics(enemy.getBattleStatistics(), out);
+        out.writeInt(enemy.getInitialTick());
+        if (enemy instanceof Mercenary) {
+            Mercenary mercenary = (Mercenary) enemy;
+            out.writeInt(mercenary.getBribeAmount());
+            out.writeInt(mercenary.getBribeRadius());
+            out.writeInt(mercenary.getMindControlDuration());
+            out.writeInt(mercenary.getEndOfControl());
+            out.writeBoolean(mercenary.isAllied());
+            if (enemy instanceof Assassin) out.writeDouble(((Assassin) enemy).getBribeFailRate());
+        } else if (enemy instanceof Spider) {
+            Spider spider = (Spider) enemy;
+            out.writeShort(spider.getMovementTrajectory().size());
+            for (Position p : spider.getMovementTrajectory()) GameCodec.writePosition(p, out);
+            out.writeInt(spider.getNextPositionElement());
+            out.writeBoolean(spider.isForward());
+        }
+    }
+
+    private <T extends Enemy> T readEnemy(T enemy, DataInputStream in) throws IOException {
+        GameCodec.readStatistics(enemy.getBattleStatistics(), in);
+        enemy.setInitialTick(in.readInt());
+        return enemy;
+    }
+
+    private Mercenary readMercenary(byte tag, Position p, DataInputStream in) throws IOException {
+        // the bribe settings the constructor needs come after the stats
+        BattleStatistics stats = new BattleStatistics(0, 0, 0, 0, 0);
+        GameCodec.readStatistics(stats, in);
+        int initialTick = in.readInt();
+        int bribeAmount = in.readInt();
+        int bribeRadius = in.readInt();
+        int mindControlDuration = in.readInt();
+        int endOfControl = in.readInt();
+        boolean allied = in.readBoolean();
+
+        Mercenary mercenary = tag == ASSASSIN
+            ? new Assassin(p, stats.getHealth(), stats.getAttack(), bribeAmount, bribeRadius, in.readDouble(),
+                mindControlDuration)
+            : new Mercenary(p, stats.getHealth(), stats.getAttack(), bribeAmount, bribeRadius, mindControlDuration);
+        BattleStatistics current = mercenary.getBattleStatistics();
+        current.setDefence(stats.getDefence());
+        current.setMagnifier(stats.getMagnifier());
+        current.setReducer(stats.getReducer());
+        current.setInvincible(stats.isInvincible());
+        current.setEnabled(stats.isEnabled());
+        mercenary.setInitialTick(initialTick);
+        mercenary.restoreControl(allied, endOfControl);
+        return mercenary;
+    }
+
+    private Spider readSpider(Position p, DataInputStream in) throws IOException {
+        Spider spider = readEnemy(new Spider(p, 0, 0), in);
+        int size = in.readShort();
+        List<Position> trajectory = new ArrayList<>();
+        for (int i = 0; i < size; i++) trajectory.add(GameCodec.readPosition(in));
+        int next = in.readInt();
+        spider.restoreMovement(trajectory, next, in.readBoolean());
+        return spider;
+    }
+
+    private void writeConductor(Conductor c, DataOutputStream out) throws IOException {
+        out.writeBoolean(c.isActivated());
+        out.writeInt(c.getActivatedTick());
+        out.writeShort(c.getSources().size());
+        for (String source : c.getSources()) out.writeUTF(source);
+    }
+
+    private void readConductor(Conductor c, DataInputStream in) throws IOException {
+        boolean activated = in.readBoolean();
+        int activatedTick = in.readInt();
+        int size = in.readShort();
+        TreeSet<String> sources = new TreeSet<>();
+        for (int i = 0; i < size; i++) sources.add(in.readUTF());
+        c.restore(activated, activatedTick, sources);
+    }
+
+    private void writeIds(List<? extends Entity> entities, DataOutputStream out) throws IOException {
+        out.writeShort(entities.size());
+        for (Entity e : entities) GameCodec.writeId(e.getId(), out);
+    }
+
+    private List<String> readIds(DataInputStream in) throws IOException {
+        int size = in.readShort();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < size; i++) ids.add(GameCodec.readId(in));
+        return ids;
+    }
+
+    private static byte tagOf(Entity e) throws IOException {
+        // a subclass is written as the closest class that has a tag
+        for (Class<?> c = e.getClass(); c != null; c = c.getSuperclass()) {
+            Byte tag = TAGS.get(c);
+            if (tag != null) return tag;
+        }
+        throw new IOException("No tag for " + e.getClass().getSimpleName());
+    }
+
+    private static byte ruleTagOf(LogicalRule rule) throws IOException {
+        if (rule instanceof AndRule) return AND_RULE;
+        if (rule instanceof OrRule) return OR_RULE;
+        if (rule instanceof XOrRule) return XOR_RULE;
+        if (rule instanceof CoAndRule) return CO_AND_RULE;
+        throw new IOException("No tag for " + rule);
+    }
+
+    private static LogicalRule readRule(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+        case AND_RULE:
+            return new AndRule();
+        case OR_RULE:
+            return new OrRule();
+        case XOR_RULE:
+            return new XOrRule();
+        case CO_AND_RULE:
+            return new CoAndRule();
+        default:
+            throw new IOException("Unknown logical rule tag " + tag);
+        }
+    }
+}
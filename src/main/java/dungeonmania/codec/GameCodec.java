@@ -0,0 +1,291 @@
+package dungeonmania.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.json.JSONObject;
+
+import dungeonmania.ComparableCallback;
+import dungeonmania.Game;
+import dungeonmania.battles.BattleStatistics;
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.EntityFactory;
+import dungeonmania.entities.Player;
+import dungeonmania.map.GameMap;
+import dungeonmania.map.GraphNode;
+import dungeonmania.response.models.BattleResponse;
+import dungeonmania.response.models.ItemResponse;
+import dungeonmania.response.models.RoundResponse;
+import dungeonmania.util.Position;
+
+/**
+ * GameCodec -- a compact binary encoding of a whole game
+ * Layout (version 2):
+ * 1. magic + version
+ * 2. game counters and the config the entity factory was built from
+ * 3. the goal tree
+ * 4. every map cell with the entities on it, in cell order
+ * 5. the player, written in full only when it is no longer on the map
+ * 6. the battle log, the number of its oldest battle then the battles it holds
+ * 7. the ids of the long lived callbacks, in the order they run
+ * Entities are written by EntityCodec as a type tag followed by their state as primitives.
+ * Version 1 saves still load, they lack the number of the oldest battle so their battles are numbered from 0.
+ */
+public final class GameCodec {
+    public static final int MAGIC = 0x444d5356; // "DMSV"
+    public static final short VERSION = 2;
+    private static final short OLDEST_VERSION = 1;
+
+    private GameCodec() { }
+
+    public static boolean isEncoded(byte[] data) {
+        return data.length >= 4
+            && ((data[0] & 0xff) << 24 | (data[1] & 0xff) << 16 | (data[2] & 0xff) << 8 | (data[3] & 0xff)) == MAGIC;
+    }
+
+    public static byte[] encode(Game game) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(game, out);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Game decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            return read(in);
+        }
+    }
+
+    public static void write(Game game, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+
+        out.writeUTF(game.getId());
+        out.writeUTF(game.getName());
+        out.writeInt(game.getTick());
+        out.writeInt(game.getInitialTreasureCount());
+        out.writeInt(game.getEnemiesDestroyed());
+
+        Map<String, Number> config = game.getEntityFactory().getConfig();
+        out.writeShort(config.size());
+        for (Map.Entry<String, Number> entry : config.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeDouble(entry.getValue().doubleValue());
+        }
+
+        GoalCodec.write(game.getGoals(), out);
+
+        EntityCodec entities = new EntityCodec();
+        GameMap map = game.getMap();
+        List<GraphNode> nodes = map.getNodes();
+        out.writeInt(nodes.size());
+        for (GraphNode node : nodes) {
+            writePosition(node.getPosition(), out);
+            out.writeInt(node.getWeight());
+            out.writeShort(node.size());
+            for (Entity e : node.getEntities()) entities.write(e, out);
+        }
+
+        Player player = game.getPlayer();
+        out.writeBoolean(player != null);
+        if (player != null) {
+            boolean onMap = map.getEntity(player.getId()) == player;
+            out.writeBoolean(onMap);
+            if (onMap) {
+                writeId(player.getId(), out);
+            } else {
+                entities.write(player, out);
+            }
+        }
+
+        List<BattleResponse> battles = game.getBattleFacade().getBattleResponses();
+        out.writeInt(game.getBattleFacade().getBattleLog().getFirst());
+        out.writeInt(battles.size());
+        for (BattleResponse battle : battles) writeBattle(battle, out);
+
+        List<String> callbacks = new ArrayList<>();
+        for (ComparableCallback c : game.getScheduler().getCallbacks()) {
+            if (c.isValid() && !c.isOnce()) callbacks.add(c.getId());
+        }
+        out.writeInt(callbacks.size());
+        for (String id : callbacks) out.writeUTF(id);
+    }
+
+    public static Game read(DataInputStream in) throws IOException {
+        short version = readVersion(in);
+        Game game = readIdentity(in);
+        game.setInitialTreasureCount(in.readInt());
+        game.setEnemiesDestroyed(in.readInt());
+
+        JSONObject config = new JSONObject();
+        int configSize = in.readShort();
+        for (int i = 0; i < configSize; i++) {
+            config.put(in.readUTF(), in.readDouble());
+        }
+        game.setEntityFactory(new EntityFactory(config));
+
+        game.setGoals(GoalCodec.read(in));
+
+        EntityCodec entities = new EntityCodec();
+        GameMap map = new GameMap();
+        map.setGame(game);
+        game.setMap(map);
+        int nodeCount = in.readInt();
+        for (int i = 0; i < nodeCount; i++) {
+            Position p = readPosition(in);
+            int weight = in.readInt();
+            int size = in.readShort();
+            List<Entity> es = new ArrayList<>();
+            for (int j = 0; j < size; j++) es.add(entities.read(in));
+            map.restoreNode(p, es, weight);
+            es.forEach(map::restoreEntity);
+        }
+
+        if (in.readBoolean()) {
+            Player player = in.readBoolean() ? (Player) map.getEntity(readId(in)) : (Player) entities.read(in);
+            map.setPlayer(player);
+            game.setPlayer(player);
+        }
+        entities.link();
+        map.initConnections();
+
+        if (version >= 2) game.getBattleFacade().getBattleLog().setFirst(in.readInt());
+        int battleCount = in.readInt();
+        for (int i = 0; i < battleCount; i++) {
+            game.getBattleFacade().getBattleLog().add(readBattle(in));
+        }
+
+        int callbackCount = in.readInt();
+        for (int i = 0; i < callbackCount; i++) {
+            game.resubscribe(in.readUTF());
+        }
+
+        map.getChanges().clear();
+        return game;
+    }
+
+    /**
+     * Reads only as far as the id, dungeon name and tick, the returned game has nothing else set
+     */
+    public static Game readHeader(DataInputStream in) throws IOException {
+        readVersion(in);
+        return readIdentity(in);
+    }
+
+    private static short readVersion(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not an encoded game");
+        short version = in.readShort();
+        if (version < OLDEST_VERSION || version > VERSION) throw new IOException("Unsupported save version " + version);
+        return version;
+    }
+
+    private static Game readIdentity(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        Game game = new Game(in.readUTF());
+        game.setId(id);
+        game.setTickCount(in.readInt());
+        return game;
+    }
+
+    /**
+     * Ids are nearly always random UUIDs, those are packed into 16 bytes
+     */
+    static void writeId(String id, DataOutputStream out) throws IOException {
+        UUID uuid = parseUuid(id);
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.writeUTF(id);
+        }
+    }
+
+    static String readId(DataInputStream in) throws IOException {
+        if (in.readBoolean()) return new UUID(in.readLong(), in.readLong()).toString();
+        return in.readUTF();
+    }
+
+    private static UUID parseUuid(String id) {
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static void writePosition(Position p, DataOutputStream out) throws IOException {
+        out.writeBoolean(p != null);
+        if (p == null) return;
+        out.writeInt(p.getX());
+        out.writeInt(p.getY());
+        out.writeByte(p.getLayer());
+    }
+
+    static Position readPosition(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) return null;
+        return Position.of(in.readInt(), in.readInt()).asLayer(in.readByte());
+    }
+
+    static void writeStatistics(BattleStatistics s, DataOutputStream out) throws IOException {
+        out.writeDouble(s.getHealth());
+        out.writeDouble(s.getAttack());
+        out.writeDouble(s.getDefence());
+        out.writeDouble(s.getMagnifier());
+        out.writeDouble(s.getReducer());
+        out.writeBoolean(s.isInvincible());
+        out.writeBoolean(s.isEnabled());
+    }
+
+    static void readStatistics(BattleStatistics s, DataInputStream in) throws IOException {
+        s.setHealth(in.readDouble());
+        s.setAttack(in.readDouble());
+        s.setDefence(in.readDouble());
+        s.setMagnifier(in.readDouble());
+        s.setReducer(in.readDouble());
+        s.setInvincible(in.readBoolean());
+        s.setEnabled(in.readBoolean());
+    }
+
+    private static void writeBattle(BattleResponse battle, DataOutputStream out) throws IOException {
+        out.writeUTF(battle.getEnemy());
+        out.writeDouble(battle.getInitialPlayerHealth());
+        out.writeDouble(battle.getInitialEnemyHealth());
+        out.writeShort(battle.getRounds().size());
+        for (RoundResponse round : battle.getRounds()) {
+            out.writeDouble(round.getDeltaCharacterHealth());
+            out.writeDouble(round.getDeltaEnemyHealth());
+        }
+        out.writeShort(battle.getBattleItems().size());
+        for (ItemResponse item : battle.getBattleItems()) {
+            writeId(item.getId(), out);
+            out.writeUTF(item.getType());
+        }
+    }
+
+    private static BattleResponse readBattle(DataInputStream in) throws IOException {
+        String enemy = in.readUTF();
+        double initialPlayerHealth = in.readDouble();
+        double initialEnemyHealth = in.readDouble();
+        int roundCount = in.readShort();
+        List<RoundResponse> rounds = new ArrayList<>();
+        for (int i = 0; i < roundCount; i++) {
+            rounds.add(new RoundResponse(in.readDouble(), in.readDouble()));
+        }
+        int itemCount = in.readShort();
+        List<ItemResponse> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new ItemResponse(readId(in), in.readUTF()));
+        }
+        return new BattleResponse(enemy, rounds, items, initialPlayerHealth, initialEnemyHealth);
+    }
+}
@@ -0,0 +1,71 @@
+package dungeonmania.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import dungeonmania.goals.AndGoal;
+import dungeonmania.goals.BouldersGoal;
+import dungeonmania.goals.EnemiesGoal;
+import dungeonmania.goals.ExitGoal;
+import dungeonmania.goals.Goal;
+import dungeonmania.goals.OrGoal;
+import dungeonmania.goals.TreasureGoal;
+
+/**
+ * GoalCodec -- writes a goal tree depth first, each goal as a tag followed by its target or subgoals
+ */
+final class GoalCodec {
+    private static final byte NONE = 0;
+    private static final byte AND = 1;
+    private static final byte OR = 2;
+    private static final byte EXIT = 3;
+    private static final byte BOULDERS = 4;
+    private static final byte TREASURE = 5;
+    private static final byte ENEMIES = 6;
+
+    private GoalCodec() { }
+
+    static void write(Goal goal, DataOutputStream out) throws IOException {
+        if (goal == null) {
+            out.writeByte(NONE);
+        } else if (goal instanceof AndGoal || goal instanceof OrGoal) {
+            out.writeByte(goal instanceof AndGoal ? AND : OR);
+            write(goal.getGoal1(), out);
+            write(goal.getGoal2(), out);
+        } else if (goal instanceof ExitGoal) {
+            out.writeByte(EXIT);
+        } else if (goal instanceof BouldersGoal) {
+            out.writeByte(BOULDERS);
+        } else if (goal instanceof TreasureGoal || goal instanceof EnemiesGoal) {
+            out.writeByte(goal instanceof TreasureGoal ? TREASURE : ENEMIES);
+            out.writeInt(goal.getTarget());
+        } else {
+            throw new IOException("No tag for " + goal.getClass().getSimpleName());
+        }
+    }
+
+    static Goal read(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+        case NONE:
+            return null;
+        case AND:
+            Goal and1 = read(in);
+            return new AndGoal(and1, read(in));
+        case OR:
+            Goal or1 = read(in);
+            return new OrGoal(or1, read(in));
+        case EXIT:
+            return new ExitGoal();
+        case BOULDERS:
+            return new BouldersGoal();
+        case TREASURE:
+            return new TreasureGoal(in.readInt());
+        case ENEMIES:
+            return new EnemiesGoal(in.readInt());
+        default:
+            throw new IOException("Unknown goal tag " + tag);
+        }
+    }
+}
@@ -50,6 +50,10 @@ public class Door extends Entity implements OverlapAction {
         return (key != null && key.getnumber() == number);
     }
 
+    public int getNumber() {
+        return number;
+    }
+
     public boolean isOpen() {
         return open;
     }
@@ -62,6 +62,14 @@ public abstract class Entity implements Serializable {
         }
     }
 
+    /**
+     * Used when a saved game is loaded, setPosition would otherwise overwrite these
+     */
+    public void setPreviousPositions(Position previousPosition, Position previousDistinctPosition) {
+        this.previousPosition = previousPosition;
+        this.previousDistinctPosition = previousDistinctPosition;
+    }
+
     public int getMovementFactor() {
         return movementFactor;
     }
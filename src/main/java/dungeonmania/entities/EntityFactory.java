@@ -10,11 +10,8 @@ import dungeonmania.entities.collectables.Sword;
 import dungeonmania.entities.enemies.*;
 import dungeonmania.entities.logical.AndRule;
 import dungeonmania.entities.logical.CoAndRule;
-import dungeonmania.entities.logical.LightBulb;
 import dungeonmania.entities.logical.LogicalRule;
 import dungeonmania.entities.logical.OrRule;
-import dungeonmania.entities.logical.SwitchDoor;
-import dungeonmania.entities.logical.Wire;
 import dungeonmania.entities.logical.XOrRule;
 import dungeonmania.map.GameMap;
 import dungeonmania.entities.collectables.potions.InvincibilityPotion;
@@ -27,7 +24,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.stream.Collectors;
 
 import org.json.JSONObject;
 
@@ -41,8 +37,20 @@ public class EntityFactory implements Serializable {
         }
     }
 
+    public Map<String, Number> getConfig() {
+        return config;
+    }
+
+    public int getConfigValue(String name, int defaultValue) {
+        return config.getOrDefault(name, defaultValue).intValue();
+    }
+
+    /**
+     * Builds the entity a dungeon file describes, null when its type is not one dungeon files can place
+     */
     public Entity createEntity(JSONObject jsonEntity) {
-        return constructEntity(jsonEntity, config);
+        EntityType type = EntityTypes.get(jsonEntity.getString("type"));
+        return type == null ? null : type.create(this, jsonEntity);
     }
 
     public void spawnSpider(Game game, GameMap map) {
@@ -52,13 +60,13 @@ public class EntityFactory implements Serializable {
         int radius = 20;
         Position player = map.getPlayerPosition();
 
-        Spider dummySpider = buildSpider(new Position(0, 0)); // for checking possible positions
+        Spider dummySpider = buildSpider(Position.of(0, 0)); // for checking possible positions
 
         List<Position> availablePos = new ArrayList<>();
         for (int i = player.getX() - radius; i < player.getX() + radius; i++) {
             for (int j = player.getY() - radius; j < player.getY() + radius; j++) {
-                if (Position.calculatePositionBetween(player, new Position(i, j)).magnitude() > radius) continue;
-                Position np = new Position(i, j);
+                if (Math.abs(i - player.getX()) + Math.abs(j - player.getY()) > radius) continue;
+                Position np = Position.of(i, j);
                 if (!map.canMoveTo(dummySpider, np)) continue;
                 availablePos.add(np);
             }
@@ -66,7 +74,7 @@ public class EntityFactory implements Serializable {
         Position initPosition = availablePos.get(ranGen.nextInt(availablePos.size()));
         Spider spider = buildSpider(initPosition);
         map.addEntity(spider);
-        game.register((Runnable & Serializable) () -> spider.move(game, map), Game.AI_MOVEMENT, spider.getId());
+        map.registerMovable(spider);
     }
 
     public void spawnZombie(Game game, GameMap map, ZombieToastSpawner spawner) {
@@ -75,15 +83,31 @@ public class EntityFactory implements Serializable {
         int spawnInterval = config.getOrDefault("zombie_spawn_interval",
             ZombieToastSpawner.DEFAULT_SPAWN_INTERVAL).intValue();
         if (spawnInterval == 0 || (tick + 1) % spawnInterval != 0) return;
-        List<Position> pos = spawner.getCardinallyAdjacentPositions();
-        pos = pos
-            .stream()
-            .filter(p -> !map.getEntities(p).stream().anyMatch(e -> (e instanceof Wall)))
-            .collect(Collectors.toList());
+        List<Position> pos = new ArrayList<>(Position.CARDINALLY_ADJACENT_POSITIONS);
+        for (int i = 0; i < Position.CARDINALLY_ADJACENT_POSITIONS; i++) {
+            Position p = spawner.getPosition().getCardinallyAdjacentPosition(i);
+            if (map.getEntities(p).stream().noneMatch(e -> (e instanceof Wall))) pos.add(p);
+        }
         if (pos.size() == 0) return;
         ZombieToast zt = buildZombieToast(pos.get(randGen.nextInt(pos.size())));
         map.addEntity(zt);
-        game.register((Runnable & Serializable) () -> zt.move(game, map), Game.AI_MOVEMENT, zt.getId());
+        map.registerMovable(zt);
+    }
+
+    public int getNextSpiderSpawnTick(int tick) {
+        return nextSpawnTick(config.getOrDefault("spider_spawn_interval", 0).intValue(), tick);
+    }
+
+    public int getNextZombieSpawnTick(int tick) {
+        return nextSpawnTick(config.getOrDefault("zombie_spawn_interval",
+            ZombieToastSpawner.DEFAULT_SPAWN_INTERVAL).intValue(), tick);
+    }
+
+    // spawning happens on the ticks where (tick + 1) % interval == 0, never when the interval is 0
+    private static int nextSpawnTick(int interval, int tick) {
+        if (interval == 0) return Integer.MAX_VALUE;
+        int every = Math.abs(interval);
+        return ((tick + 1) / every + 1) * every - 1;
     }
 
     public Spider buildSpider(Position pos) {
@@ -135,6 +159,30 @@ public class EntityFactory implements Serializable {
             assassinFailRate, mindControlDuration);
     }
 
+    public Bomb buildBomb(Position pos) {
+        int bombRadius = config.getOrDefault("bomb_radius", Bomb.DEFAULT_RADIUS).intValue();
+        return new Bomb(pos, bombRadius);
+    }
+
+    public Sword buildSword(Position pos) {
+        double swordAttack = config.getOrDefault("sword_attack", Sword.DEFAULT_ATTACK).doubleValue();
+        int swordDurability = config.getOrDefault("sword_durability", Sword.DEFAULT_DURABILITY).intValue();
+        return new Sword(pos, swordAttack, swordDurability);
+    }
+
+    public InvisibilityPotion buildInvisibilityPotion(Position pos) {
+        int invisibilityPotionDuration = config.getOrDefault(
+            "invisibility_potion_duration",
+            InvisibilityPotion.DEFAULT_DURATION).intValue();
+        return new InvisibilityPotion(pos, invisibilityPotionDuration);
+    }
+
+    public InvincibilityPotion buildInvincibilityPotion(Position pos) {
+        int invincibilityPotionDuration = config.getOrDefault("invincibility_potion_duration",
+            InvincibilityPotion.DEFAULT_DURATION).intValue();
+        return new InvincibilityPotion(pos, invincibilityPotionDuration);
+    }
+
     public Bow buildBow() {
         int bowDurability = config.get("bow_durability").intValue();
         return new Bow(bowDurability);
@@ -172,75 +220,4 @@ public class EntityFactory implements Serializable {
                 return null;
         }
     }
-
-    private Entity constructEntity(JSONObject jsonEntity, Map<String, Number> config) {
-        Position pos = new Position(jsonEntity.getInt("x"), jsonEntity.getInt("y"));
-
-        switch (jsonEntity.getString("type")) {
-        case "player":
-            return buildPlayer(pos);
-        case "zombie_toast":
-            return buildZombieToast(pos);
-        case "zombie_toast_spawner":
-            return buildZombieToastSpawner(pos);
-        case "mercenary":
-            return buildMercenary(pos);
-        case "assassin":
-            return buildAssassin(pos);
-        case "wall":
-            return new Wall(pos);
-        case "boulder":
-            return new Boulder(pos);
-        case "switch":
-            return new Switch(pos);
-        case "exit":
-            return new Exit(pos);
-        case "treasure":
-            return new Treasure(pos);
-        case "sun_stone":
-            return new SunStone(pos);
-        case "wood":
-            return new Wood(pos);
-        case "arrow":
-            return new Arrow(pos);
-        case "bomb":
-            int bombRadius = config.getOrDefault("bomb_radius", Bomb.DEFAULT_RADIUS).intValue();
-            return new Bomb(pos, bombRadius);
-        case "invisibility_potion":
-            int invisibilityPotionDuration = config.getOrDefault(
-                "invisibility_potion_duration",
-                InvisibilityPotion.DEFAULT_DURATION).intValue();
-            return new InvisibilityPotion(pos, invisibilityPotionDuration);
-        case "invincibility_potion":
-            int invincibilityPotionDuration = config.getOrDefault("invincibility_potion_duration",
-            InvincibilityPotion.DEFAULT_DURATION).intValue();
-            return new InvincibilityPotion(pos, invincibilityPotionDuration);
-        case "portal":
-            return new Portal(pos, ColorCodedType.valueOf(jsonEntity.getString("colour")));
-        case "sword":
-            double swordAttack = config.getOrDefault("sword_attack", Sword.DEFAULT_ATTACK).doubleValue();
-            int swordDurability = config.getOrDefault("sword_durability", Sword.DEFAULT_DURABILITY).intValue();
-            return new Sword(pos, swordAttack, swordDurability);
-        case "spider":
-            return buildSpider(pos);
-        case "door":
-            return new Door(pos, jsonEntity.getInt("key"));
-        case "key":
-            return new Key(pos, jsonEntity.getInt("key"));
-        case "swamp_tile":
-            return new SwampTile(pos, jsonEntity.getInt("movement_factor"));
-        case "time_turner":
-            return new TimeTurner(pos);
-        case "time_travelling_portal":
-            return new TimeTravellingPortal(pos);
-        case "wire":
-            return new Wire(pos);
-        case "light_bulb_off":
-            return new LightBulb(pos, buildLogicalRule(jsonEntity.getString("logic")));
-        case "switch_door":
-            return new SwitchDoor(pos, buildLogicalRule(jsonEntity.getString("logic")));
-        default:
-            return null;
-        }
-    }
 }
@@ -0,0 +1,100 @@
+package dungeonmania.entities;
+
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+import org.json.JSONObject;
+
+import dungeonmania.entities.collectables.Collectable;
+import dungeonmania.entities.logical.Conductor;
+
+/**
+ * EntityType -- everything about a kind of entity that does not depend on the instance, worked out once
+ * The name is what dungeon files and responses call it. Types whose name depends on their state
+ * (an open door, a lit bulb) keep every variant of the name and pick one by index.
+ */
+public final class EntityType {
+    private final Class<? extends Entity> type;
+    private final String name;
+    private final int layer;
+    private final BiFunction<EntityFactory, JSONObject, Entity> factory;
+    private final String[] variants;
+    private final ToIntFunction<Entity> variant;
+
+    private final boolean interactable;
+    private final boolean collectable;
+    private final boolean conductor;
+    private final boolean overlapAction;
+    private final boolean movedAwayAction;
+
+    EntityType(Class<? extends Entity> type, String name, int layer,
+            BiFunction<EntityFactory, JSONObject, Entity> factory, ToIntFunction<Entity> variant, String... variants) {
+        this.type = type;
+        this.name = name;
+        this.layer = layer;
+        this.factory = factory;
+        this.variant = variant;
+        this.variants = variants.length == 0 ? null : variants;
+        this.interactable = Interactable.class.isAssignableFrom(type);
+        this.collectable = Collectable.class.isAssignableFrom(type);
+        this.conductor = Conductor.class.isAssignableFrom(type);
+        this.overlapAction = OverlapAction.class.isAssignableFrom(type);
+        this.movedAwayAction = MovedAwayAction.class.isAssignableFrom(type);
+    }
+
+    public Class<? extends Entity> getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The name of entity as it is now, entity must be of this type
+     */
+    public String getName(Entity entity) {
+        return variants == null ? name : variants[variant.applyAsInt(entity)];
+    }
+
+    /**
+     * The layer entities of this type are placed on, -1 when it is not known
+     */
+    public int getLayer() {
+        return layer;
+    }
+
+    /**
+     * Whether dungeon files can place entities of this type
+     */
+    public boolean isLoadable() {
+        return factory != null;
+    }
+
+    /**
+     * Builds the entity a dungeon file describes, null for types dungeon files can't place
+     */
+    public Entity create(EntityFactory entityFactory, JSONObject jsonEntity) {
+        return factory == null ? null : factory.apply(entityFactory, jsonEntity);
+    }
+
+    public boolean isInteractable() {
+        return interactable;
+    }
+
+    public boolean isCollectable() {
+        return collectable;
+    }
+
+    public boolean isConductor() {
+        return conductor;
+    }
+
+    public boolean isOverlapAction() {
+        return overlapAction;
+    }
+
+    public boolean isMovedAwayAction() {
+        return movedAwayAction;
+    }
+}
@@ -0,0 +1,149 @@
+package dungeonmania.entities;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+import org.json.JSONObject;
+
+import dungeonmania.entities.buildables.Bow;
+import dungeonmania.entities.buildables.MidnightArmour;
+import dungeonmania.entities.buildables.Sceptre;
+import dungeonmania.entities.buildables.Shield;
+import dungeonmania.entities.collectables.Arrow;
+import dungeonmania.entities.collectables.Bomb;
+import dungeonmania.entities.collectables.Key;
+import dungeonmania.entities.collectables.SunStone;
+import dungeonmania.entities.collectables.Sword;
+import dungeonmania.entities.collectables.TimeTurner;
+import dungeonmania.entities.collectables.Treasure;
+import dungeonmania.entities.collectables.Wood;
+import dungeonmania.entities.collectables.potions.InvincibilityPotion;
+import dungeonmania.entities.collectables.potions.InvisibilityPotion;
+import dungeonmania.entities.enemies.Assassin;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.entities.enemies.Spider;
+import dungeonmania.entities.enemies.ZombieToast;
+import dungeonmania.entities.enemies.ZombieToastSpawner;
+import dungeonmania.entities.logical.LightBulb;
+import dungeonmania.entities.logical.SwitchDoor;
+import dungeonmania.entities.logical.Wire;
+import dungeonmania.util.NameConverter;
+import dungeonmania.util.Position;
+
+/**
+ * EntityTypes -- the table of every kind of entity, filled in once when the class is loaded
+ * Types are found by the name dungeon files use or by the class of an entity.
+ * A class that is not in the table (e.g. a subclass made by a test) gets a type worked out from its class name
+ * the first time it is looked up, which no dungeon file can place.
+ */
+public final class EntityTypes {
+    private static final Map<String, EntityType> BY_NAME = new LinkedHashMap<>();
+    private static final Map<Class<?>, EntityType> BY_CLASS = new HashMap<>();
+    private static final ClassValue<EntityType> TYPES = new ClassValue<>() {
+        @Override
+        protected EntityType computeValue(Class<?> type) {
+            EntityType known = BY_CLASS.get(type);
+            if (known != null) return known;
+            return new EntityType(type.asSubclass(Entity.class), NameConverter.toSnakeCase(type), -1, null, null);
+        }
+    };
+
+    static {
+        // characters and enemies
+        add(Player.class, "player", Entity.FLOOR_LAYER, (f, j) -> f.buildPlayer(position(j)));
+        add(ZombieToast.class, "zombie_toast", Entity.CHARACTER_LAYER, (f, j) -> f.buildZombieToast(position(j)));
+        add(ZombieToastSpawner.class, "zombie_toast_spawner", Entity.FLOOR_LAYER,
+            (f, j) -> f.buildZombieToastSpawner(position(j)));
+        add(Mercenary.class, "mercenary", Entity.CHARACTER_LAYER, (f, j) -> f.buildMercenary(position(j)));
+        add(Assassin.class, "assassin", Entity.CHARACTER_LAYER, (f, j) -> f.buildAssassin(position(j)));
+        add(Spider.class, "spider", Entity.DOOR_LAYER + 1, (f, j) -> f.buildSpider(position(j)));
+
+        // static entities
+        add(Wall.class, "wall", Entity.CHARACTER_LAYER, (f, j) -> new Wall(position(j)));
+        add(Boulder.class, "boulder", Entity.CHARACTER_LAYER, (f, j) -> new Boulder(position(j)));
+        add(Switch.class, "switch", Entity.ITEM_LAYER, (f, j) -> new Switch(position(j)));
+        add(Exit.class, "exit", Entity.ITEM_LAYER, (f, j) -> new Exit(position(j)));
+        add(Door.class, "door", Entity.DOOR_LAYER, (f, j) -> new Door(position(j), j.getInt("key")),
+            e -> ((Door) e).isOpen() ? 1 : 0, "door", "door_open");
+        ColorCodedType[] colours = ColorCodedType.values();
+        String[] portals = new String[colours.length];
+        for (ColorCodedType colour : colours) portals[colour.ordinal()] = "portal_" + colour.name().toLowerCase();
+        add(Portal.class, "portal", Entity.FLOOR_LAYER,
+            (f, j) -> new Portal(position(j), ColorCodedType.valueOf(j.getString("colour"))),
+            e -> ((Portal) e).getColorType().ordinal(), portals);
+        add(SwampTile.class, "swamp_tile", Entity.FLOOR_LAYER,
+            (f, j) -> new SwampTile(position(j), j.getInt("movement_factor")));
+        add(TimeTravellingPortal.class, "time_travelling_portal", Entity.FLOOR_LAYER,
+            (f, j) -> new TimeTravellingPortal(position(j)));
+        add(Wire.class, "wire", Entity.FLOOR_LAYER, (f, j) -> new Wire(position(j)));
+        add(LightBulb.class, "light_bulb_off", Entity.FLOOR_LAYER,
+            (f, j) -> new LightBulb(position(j), f.buildLogicalRule(j.getString("logic"))),
+            e -> ((LightBulb) e).isActivated() ? 1 : 0, "light_bulb_off", "light_bulb_on");
+        add(SwitchDoor.class, "switch_door", Entity.FLOOR_LAYER,
+            (f, j) -> new SwitchDoor(position(j), f.buildLogicalRule(j.getString("logic"))),
+            e -> ((SwitchDoor) e).isActivated() ? 1 : 0, "switch_door", "switch_door_open");
+
+        // collectables
+        add(Treasure.class, "treasure", Entity.FLOOR_LAYER, (f, j) -> new Treasure(position(j)));
+        add(SunStone.class, "sun_stone", Entity.FLOOR_LAYER, (f, j) -> new SunStone(position(j)));
+        add(Wood.class, "wood", Entity.FLOOR_LAYER, (f, j) -> new Wood(position(j)));
+        add(Arrow.class, "arrow", Entity.FLOOR_LAYER, (f, j) -> new Arrow(position(j)));
+        add(Bomb.class, "bomb", Entity.FLOOR_LAYER, (f, j) -> f.buildBomb(position(j)));
+        add(Key.class, "key", Entity.FLOOR_LAYER, (f, j) -> new Key(position(j), j.getInt("key")));
+        add(Sword.class, "sword", Entity.FLOOR_LAYER, (f, j) -> f.buildSword(position(j)));
+        add(TimeTurner.class, "time_turner", Entity.FLOOR_LAYER, (f, j) -> new TimeTurner(position(j)));
+        add(InvisibilityPotion.class, "invisibility_potion", Entity.FLOOR_LAYER,
+            (f, j) -> f.buildInvisibilityPotion(position(j)));
+        add(InvincibilityPotion.class, "invincibility_potion", Entity.FLOOR_LAYER,
+            (f, j) -> f.buildInvincibilityPotion(position(j)));
+
+        // buildables only ever live in an inventory
+        add(Bow.class, "bow", -1, null);
+        add(Shield.class, "shield", -1, null);
+        add(Sceptre.class, "sceptre", -1, null);
+        add(MidnightArmour.class, "midnight_armour", -1, null);
+    }
+
+    private EntityTypes() {
+    }
+
+    private static void add(Class<? extends Entity> type, String name, int layer,
+            BiFunction<EntityFactory, JSONObject, Entity> factory) {
+        add(type, name, layer, factory, null);
+    }
+
+    private static void add(Class<? extends Entity> type, String name, int layer,
+            BiFunction<EntityFactory, JSONObject, Entity> factory, ToIntFunction<Entity> variant, String... variants) {
+        EntityType entityType = new EntityType(type, name, layer, factory, variant, variants);
+        BY_NAME.put(name, entityType);
+        BY_CLASS.put(type, entityType);
+    }
+
+    private static Position position(JSONObject jsonEntity) {
+        return Position.of(jsonEntity.getInt("x"), jsonEntity.getInt("y"));
+    }
+
+    /**
+     * The type dungeon files call name, null when there is none
+     */
+    public static EntityType get(String name) {
+        return BY_NAME.get(name);
+    }
+
+    public static EntityType of(Entity entity) {
+        return TYPES.get(entity.getClass());
+    }
+
+    public static EntityType of(Class<? extends Entity> type) {
+        return TYPES.get(type);
+    }
+
+    public static Collection<EntityType> all() {
+        return Collections.unmodifiableCollection(BY_NAME.values());
+    }
+}
@@ -132,6 +132,30 @@ public class Player extends Entity implements Battleable, OverlapAction {
         nextTrigger = currentTick + inEffective.getDuration();
     }
 
+    public Queue<Potion> getPotionQueue() {
+        return queue;
+    }
+
+    public int getNextTrigger() {
+        return nextTrigger;
+    }
+
+    /**
+     * Used when a saved game is loaded: puts back the queued potions and the one in effect
+     */
+    public void restorePotions(Queue<Potion> queue, Potion inEffective, int nextTrigger) {
+        this.queue = queue;
+        this.inEffective = inEffective;
+        this.nextTrigger = nextTrigger;
+        if (inEffective == null) {
+            state.transitionBase();
+        } else if (inEffective instanceof InvincibilityPotion) {
+            state.transitionInvincible();
+        } else {
+            state.transitionInvisible();
+        }
+    }
+
     public void changeState(PlayerState playerState) {
         state = playerState;
     }
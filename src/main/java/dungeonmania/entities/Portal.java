@@ -1,7 +1,7 @@
 package dungeonmania.entities;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import dungeonmania.entities.enemies.Mercenary;
 import dungeonmania.map.GameMap;
@@ -27,8 +27,10 @@ public class Portal extends Entity implements OverlapAction {
     }
 
     public boolean canTeleportTo(GameMap map, Entity entity) {
-        List<Position> neighbours = getPosition().getCardinallyAdjacentPositions();
-        return neighbours.stream().allMatch(n -> map.canMoveTo(entity, n));
+        for (int i = 0; i < Position.CARDINALLY_ADJACENT_POSITIONS; i++) {
+            if (!map.canMoveTo(entity, getPosition().getCardinallyAdjacentPosition(i))) return false;
+        }
+        return true;
     }
 
     @Override
@@ -40,14 +42,12 @@ public class Portal extends Entity implements OverlapAction {
     }
 
     private void doTeleport(GameMap map, Entity entity) {
-        Position destination = pairPosition
-                .getCardinallyAdjacentPositions()
-                .stream()
-                .filter(dest -> map.canMoveTo(entity, dest))
-                .findAny()
-                .orElse(null);
-        if (destination != null) {
-            map.moveTo(entity, destination);
+        for (int i = 0; i < Position.CARDINALLY_ADJACENT_POSITIONS; i++) {
+            Position destination = pairPosition.getCardinallyAdjacentPosition(i);
+            if (map.canMoveTo(entity, destination)) {
+                map.moveTo(entity, destination);
+                return;
+            }
         }
     }
 
@@ -55,13 +55,19 @@ public class Portal extends Entity implements OverlapAction {
         return color.toString();
     }
 
+    public ColorCodedType getColorType() {
+        return color;
+    }
+
     public List<Position> getDestPositions(GameMap map, Entity entity) {
-        return pair == null
-                ? null
-                : pairPosition.getAdjacentPositions()
-                    .stream()
-                    .filter(p -> map.canMoveTo(entity, p))
-                    .collect(Collectors.toList());
+        if (pair == null)
+            return null;
+        List<Position> dest = new ArrayList<>(Position.ADJACENT_POSITIONS);
+        for (int i = 0; i < Position.ADJACENT_POSITIONS; i++) {
+            Position p = pairPosition.getAdjacentPosition(i);
+            if (map.canMoveTo(entity, p)) dest.add(p);
+        }
+        return dest;
     }
     public void bind(Portal portal) {
         if (this.pair == portal)
@@ -10,6 +10,10 @@ public class SwampTile extends Entity implements OverlapAction, MovedAwayAction
         this.movementFactor = movementFactor;
     }
 
+    public int getTileMovementFactor() {
+        return movementFactor;
+    }
+
     @Override
     public boolean canMoveOnto(GameMap map, Entity entity) {
         return true;
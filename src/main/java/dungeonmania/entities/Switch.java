@@ -31,6 +31,10 @@ public class Switch extends Conductor implements OverlapAction, MovedAwayAction
         bombs.remove(b);
     }
 
+    public List<Bomb> getBombs() {
+        return bombs;
+    }
+
     @Override
     public boolean canMoveOnto(GameMap map, Entity entity) {
         return true;
@@ -15,6 +15,18 @@ public class TimeTravellingPortal extends Entity implements OverlapAction, Moved
         return isActive;
     }
 
+    public boolean isBroken() {
+        return isBroken;
+    }
+
+    /**
+     * Used when a saved game is loaded
+     */
+    public void restore(boolean isActive, boolean isBroken) {
+        this.isActive = isActive;
+        this.isBroken = isBroken;
+    }
+
     @Override
     public boolean canMoveOnto(GameMap map, Entity entity) {
         return entity instanceof Player;
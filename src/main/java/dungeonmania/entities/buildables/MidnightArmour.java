@@ -27,6 +27,14 @@ public class MidnightArmour extends Buildable implements BattleItem {
             1));
     }
 
+    public double getAttack() {
+        return attack;
+    }
+
+    public double getDefence() {
+        return defence;
+    }
+
     @Override
     public int getDurability() {
         return durability;
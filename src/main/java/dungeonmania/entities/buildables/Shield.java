@@ -24,6 +24,10 @@ public class Shield extends Buildable implements BattleItem {
             1));
     }
 
+    public double getDefence() {
+        return defence;
+    }
+
     @Override
     public int getDurability() {
         return durability;
@@ -45,7 +45,10 @@ public class Bomb extends Collectable {
 
     @Override
     public void onPickUp(GameMap map) {
-        subs.stream().forEach(s -> s.unsubscribe(this));
+        subs.stream().forEach(s -> {
+            s.unsubscribe(this);
+            map.markChanged(s);
+        });
         map.destroyEntity(this);
         this.state = State.INVENTORY;
     }
@@ -54,19 +57,21 @@ public class Bomb extends Collectable {
         setPosition(p);
         map.addEntity(this);
         this.state = State.PLACED;
-        List<Position> adjPosList = getPosition().getCardinallyAdjacentPositions();
-        adjPosList.stream().forEach(node -> {
-            List<Entity> entities = map.getEntities(node)
+        for (int i = 0; i < Position.CARDINALLY_ADJACENT_POSITIONS; i++) {
+            List<Entity> entities = map.getEntities(getPosition().getCardinallyAdjacentPosition(i))
                                         .stream()
                                         .filter(e -> (e instanceof Switch))
                                         .collect(Collectors.toList());
             entities.stream()
                     .map(Switch.class::cast)
-                    .forEach(s -> s.subscribe(this, map));
+                    .forEach(s -> {
+                        s.subscribe(this, map);
+                        map.markChanged(s);
+                    });
             entities.stream()
                     .map(Switch.class::cast)
                     .forEach(s -> this.subscribe(s));
-        });
+        }
     }
 
     /**
@@ -78,7 +83,7 @@ public class Bomb extends Collectable {
         int y = getPosition().getY();
         for (int i = x - radius; i <= x + radius; i++) {
             for (int j = y - radius; j <= y + radius; j++) {
-                List<Entity> entities = map.getEntities(new Position(i, j));
+                List<Entity> entities = map.getEntities(Position.of(i, j));
                 entities = entities.stream()
                     .filter(e -> !(e instanceof Player))
                     .collect(Collectors.toList());
@@ -90,4 +95,16 @@ public class Bomb extends Collectable {
     public State getState() {
         return state;
     }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public List<Switch> getSubs() {
+        return subs;
+    }
 }
@@ -39,6 +39,10 @@ public class Sword extends Collectable implements BattleItem {
             1));
     }
 
+    public double getAttack() {
+        return attack;
+    }
+
     @Override
     public int getDurability() {
         return durability;
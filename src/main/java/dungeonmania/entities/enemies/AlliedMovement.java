@@ -3,17 +3,21 @@ package dungeonmania.entities.enemies;
 import java.io.Serializable;
 
 import dungeonmania.map.GameMap;
+import dungeonmania.util.Position;
 
 public class AlliedMovement implements Movement, Serializable {
     @Override
     public void move(GameMap map, Enemy enemy) {
-        if (enemy.getCardinallyAdjacentPositions().contains(map.getPlayerPreviousPosition())
-         || enemy.getCardinallyAdjacentPositions().contains(map.getPlayerPosition())) {
+        if (isNextTo(enemy, map.getPlayerPreviousPosition()) || isNextTo(enemy, map.getPlayerPosition())) {
             if (map.getPlayerPreviousDistinctPosition() != null) {
                 map.moveTo(enemy, map.getPlayerPreviousDistinctPosition());
             }
         } else {
-            map.moveTo(enemy, map.dijkstraPathFind(enemy.getPosition(), map.getPlayerPosition(), enemy));
+            map.moveTo(enemy, map.pathFind(enemy.getPosition(), map.getPlayerPosition(), enemy));
         }
     }
+
+    private static boolean isNextTo(Enemy enemy, Position p) {
+        return p != null && Position.isAdjacent(enemy.getPosition(), p);
+    }
 }
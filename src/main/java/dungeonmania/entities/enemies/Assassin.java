@@ -20,6 +20,10 @@ public class Assassin extends Mercenary {
         this.bribeFailRate = bribeFailRate;
     }
 
+    public double getBribeFailRate() {
+        return bribeFailRate;
+    }
+
     @Override
     public void interact(Player player, Game game) {
         SplittableRandom random = new SplittableRandom();
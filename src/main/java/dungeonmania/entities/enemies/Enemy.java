@@ -24,6 +24,10 @@ public abstract class Enemy extends Entity implements Battleable, DestroyAction,
                 BattleStatistics.DEFAULT_ENEMY_DAMAGE_REDUCER);
     }
 
+    public int getInitialTick() {
+        return initialMovementTick;
+    }
+
     public void setInitialTick(int initialTick) {
         this.initialMovementTick = initialTick;
     }
@@ -53,9 +57,17 @@ public abstract class Enemy extends Entity implements Battleable, DestroyAction,
         g.addEnemiesDestroyed();
     }
 
+    /**
+     * The first tick move lets this enemy act on, unless it is moved onto or off a swamp in the meantime
+     */
+    public int getNextMoveTick() {
+        return initialMovementTick + 2 * getMovementFactor() - 1;
+    }
+
     public boolean move(Game game, GameMap map) {
         if (game.getTick() >= initialMovementTick + 2 * getMovementFactor() - 1) {
             initialMovementTick = game.getTick();
+            map.markChanged(this);
             return true;
         }
         return false;
@@ -7,6 +7,6 @@ import dungeonmania.map.GameMap;
 public class HostileMovement implements Movement, Serializable {
     @Override
     public void move(GameMap map, Enemy enemy) {
-        map.moveTo(enemy, map.dijkstraPathFind(enemy.getPosition(), map.getPlayerPosition(), enemy));
+        map.moveTo(enemy, map.pathFind(enemy.getPosition(), map.getPlayerPosition(), enemy));
     }
 }
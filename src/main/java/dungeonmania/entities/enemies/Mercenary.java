@@ -37,6 +37,30 @@ public class Mercenary extends Enemy implements Interactable {
         return allied;
     }
 
+    public int getBribeAmount() {
+        return bribeAmount;
+    }
+
+    public int getBribeRadius() {
+        return bribeRadius;
+    }
+
+    public int getMindControlDuration() {
+        return mindControlDuration;
+    }
+
+    public int getEndOfControl() {
+        return endOfControl;
+    }
+
+    /**
+     * Used when a saved game is loaded
+     */
+    public void restoreControl(boolean allied, int endOfControl) {
+        this.allied = allied;
+        this.endOfControl = endOfControl;
+    }
+
     @Override
     public void onOverlap(GameMap map, Entity entity) {
         if (allied) return;
@@ -88,6 +112,15 @@ public class Mercenary extends Enemy implements Interactable {
     public void interact(Player player, Game game) {
         allied = true;
         bribe(player, game.getTick());
+        game.wake(getId());
+    }
+
+    /**
+     * Allies next to the player follow it whether they are due to move or not
+     */
+    @Override
+    public int getNextMoveTick() {
+        return allied ? Integer.MIN_VALUE : super.getNextMoveTick();
     }
 
     @Override
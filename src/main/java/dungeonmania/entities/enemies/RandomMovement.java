@@ -1,9 +1,9 @@
 package dungeonmania.entities.enemies;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
 
 import dungeonmania.map.GameMap;
 import dungeonmania.util.Position;
@@ -13,10 +13,11 @@ public class RandomMovement implements Movement, Serializable {
     public void move(GameMap map, Enemy enemy) {
         Position nextPos;
         Random randGen = new Random();
-        List<Position> pos = enemy.getCardinallyAdjacentPositions();
-        pos = pos
-            .stream()
-            .filter(p -> map.canMoveTo(enemy, p)).collect(Collectors.toList());
+        List<Position> pos = new ArrayList<>(Position.CARDINALLY_ADJACENT_POSITIONS);
+        for (int i = 0; i < Position.CARDINALLY_ADJACENT_POSITIONS; i++) {
+            Position p = enemy.getPosition().getCardinallyAdjacentPosition(i);
+            if (map.canMoveTo(enemy, p)) pos.add(p);
+        }
         if (pos.size() == 0) {
             nextPos = enemy.getPosition();
         } else {
@@ -32,6 +32,27 @@ public class Spider extends Enemy {
         forward = true;
     };
 
+    public List<Position> getMovementTrajectory() {
+        return movementTrajectory;
+    }
+
+    public int getNextPositionElement() {
+        return nextPositionElement;
+    }
+
+    public boolean isForward() {
+        return forward;
+    }
+
+    /**
+     * Used when a saved game is loaded, the trajectory is around where the spider spawned
+     */
+    public void restoreMovement(List<Position> movementTrajectory, int nextPositionElement, boolean forward) {
+        this.movementTrajectory = movementTrajectory;
+        this.nextPositionElement = nextPositionElement;
+        this.forward = forward;
+    }
+
     private void updateNextPosition() {
         if (forward) {
             nextPositionElement++;
@@ -20,17 +20,24 @@ import dungeonmania.entities.collectables.Wood;
 
 public class Inventory implements Serializable {
     private List<InventoryItem> items = new ArrayList<>();
+    // bumped whenever an item is added or taken out, so a change can be noticed without comparing the items
+    private int version = 0;
 
     public boolean add(InventoryItem item) {
         if (item instanceof Key && count(Key.class) > 0) {
             return false;
         }
         items.add(item);
+        version++;
         return true;
     }
 
     public void remove(InventoryItem item) {
-        items.remove(item);
+        if (items.remove(item)) version++;
+    }
+
+    public int getVersion() {
+        return version;
     }
 
     public List<String> getBuildables(boolean zombiesExist) {
@@ -69,39 +76,39 @@ public class Inventory implements Serializable {
 
         switch (buildable) {
             case "bow":
-                items.remove(wood.get(0));
-                items.remove(arrows.get(0));
-                items.remove(arrows.get(1));
-                items.remove(arrows.get(2));
+                remove(wood.get(0));
+                remove(arrows.get(0));
+                remove(arrows.get(1));
+                remove(arrows.get(2));
                 return factory.buildBow();
             case "shield":
-                items.remove(wood.get(0));
-                items.remove(wood.get(1));
+                remove(wood.get(0));
+                remove(wood.get(1));
                 if (sunStones.isEmpty() && !treasure.isEmpty()) {
-                    items.remove(treasure.get(0));
+                    remove(treasure.get(0));
                 } else if (sunStones.isEmpty()) {
-                    items.remove(keys.get(0));
+                    remove(keys.get(0));
                 }
                 return factory.buildShield();
             case "sceptre":
                 if (wood.isEmpty()) {
-                    items.remove(arrows.get(0));
-                    items.remove(arrows.get(1));
+                    remove(arrows.get(0));
+                    remove(arrows.get(1));
                 } else {
-                    items.remove(wood.get(0));
+                    remove(wood.get(0));
                 }
                 if (sunStones.size() < 2) {
                     if (keys.isEmpty()) {
-                        items.remove(treasure.get(0));
+                        remove(treasure.get(0));
                     } else {
-                        items.remove(keys.get(0));
+                        remove(keys.get(0));
                     }
                 }
-                items.remove(sunStones.get(0));
+                remove(sunStones.get(0));
                 return factory.buildSceptre();
             case "midnight_armour":
-                items.remove(swords.get(0));
-                items.remove(sunStones.get(0));
+                remove(swords.get(0));
+                remove(sunStones.get(0));
                 return factory.buildMidnightArmour();
             default:
                 return null;
@@ -32,12 +32,26 @@ public  abstract class Conductor extends Activatable {
         return activatedTick;
     }
 
+    public Set<String> getSources() {
+        return sources;
+    }
+
+    /**
+     * Used when a saved game is loaded
+     */
+    public void restore(boolean isActivated, int activatedTick, Set<String> sources) {
+        setActivated(isActivated);
+        this.activatedTick = activatedTick;
+        this.sources = new TreeSet<>(sources);
+    }
+
     public boolean contains(String source) {
         return sources.contains(source);
     }
 
     public void addSource(Game game, String newSource) {
         sources.add(newSource);
+        game.getMap().markChanged(this);
         if (sources.size() == 1) {
             setActivated(true);
             notifyObservers(game);
@@ -50,6 +64,7 @@ public  abstract class Conductor extends Activatable {
 
     public void removeSource(Game game, String source) {
         sources.remove(source);
+        game.getMap().markChanged(this);
         if (sources.size() == 0) {
             setActivated(false);
             notifyObservers(game);
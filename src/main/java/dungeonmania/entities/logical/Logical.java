@@ -11,7 +11,19 @@ public abstract class Logical extends Activatable {
         this.rule = rule;
     }
 
+    public LogicalRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Used when a saved game is loaded
+     */
+    public void restore(boolean isActivated) {
+        setActivated(isActivated);
+    }
+
     public void update(Game game) {
+        game.getMap().markChanged(this);
         if (rule.isActivated(game, getConductors())) {
             setActivated(true);
         } else {
@@ -18,6 +18,16 @@ public class BouldersGoal extends Goal {
     @Override
     public String toString(Game game) {
         if (achieved(game, game.getMap(), game.getPlayer())) return "";
+        return getLabel();
+    }
+
+    @Override
+    public String getLabel() {
         return ":boulders";
     }
+
+    @Override
+    public GoalEvent getEvent() {
+        return GoalEvent.SWITCHES;
+    }
 }
@@ -29,6 +29,16 @@ public class ExitGoal extends Goal {
     @Override
     public String toString(Game game) {
         if (achieved(game, game.getMap(), game.getPlayer())) return "";
+        return getLabel();
+    }
+
+    @Override
+    public String getLabel() {
         return ":exit";
     }
+
+    @Override
+    public GoalEvent getEvent() {
+        return GoalEvent.EXIT;
+    }
 }
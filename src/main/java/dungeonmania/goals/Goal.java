@@ -39,4 +39,18 @@ public abstract class Goal implements Serializable {
      */
     public abstract boolean achieved(Game game, GameMap map, Player player);
     public abstract String toString(Game game);
+
+    /**
+     * What a leaf goal shows in the goal string while it is not achieved, composite goals have no label
+     */
+    public String getLabel() {
+        return null;
+    }
+
+    /**
+     * The only kind of change that can make a leaf goal flip, composite goals depend on their subgoals instead
+     */
+    public GoalEvent getEvent() {
+        return null;
+    }
 }
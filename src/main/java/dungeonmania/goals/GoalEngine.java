@@ -0,0 +1,108 @@
+package dungeonmania.goals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dungeonmania.Game;
+import dungeonmania.map.GameMap;
+
+/**
+ * GoalEngine -- a goal tree compiled once into a flat list, children before their parents
+ * Every leaf depends on one GoalEvent and the map counts how often each event happened,
+ * so a leaf is only checked again once the count for its event has moved.
+ * The composite goals and the goal string are only worked out again when some leaf flipped.
+ * Gives the same answers as Goal.achieved and Goal.toString on the tree it was compiled from.
+ */
+public class GoalEngine {
+    private final Goal root;
+    private final List<Goal> goals = new ArrayList<>();
+    // index of the subgoals of a composite goal, -1 for leaves
+    private final List<Integer> left = new ArrayList<>();
+    private final List<Integer> right = new ArrayList<>();
+    private final boolean[] achieved;
+    private final int[] seen;
+
+    // the map the event counts were read from, everything is checked again when the game gets a new one
+    private GameMap map = null;
+    private boolean hasPlayer = false;
+    private String goalString = null;
+
+    public GoalEngine(Goal root) {
+        this.root = root;
+        if (root != null) compile(root);
+        this.achieved = new boolean[goals.size()];
+        this.seen = new int[goals.size()];
+    }
+
+    public Goal getRoot() {
+        return root;
+    }
+
+    public boolean achieved(Game game) {
+        update(game);
+        return !goals.isEmpty() && achieved[goals.size() - 1];
+    }
+
+    /**
+     * The goals left to achieve, empty once the whole goal is achieved
+     */
+    public String getGoalString(Game game) {
+        update(game);
+        if (goalString == null) goalString = goals.isEmpty() ? "" : format(goals.size() - 1);
+        return goalString;
+    }
+
+    private int compile(Goal goal) {
+        int l = -1;
+        int r = -1;
+        if (goal.getEvent() == null) {
+            l = compile(goal.getGoal1());
+            r = compile(goal.getGoal2());
+        }
+        goals.add(goal);
+        left.add(l);
+        right.add(r);
+        return goals.size() - 1;
+    }
+
+    private void update(Game game) {
+        GameMap current = game.getMap();
+        boolean player = game.getPlayer() != null;
+        boolean all = current != map || player != hasPlayer;
+        map = current;
+        hasPlayer = player;
+
+        boolean flipped = false;
+        for (int i = 0; i < goals.size(); i++) {
+            Goal goal = goals.get(i);
+            boolean now;
+            if (goal.getEvent() != null) {
+                int version = current.getGoalVersion(goal.getEvent());
+                if (!all && seen[i] == version) continue;
+                seen[i] = version;
+                now = goal.achieved(game, current, game.getPlayer());
+            } else if (flipped || all) {
+                now = player && combine(goal, achieved[left.get(i)], achieved[right.get(i)]);
+            } else {
+                continue;
+            }
+            if (now != achieved[i] || all) {
+                achieved[i] = now;
+                flipped = true;
+            }
+        }
+        if (flipped) goalString = null;
+    }
+
+    private static boolean combine(Goal goal, boolean a, boolean b) {
+        return goal instanceof AndGoal ? a && b : a || b;
+    }
+
+    private String format(int i) {
+        if (achieved[i]) return "";
+        Goal goal = goals.get(i);
+        if (goal.getEvent() != null) return goal.getLabel();
+        String op = goal instanceof AndGoal ? " AND " : " OR ";
+        return "(" + format(left.get(i)) + op + format(right.get(i)) + ")";
+    }
+}
@@ -0,0 +1,11 @@
+package dungeonmania.goals;
+
+/**
+ * The kinds of change a leaf goal can depend on, the map counts how often each one happened
+ */
+public enum GoalEvent {
+    SWITCHES,
+    TREASURE,
+    ENEMIES,
+    EXIT
+}
@@ -18,6 +18,16 @@ public class TreasureGoal extends Goal {
     @Override
     public String toString(Game game) {
         if (achieved(game, game.getMap(), game.getPlayer())) return "";
+        return getLabel();
+    }
+
+    @Override
+    public String getLabel() {
         return ":treasure";
     }
+
+    @Override
+    public GoalEvent getEvent() {
+        return GoalEvent.TREASURE;
+    }
 }
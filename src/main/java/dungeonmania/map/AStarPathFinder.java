@@ -0,0 +1,157 @@
+package dungeonmania.map;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.Portal;
+import dungeonmania.entities.SwampTile;
+import dungeonmania.metrics.Histogram;
+import dungeonmania.util.Position;
+
+/**
+ * AStarPathFinder -- the next step on a cheapest path, searched with A*
+ * Works on the same graph as GameMap.dijkstraPathFind:
+ * 1. stepping onto a cell costs the weight of its node, cells without a node cost 1
+ * 2. reaching a portal costs nothing more to come out next to its pair, the portal itself is not a step
+ * 3. paths longer than MAX_DISTANCE are not looked for
+ *
+ * The heuristic is the smaller of the manhattan distance and the shortest way through any two portals.
+ * A portal exit can be diagonal to its pair, so going through portals costs at least
+ * |n - nearest portal| + |nearest portal - dest| - 2. Both bounds assume a step costs at least 1, when
+ * some node weighs less the heuristic is dropped and the search is a plain Dijkstra.
+ * Teleports make the heuristic inconsistent, so cells are reopened when a cheaper way to them turns up.
+ *
+ * Ties between equally cheap paths are not broken the way the Dijkstra search happens to break them, that depends
+ * on the order its queue keeps equal cells in rather than on the order neighbours are looked at. The two only agree
+ * on the next step when it is the only one on a cheapest path, so A* is only used when the config asks for it.
+ */
+class AStarPathFinder {
+    static final int MAX_DISTANCE = 200;
+    private static final Histogram EXPANDED = GameMap.nodesExpanded("a_star");
+
+    private final GameMap map;
+    private final Entity entity;
+    private final Position dest;
+    private final Map<Position, Portal> portals = new HashMap<>();
+    private final boolean admissible;
+    private final int portalToDest;
+    private int queued = 0;
+
+    AStarPathFinder(GameMap map, Entity entity, Position dest) {
+        this.map = map;
+        this.entity = entity;
+        this.dest = dest;
+        int nearest = Integer.MAX_VALUE;
+        for (Portal portal : map.getEntities(Portal.class)) {
+            portals.put(portal.getPosition(), portal);
+            nearest = Math.min(nearest, manhattan(portal.getPosition(), dest));
+        }
+        this.portalToDest = nearest;
+        this.admissible = map.getEntities(SwampTile.class).stream()
+            .allMatch(s -> map.getNode(s.getPosition()).getWeight() >= 1);
+    }
+
+    Position nextStep(Position src) {
+        Map<Position, Integer> dist = new HashMap<>();
+        Map<Position, Position> prev = new HashMap<>();
+        PriorityQueue<Step> q = new PriorityQueue<>();
+
+        dist.put(src, 0);
+        prev.put(src, null);
+        q.add(step(src, 0));
+
+        int expanded = 0;
+        while (!q.isEmpty()) {
+            Step curr = q.poll();
+            // a cheaper way to this cell was queued after this one
+            if (curr.dist > dist.get(curr.position)) continue;
+            if (curr.position.equals(dest)) break;
+            expanded++;
+
+            Portal portal = curr.position.equals(src) ? null : portals.get(curr.position);
+            if (portal != null) {
+                List<Position> teleportDest = portal.getDestPositions(map, entity);
+                if (teleportDest == null) continue;
+                for (Position p : teleportDest) {
+                    relax(q, dist, prev, p, curr.dist, prev.get(curr.position));
+                }
+                continue;
+            }
+
+            for (int i = 0; i < Position.CARDINALLY_ADJACENT_POSITIONS; i++) {
+                Position n = curr.position.getCardinallyAdjacentPosition(i);
+                GraphNode node = map.getNode(n);
+                if (node != null && !node.canMoveOnto(map, entity)) continue;
+                relax(q, dist, prev, n, curr.dist + (node == null ? 1 : node.getWeight()), curr.position);
+            }
+        }
+
+        EXPANDED.record(expanded);
+
+        if (prev.get(dest) == null) return src;
+        Position ret = dest;
+        while (!src.equals(prev.get(ret))) {
+            ret = prev.get(ret);
+            if (ret == null) return src;
+        }
+        return ret;
+    }
+
+    private void relax(PriorityQueue<Step> q, Map<Position, Integer> dist, Map<Position, Position> prev,
+     Position p, int newDist, Position from) {
+        if (newDist > MAX_DISTANCE || newDist >= dist.getOrDefault(p, Integer.MAX_VALUE)) return;
+        dist.put(p, newDist);
+        prev.put(p, from);
+        q.add(step(p, newDist));
+    }
+
+    private Step step(Position p, int dist) {
+        int dx = p.getX() - dest.getX();
+        int dy = p.getY() - dest.getY();
+        return new Step(p, dist, dist + heuristic(p), dx * dx + dy * dy, queued++);
+    }
+
+    private int heuristic(Position p) {
+        if (!admissible) return 0;
+        int direct = manhattan(p, dest);
+        if (portals.isEmpty()) return direct;
+        int nearest = Integer.MAX_VALUE;
+        for (Position portal : portals.keySet()) {
+            nearest = Math.min(nearest, manhattan(p, portal));
+        }
+        return Math.min(direct, Math.max(0, nearest + portalToDest - 2));
+    }
+
+    private static int manhattan(Position a, Position b) {
+        return Math.abs(a.getX() - b.getX()) + Math.abs(a.getY() - b.getY());
+    }
+
+    private static final class Step implements Comparable<Step> {
+        private final Position position;
+        private final int dist;
+        private final int estimate;
+        private final int straightLine;
+        private final int order;
+
+        private Step(Position position, int dist, int estimate, int straightLine, int order) {
+            this.position = position;
+            this.dist = dist;
+            this.estimate = estimate;
+            this.straightLine = straightLine;
+            this.order = order;
+        }
+
+        /**
+         * Cheapest estimate first, then whichever is closer to dest as the crow flies, then the newest
+         */
+        @Override
+        public int compareTo(Step other) {
+            if (estimate != other.estimate) return Integer.compare(estimate, other.estimate);
+            if (straightLine != other.straightLine) return Integer.compare(straightLine, other.straightLine);
+            return Integer.compare(other.order, order);
+        }
+    }
+}
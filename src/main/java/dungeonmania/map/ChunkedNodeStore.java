@@ -0,0 +1,86 @@
+package dungeonmania.map;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import dungeonmania.util.Position;
+
+/**
+ * ChunkedNodeStore -- cells kept in 16x16 chunks, only chunks that hold a node are allocated
+ * Meant for maps whose bounding box is too big for a GridNodeStore, e.g. a few rooms far apart.
+ * A lookup is one HashMap get on a long key and an index into the chunk.
+ */
+class ChunkedNodeStore implements NodeStore {
+    private static final long serialVersionUID = 1L;
+
+    private static final int CHUNK_BITS = 4;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    private Map<Long, Chunk> chunks = new HashMap<>();
+    private int size = 0;
+
+    @Override
+    public GraphNode get(int x, int y) {
+        Chunk chunk = chunks.get(key(x, y));
+        return chunk == null ? null : chunk.cells[index(x, y)];
+    }
+
+    @Override
+    public void put(GraphNode node) {
+        Position p = node.getPosition();
+        Chunk chunk = chunks.computeIfAbsent(key(p.getX(), p.getY()), k -> new Chunk());
+        int i = index(p.getX(), p.getY());
+        if (chunk.cells[i] == null) {
+            chunk.size++;
+            size++;
+        }
+        chunk.cells[i] = node;
+    }
+
+    @Override
+    public void remove(Position p) {
+        long key = key(p.getX(), p.getY());
+        Chunk chunk = chunks.get(key);
+        int i = index(p.getX(), p.getY());
+        if (chunk == null || chunk.cells[i] == null) return;
+        chunk.cells[i] = null;
+        size--;
+        if (--chunk.size == 0) chunks.remove(key);
+    }
+
+    @Override
+    public boolean accepts(Position p) {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(Consumer<GraphNode> action) {
+        for (Chunk chunk : chunks.values()) {
+            for (GraphNode node : chunk.cells) {
+                if (node != null) action.accept(node);
+            }
+        }
+    }
+
+    private static long key(int x, int y) {
+        return ((long) (x >> CHUNK_BITS) << 32) | ((y >> CHUNK_BITS) & 0xffffffffL);
+    }
+
+    private static int index(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+    }
+
+    private static final class Chunk implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final GraphNode[] cells = new GraphNode[1 << (2 * CHUNK_BITS)];
+        private int size = 0;
+    }
+}
@@ -0,0 +1,259 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.Portal;
+import dungeonmania.entities.enemies.Enemy;
+import dungeonmania.metrics.Histogram;
+import dungeonmania.util.Position;
+
+/**
+ * DistanceField -- how far every cell is from the player, for one kind of entity
+ * Built with a single Dijkstra search outwards from the player over the same graph the path finders use,
+ * so every enemy of that kind reads its next step off its neighbours instead of searching on its own.
+ *
+ * The field only covers the terrain, enemies are left out because they move every tick. Instead the path a step is
+ * read off is checked against where the enemies are right now, see nextStep.
+ * Cells outside the map are all empty, so the search stays inside the bounding box of the map plus a ring
+ * of one cell, any path further out is no shorter than one along the ring. On a map without portals the box is
+ * also cut down to the cells that are at most MAX_DISTANCE steps from the player.
+ */
+class DistanceField {
+    private static final int UNREACHED = Integer.MAX_VALUE;
+    private static final Histogram EXPANDED = GameMap.nodesExpanded("distance_field");
+
+    private final GameMap map;
+    private final Entity entity;
+    private final Position player;
+    private final int version;
+
+    private final int minX;
+    private final int minY;
+    private final int width;
+    private final int height;
+    private final int[] dist;
+    private final boolean[] passable;
+    private final Map<Position, Portal> portals = new HashMap<>();
+
+    DistanceField(GameMap map, Entity entity, Position player, int version) {
+        this.map = map;
+        this.entity = entity;
+        this.player = player;
+        this.version = version;
+
+        int loX = player.getX();
+        int loY = player.getY();
+        int hiX = loX;
+        int hiY = loY;
+        for (GraphNode node : map.getNodes()) {
+            Position p = node.getPosition();
+            loX = Math.min(loX, p.getX());
+            loY = Math.min(loY, p.getY());
+            hiX = Math.max(hiX, p.getX());
+            hiY = Math.max(hiY, p.getY());
+        }
+        loX--;
+        loY--;
+        hiX++;
+        hiY++;
+
+        for (Portal portal : map.getEntities(Portal.class)) portals.put(portal.getPosition(), portal);
+        // without portals nothing further than MAX_DISTANCE steps from the player can be reached
+        if (portals.isEmpty()) {
+            int reach = AStarPathFinder.MAX_DISTANCE + 1;
+            loX = Math.max(loX, player.getX() - reach);
+            loY = Math.max(loY, player.getY() - reach);
+            hiX = Math.min(hiX, player.getX() + reach);
+            hiY = Math.min(hiY, player.getY() + reach);
+        }
+        this.minX = loX;
+        this.minY = loY;
+        this.width = hiX - loX + 1;
+        this.height = hiY - loY + 1;
+        this.dist = new int[width * height];
+        this.passable = new boolean[width * height];
+        Arrays.fill(dist, UNREACHED);
+        build();
+    }
+
+    boolean isValidFor(Position player, int version) {
+        return this.version == version && this.player.equals(player);
+    }
+
+    /**
+     * The cell mover should step onto from src, src when there is no way to the player
+     * The field leaves enemies out, so the step is only read off it when a shortest path from src is free all the
+     * way to the player right now. When another enemy stands on that path the field can't tell whether there is
+     * a way around it, so mover searches for itself the way DIJKSTRA would.
+     */
+    Position nextStep(Position src, Entity mover) {
+        Position first = null;
+        Position at = src;
+        for (int steps = 0; !at.equals(player); steps++) {
+            Position next = shortestStep(at, mover);
+            if (next == null && first == null) return src;
+            if (next == null || steps > dist.length || !map.canMoveTo(mover, next)) {
+                return map.dijkstraPathFind(src, player, mover);
+            }
+            if (first == null) first = next;
+            at = next;
+        }
+        return first == null ? src : first;
+    }
+
+    /**
+     * The cell after at on a shortest path over the terrain, null when the player can't be reached from at
+     * Of equally short steps the one closest to the player as the crow flies is taken,
+     * then sideways steps before up and down ones
+     */
+    private Position shortestStep(Position at, Entity mover) {
+        int here = get(at);
+        if (here == UNREACHED) return null;
+        Position best = null;
+        for (int i = 0; i < Position.CARDINALLY_ADJACENT_POSITIONS; i++) {
+            Position n = at.getCardinallyAdjacentPosition(i);
+            int cell = index(n);
+            if (cell < 0 || !passable[cell]) continue;
+            GraphNode node = map.getNode(n);
+            int weight = node == null ? 1 : node.getWeight();
+
+            Portal portal = portals.get(n);
+            List<Position> steps = portal == null ? List.of(n) : portal.getDestPositions(map, mover);
+            if (steps == null) continue;
+            for (Position step : steps) {
+                int d = get(step);
+                if (d == UNREACHED || (long) weight + d != here) continue;
+                if (best == null || isBetterTie(at, step, best)) best = step;
+            }
+        }
+        return best;
+    }
+
+    private boolean isBetterTie(Position src, Position step, Position best) {
+        int straightLine = straightLine(step);
+        int bestStraightLine = straightLine(best);
+        if (straightLine != bestStraightLine) return straightLine < bestStraightLine;
+        return step.getY() == src.getY() && best.getY() != src.getY();
+    }
+
+    int get(Position p) {
+        int i = index(p);
+        return i < 0 ? UNREACHED : dist[i];
+    }
+
+    /**
+     * Dijkstra outwards from the player, walking every edge of the path finding graph backwards:
+     * 1. stepping from x onto y costs the weight of y and needs y to be passable
+     * 2. stepping onto a portal leaves the entity on one of its exits, so an exit is reached
+     *    from every cell next to the portal at the cost of the portal
+     * Distances are capped at MAX_DISTANCE, so the queue is one bucket per distance
+     */
+    private void build() {
+        int cells = width * height;
+        boolean[] portal = new boolean[cells];
+        int[] weight = new int[cells];
+        Arrays.fill(passable, true);
+        Arrays.fill(weight, 1);
+        for (GraphNode node : map.getNodes()) {
+            int i = index(node.getPosition());
+            if (i < 0) continue;
+            weight[i] = node.getWeight();
+            passable[i] = isTerrainPassable(node);
+        }
+        passable[index(player)] = true;
+
+        Map<Integer, List<Portal>> exits = new HashMap<>();
+        for (Portal p : portals.values()) {
+            int i = index(p.getPosition());
+            portal[i] = true;
+            if (!passable[i]) continue;
+            List<Position> teleportDest = p.getDestPositions(map, entity);
+            if (teleportDest == null) continue;
+            for (Position e : teleportDest) {
+                int exit = index(e);
+                if (exit >= 0) exits.computeIfAbsent(exit, k -> new ArrayList<>()).add(p);
+            }
+        }
+
+        int[][] buckets = new int[AStarPathFinder.MAX_DISTANCE + 1][];
+        int[] bucketSize = new int[AStarPathFinder.MAX_DISTANCE + 1];
+        int start = index(player);
+        dist[start] = 0;
+        push(buckets, bucketSize, 0, start);
+        int expanded = 0;
+        for (int d = 0; d <= AStarPathFinder.MAX_DISTANCE; d++) {
+            for (int k = 0; k < bucketSize[d]; k++) {
+                int i = buckets[d][k];
+                // a cheaper way to this cell was queued after this one
+                if (dist[i] != d) continue;
+                expanded++;
+
+                List<Portal> viaPortal = exits.get(i);
+                if (viaPortal != null) {
+                    for (Portal p : viaPortal) {
+                        int at = index(p.getPosition());
+                        for (int n = 0; n < Position.CARDINALLY_ADJACENT_POSITIONS; n++) {
+                            relax(buckets, bucketSize, index(p.getPosition().getCardinallyAdjacentPosition(n)),
+                                d + weight[at]);
+                        }
+                    }
+                }
+                // entering a portal moves the entity on, nothing walks through the portal cell itself
+                if (portal[i] || !passable[i]) continue;
+                int cost = d + weight[i];
+                int x = i % width;
+                if (x > 0) relax(buckets, bucketSize, i - 1, cost);
+                if (x < width - 1) relax(buckets, bucketSize, i + 1, cost);
+                if (i >= width) relax(buckets, bucketSize, i - width, cost);
+                if (i + width < cells) relax(buckets, bucketSize, i + width, cost);
+            }
+            buckets[d] = null;
+        }
+        EXPANDED.record(expanded);
+    }
+
+    private void relax(int[][] buckets, int[] bucketSize, int i, int cost) {
+        if (i < 0 || cost > AStarPathFinder.MAX_DISTANCE || cost >= dist[i]) return;
+        dist[i] = cost;
+        push(buckets, bucketSize, cost, i);
+    }
+
+    private static void push(int[][] buckets, int[] bucketSize, int d, int i) {
+        if (buckets[d] == null) {
+            buckets[d] = new int[8];
+        } else if (bucketSize[d] == buckets[d].length) {
+            buckets[d] = Arrays.copyOf(buckets[d], bucketSize[d] * 2);
+        }
+        buckets[d][bucketSize[d]++] = i;
+    }
+
+    /**
+     * Whether the terrain on a node lets the entity on, enemies and the player are not terrain
+     */
+    private boolean isTerrainPassable(GraphNode node) {
+        for (Entity e : node.getEntities()) {
+            if (e instanceof Enemy || e instanceof Player) continue;
+            if (!e.canMoveOnto(map, entity)) return false;
+        }
+        return true;
+    }
+
+    private int straightLine(Position p) {
+        int dx = p.getX() - player.getX();
+        int dy = p.getY() - player.getY();
+        return dx * dx + dy * dy;
+    }
+
+    private int index(Position p) {
+        int x = p.getX() - minX;
+        int y = p.getY() - minY;
+        if (x < 0 || y < 0 || x >= width || y >= height) return -1;
+        return y * width + x;
+    }
+}
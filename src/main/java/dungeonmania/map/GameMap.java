@@ -3,14 +3,22 @@ package dungeonmania.map;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import dungeonmania.Game;
+import dungeonmania.TickTask;
 import dungeonmania.entities.DestroyAction;
 import dungeonmania.entities.Entity;
+import dungeonmania.entities.EntityFactory;
+import dungeonmania.entities.EntityType;
+import dungeonmania.entities.EntityTypes;
+import dungeonmania.entities.Exit;
 import dungeonmania.entities.MovedAwayAction;
 import dungeonmania.entities.OverlapAction;
 import dungeonmania.entities.Player;
@@ -18,39 +26,74 @@ import dungeonmania.entities.Portal;
 import dungeonmania.entities.Switch;
 import dungeonmania.entities.TimeTravellingPortal;
 import dungeonmania.entities.collectables.Bomb;
-import dungeonmania.entities.collectables.Collectable;
 import dungeonmania.entities.collectables.SunStone;
 import dungeonmania.entities.collectables.Treasure;
 import dungeonmania.entities.enemies.Enemy;
 import dungeonmania.entities.enemies.ZombieToastSpawner;
 import dungeonmania.entities.logical.Conductor;
 import dungeonmania.entities.logical.Logical;
+import dungeonmania.goals.GoalEvent;
+import dungeonmania.metrics.Histogram;
+import dungeonmania.metrics.Metrics;
 import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
 
 
 public class GameMap implements Serializable {
+    public static final String SPIDER_SPAWNER = "spiderSpawner";
+    // set to 1 in a config to path find with A* or the shared distance field instead of the original Dijkstra search
+    public static final String A_STAR_PATH_FINDING = "a_star_path_finding";
+    public static final String DISTANCE_FIELD_PATH_FINDING = "distance_field_path_finding";
+    // set to 1 in a config to plan the moves of mercenaries in parallel, see MovePlanner
+    public static final String PARALLEL_MOVEMENT = "parallel_movement";
+    private static final Histogram DIJKSTRA_EXPANDED = nodesExpanded("dijkstra");
+
     private Game game;
-    private Map<Position, GraphNode> nodes = new HashMap<>();
+    private NodeStorage nodeStorage = NodeStorage.GRID;
+    private NodeStore nodes = new GridNodeStore();
     private Player player;
 
+    // the entity types each class is bucketed under, worked out once per class
+    private static final Map<Class<?>, List<Class<?>>> INDEXED_TYPES = new ConcurrentHashMap<>();
+
+    // every entity on the map, bucketed under its class and each of its entity supertypes and interfaces,
+    // so a type query reads a single bucket, entities in the order they were placed
+    private Map<Class<?>, Set<Entity>> entitiesByType = new HashMap<>();
+    private Map<String, Entity> entitiesById = new HashMap<>();
+    private MapChanges changes = new MapChanges();
+    // null until first asked for, then taken from the config
+    private PathFinding pathFinding = null;
+    // bumped whenever something other than an enemy or the player is placed, removed or changed
+    private int terrainVersion = 0;
+    private transient Map<Class<?>, DistanceField> distanceFields = null;
+    // null until first asked for, then taken from the config
+    private Boolean parallelMovement = null;
+    private transient MovePlanner planner = null;
+    // how often each kind of change a goal depends on happened, see GoalEngine
+    private int[] goalVersions = new int[GoalEvent.values().length];
+
     /**
      * Initialise the game map
      * 1. pair up portals
      */
     public void init() {
+        initConnections();
+        initRegisterMovables();
+        initRegisterSpawners();
+        initRegisterBombsAndSwitches();
+    }
+
+    /**
+     * Wire up the entities that only depend on where everything else is:
+     * logical entities and their conductors, and portal pairs
+     */
+    public void initConnections() {
         List<Logical> logicalEntities = getEntities(Logical.class);
-        List<Conductor> conductors = getEntities().stream()
-                                               .filter(c -> c instanceof Conductor)
-                                               .map(c -> (Conductor) c)
-                                               .collect(Collectors.toList());
+        List<Conductor> conductors = getEntities(Conductor.class);
         logicalEntities.forEach(l -> l.setConductors(conductors));
         conductors.forEach(c -> c.setConductors(conductors));
         conductors.forEach(c -> c.setObservers(logicalEntities));
         initPairPortals();
-        initRegisterMovables();
-        initRegisterSpawners();
-        initRegisterBombsAndSwitches();
     }
 
     private void initRegisterBombsAndSwitches() {
@@ -69,63 +112,69 @@ public class GameMap implements Serializable {
     // Pair up portals if there's any
     private void initPairPortals() {
         Map<String, Portal> portalsMap = new HashMap<>();
-        nodes.forEach((k, v) -> {
-            v.getEntities()
-                    .stream()
-                    .filter(Portal.class::isInstance)
-                    .map(Portal.class::cast)
-                    .forEach(portal -> {
-                        String color = portal.getColor();
-                        if (portalsMap.containsKey(color)) {
-                            portal.bind(portalsMap.get(color));
-                        } else {
-                            portalsMap.put(color, portal);
-                        }
-                    });
+        getEntities(Portal.class).forEach(portal -> {
+            String color = portal.getColor();
+            if (portalsMap.containsKey(color)) {
+                portal.bind(portalsMap.get(color));
+            } else {
+                portalsMap.put(color, portal);
+            }
         });
     }
 
     private void initRegisterMovables() {
         List<Enemy> enemies = getEntities(Enemy.class);
-        enemies.forEach(e -> {
-            game.register((Runnable & Serializable) () -> e.move(game, this), Game.AI_MOVEMENT, e.getId());
-        });
+        enemies.forEach(this::registerMovable);
     }
 
     private void initRegisterSpawners() {
         List<ZombieToastSpawner> zts = getEntities(ZombieToastSpawner.class);
-        zts.forEach(e -> {
-            game.register((Runnable & Serializable) () -> e.spawn(game, game.getEntityFactory()),
-                Game.AI_MOVEMENT, e.getId());
-        });
-        game.register((Runnable & Serializable) () -> game.spawnSpider(game),
-            Game.AI_MOVEMENT, "spiderSpawner");
+        zts.forEach(this::registerSpawner);
+        registerSpiderSpawner();
+    }
+
+    /**
+     * Enemies and spawners sleep through the ticks they would not act on, see TickTask
+     */
+    public void registerMovable(Enemy e) {
+        game.register(new TickTask(TickTask.Action.ENEMY_MOVES, e.getId()), Game.AI_MOVEMENT, e.getId());
+    }
+
+    public void registerSpawner(ZombieToastSpawner e) {
+        game.register(new TickTask(TickTask.Action.SPAWNER_SPAWNS, e.getId()), Game.AI_MOVEMENT, e.getId());
+    }
+
+    public void registerSpiderSpawner() {
+        game.register(new TickTask(TickTask.Action.SPIDER_SPAWNS, SPIDER_SPAWNER), Game.AI_MOVEMENT, SPIDER_SPAWNER);
     }
 
     public void moveTo(Entity entity, Position position) {
         if (!canMoveTo(entity, position)) return;
 
         triggerMovingAwayEvent(entity);
-        removeNode(entity);
+        detach(entity);
         entity.setPosition(position);
-        addEntity(entity);
+        attach(new GraphNode(entity));
         triggerOverlapEvent(entity);
     }
 
     public void moveTo(Entity entity, Direction direction) {
         if (!canMoveTo(entity, Position.translateBy(entity.getPosition(), direction))) return;
         triggerMovingAwayEvent(entity);
-        removeNode(entity);
+        detach(entity);
         entity.setPosition(Position.translateBy(entity.getPosition(), direction));
-        addEntity(entity);
+        attach(new GraphNode(entity));
         triggerOverlapEvent(entity);
     }
 
     private void triggerMovingAwayEvent(Entity entity) {
         List<Runnable> callbacks = new ArrayList<>();
+        entityChanged(entity);
         getEntities(entity.getPosition()).forEach(e -> {
-            if (e != entity && e instanceof MovedAwayAction)
-            callbacks.add((Runnable & Serializable) () -> ((MovedAwayAction) e).onMovedAway(this, entity));
+            if (e != entity && EntityTypes.of(e).isMovedAwayAction()) {
+                entityChanged(e);
+                callbacks.add((Runnable & Serializable) () -> ((MovedAwayAction) e).onMovedAway(this, entity));
+            }
         });
         callbacks.forEach(callback -> {
             callback.run();
@@ -134,10 +183,13 @@ public class GameMap implements Serializable {
 
     private void triggerOverlapEvent(Entity entity) {
         List<Runnable> overlapCallbacks = new ArrayList<>();
+        boolean player = entity instanceof Player;
         getEntities(entity.getPosition()).forEach(e -> {
-            if (e != entity && e instanceof OverlapAction) {
+            EntityType type = EntityTypes.of(e);
+            if (e != entity && type.isOverlapAction()) {
+                entityChanged(e);
                 overlapCallbacks.add((Runnable & Serializable) () -> ((OverlapAction) e).onOverlap(this, entity));
-            } else if (entity instanceof Player && e instanceof Collectable) {
+            } else if (player && type.isCollectable()) {
                 overlapCallbacks.add((Runnable & Serializable) () -> ((OverlapAction) entity).onOverlap(this, e));
             }
         });
@@ -147,17 +199,20 @@ public class GameMap implements Serializable {
     }
 
     public boolean canMoveTo(Entity entity, Position position) {
-        return !nodes.containsKey(position) || nodes.get(position).canMoveOnto(this, entity);
+        GraphNode node = lookup(position);
+        return node == null || node.canMoveOnto(this, entity);
     }
 
     private void findShortestPath(PriorityQueue<Position> q, Position dest, Map<Position, Integer> dist, Entity entity,
      Map<Position, Boolean> visited, Map<Position, Position> prev) {
+        int expanded = 0;
         while (!q.isEmpty()) {
             Position curr = q.poll();
             if (curr.equals(dest) || dist.get(curr) > 200) break;
             // check portal
-            if (nodes.containsKey(curr) && nodes.get(curr).getEntities().stream().anyMatch(Portal.class::isInstance)) {
-                Portal portal = nodes.get(curr).getEntities()
+            GraphNode currNode = lookup(curr);
+            if (currNode != null && currNode.getEntities().stream().anyMatch(Portal.class::isInstance)) {
+                Portal portal = currNode.getEntities()
                 .stream().filter(Portal.class::isInstance).map(Portal.class::cast).collect(Collectors.toList()).get(0);
                 List<Position> teleportDest = portal.getDestPositions(this, entity);
                 teleportDest.stream()
@@ -169,27 +224,95 @@ public class GameMap implements Serializable {
                 continue;
             }
             visited.put(curr, true);
-            List<Position> neighbours = curr.getCardinallyAdjacentPositions()
-            .stream().filter(p -> !visited.containsKey(p))
-            .filter(p -> !nodes.containsKey(p) || nodes.get(p).canMoveOnto(this, entity))
-            .collect(Collectors.toList());
-
-            neighbours.forEach(n -> {
-                int newDist = dist.get(curr) + (nodes.containsKey(n) ? nodes.get(n).getWeight() : 1);
+            expanded++;
+            for (int i = 0; i < Position.CARDINALLY_ADJACENT_POSITIONS; i++) {
+                Position n = curr.getCardinallyAdjacentPosition(i);
+                if (visited.containsKey(n) || !canMoveTo(entity, n)) continue;
+                GraphNode node = lookup(n);
+                int newDist = dist.get(curr) + (node != null ? node.getWeight() : 1);
                 if (newDist < dist.getOrDefault(n, Integer.MAX_VALUE)) {
                     q.remove(n);
                     dist.put(n, newDist);
                     prev.put(n, curr);
                     q.add(n);
                 }
-            });
+            }
         }
+        DIJKSTRA_EXPANDED.record(expanded);
     }
 
 
+    /**
+     * The next step for entity on a cheapest path from src to dest, src if there is none
+     * with parallel movement on, the first search of a tick plans the moves of every mercenary at once
+     */
+    public Position pathFind(Position src, Position dest, Entity entity) {
+        if (game != null && isParallelMovement()) {
+            if (planner == null) planner = new MovePlanner();
+            if (!planner.isPlannedFor(game.getTick())) planner.plan(this, game.getTick(), entity);
+            Position planned = planner.plannedStep(this, entity, src, dest);
+            if (planned != null) return planned;
+        }
+        return search(src, dest, entity);
+    }
+
+    Position search(Position src, Position dest, Entity entity) {
+        switch (getPathFinding()) {
+        case DIJKSTRA:
+            return dijkstraPathFind(src, dest, entity);
+        case DISTANCE_FIELD:
+            if (dest.equals(getPlayerPosition())) return playerDistanceFieldPathFind(src, entity);
+            return aStarPathFind(src, dest, entity);
+        default:
+            return aStarPathFind(src, dest, entity);
+        }
+    }
+
+    /**
+     * The next step towards the player, read off a distance field shared by every entity of the same class
+     * the field is only rebuilt once the player moves or the terrain changes
+     */
+    public Position playerDistanceFieldPathFind(Position src, Entity entity) {
+        Position dest = getPlayerPosition();
+        if (lookup(src) == null || dest == null || lookup(dest) == null)
+        return src;
+
+        return prepareDistanceField(entity).nextStep(src, entity);
+    }
+
+    /**
+     * The distance field to the player shared by entities of the same class, rebuilt when it is out of date
+     */
+    DistanceField prepareDistanceField(Entity entity) {
+        Position dest = getPlayerPosition();
+        if (distanceFields == null) distanceFields = new HashMap<>();
+        DistanceField field = distanceFields.get(entity.getClass());
+        if (field == null || !field.isValidFor(dest, terrainVersion)) {
+            field = new DistanceField(this, entity, dest, terrainVersion);
+            distanceFields.put(entity.getClass(), field);
+        }
+        return field;
+    }
+
+    /**
+     * The histogram of how many cells each search of the given kind expanded
+     */
+    static Histogram nodesExpanded(String search) {
+        return Metrics.histogram("dungeonmania_pathfinding_nodes_expanded", "Cells expanded by each path search",
+            "search", search);
+    }
+
+    public Position aStarPathFind(Position src, Position dest, Entity entity) {
+        // if inputs are invalid, don't move
+        if (lookup(src) == null || lookup(dest) == null)
+        return src;
+
+        return new AStarPathFinder(this, entity, dest).nextStep(src);
+    }
+
     public Position dijkstraPathFind(Position src, Position dest, Entity entity) {
         // if inputs are invalid, don't move
-        if (!nodes.containsKey(src) || !nodes.containsKey(dest))
+        if (lookup(src) == null || lookup(dest) == null)
         return src;
 
         Map<Position, Integer> dist = new HashMap<>();
@@ -213,10 +336,19 @@ public class GameMap implements Serializable {
     }
 
     public void removeNode(Entity entity) {
+        detach(entity);
+        unindex(entity);
+    }
+
+    // take the entity off its current cell, the entity stays registered with the map
+    private void detach(Entity entity) {
         Position p = entity.getPosition();
-        if (nodes.containsKey(p)) {
-            nodes.get(p).removeEntity(entity);
-            if (nodes.get(p).size() == 0) {
+        GraphNode node = nodes.get(p);
+        if (node != null) {
+            cellChanged(p);
+            terrainChanged(entity);
+            node.removeEntity(entity);
+            if (node.size() == 0) {
                 nodes.remove(p);
             }
         }
@@ -234,49 +366,243 @@ public class GameMap implements Serializable {
     }
 
     public void addNode(GraphNode node) {
+        node.getEntities().forEach(this::index);
+        attach(node);
+    }
+
+    private void attach(GraphNode node) {
         Position p = node.getPosition();
+        cellChanged(p);
+        node.getEntities().forEach(this::terrainChanged);
 
-        if (!nodes.containsKey(p))
-        nodes.put(p, node);
-        else {
-            GraphNode curr = nodes.get(p);
-            curr.mergeNode(node);
-            nodes.put(p, curr);
-        }
+        GraphNode curr = nodes.get(p);
+        if (curr == null)
+        putNode(node);
+        else
+        curr.mergeNode(node);
+    }
+
+    private void putNode(GraphNode node) {
+        if (!nodes.accepts(node.getPosition())) nodes = copyNodes(new ChunkedNodeStore());
+        nodes.put(node);
+    }
+
+    private NodeStore copyNodes(NodeStore store) {
+        nodes.forEach(store::put);
+        return store;
     }
 
     public Entity getEntity(String id) {
-        Entity res = null;
-        for (Map.Entry<Position, GraphNode> entry : nodes.entrySet()) {
-            List<Entity> es = entry.getValue().getEntities()
-            .stream()
-            .filter(e -> e.getId().equals(id))
-            .collect(Collectors.toList());
-            if (es != null && es.size() > 0) {
-                res = es.get(0);
-                break;
-            }
-        }
-        return res;
+        return entitiesById.get(id);
+    }
+
+    /**
+     * Give an entity on the map a new id, entities must not be renamed through Entity.setId while on the map
+     */
+    public void setEntityId(Entity entity, String id) {
+        entitiesById.remove(entity.getId(), entity);
+        entity.setId(id);
+        entitiesById.put(id, entity);
     }
 
     public List<Entity> getEntities(Position p) {
-        GraphNode node = nodes.get(p);
+        GraphNode node = lookup(p);
         return (node != null) ? node.getEntities() : new ArrayList<>();
     }
 
     public List<Entity> getEntities() {
         List<Entity> entities = new ArrayList<>();
-        nodes.forEach((k, v) -> entities.addAll(v.getEntities()));
+        nodes.forEach(n -> entities.addAll(n.getEntities()));
         return entities;
     }
 
-    public <T extends Entity> List<T> getEntities(Class<T> type) {
-        return getEntities().stream().filter(type::isInstance).map(type::cast).collect(Collectors.toList());
+    /**
+     * Reads the one bucket of the given type, types spanning several classes (e.g. Enemy) and interfaces
+     * (e.g. Interactable) included, entities come in the order they were placed on the map so callers see
+     * a stable order
+     */
+    public <T> List<T> getEntities(Class<T> type) {
+        Set<Entity> match = entitiesByType.get(type);
+        List<T> entities = new ArrayList<>(match == null ? 0 : match.size());
+        if (match != null) match.forEach(e -> entities.add(type.cast(e)));
+        return entities;
     }
 
     public <T extends Entity> long countEntities(Class<T> type) {
-        return getEntities().stream().filter(type::isInstance).count();
+        Set<Entity> match = entitiesByType.get(type);
+        return match == null ? 0 : match.size();
+    }
+
+    /**
+     * The class of entity, its superclasses up to Entity and every interface they implement
+     */
+    private static List<Class<?>> indexedTypes(Class<?> type) {
+        return INDEXED_TYPES.computeIfAbsent(type, k -> {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            for (Class<?> c = k; c != null && Entity.class.isAssignableFrom(c); c = c.getSuperclass()) {
+                types.add(c);
+                addInterfaces(types, c);
+            }
+            return new ArrayList<>(types);
+        });
+    }
+
+    private static void addInterfaces(Set<Class<?>> types, Class<?> type) {
+        for (Class<?> i : type.getInterfaces()) {
+            if (i == Serializable.class || !types.add(i)) continue;
+            addInterfaces(types, i);
+        }
+    }
+
+    private void index(Entity entity) {
+        for (Class<?> type : indexedTypes(entity.getClass())) {
+            entitiesByType.computeIfAbsent(type, k -> new LinkedHashSet<>()).add(entity);
+        }
+        entitiesById.put(entity.getId(), entity);
+        changes.entityAdded(entity);
+        goalChanged(entity);
+    }
+
+    private void unindex(Entity entity) {
+        if (entitiesById.remove(entity.getId(), entity)) {
+            changes.entityRemoved(entity);
+        }
+        goalChanged(entity);
+        for (Class<?> type : indexedTypes(entity.getClass())) {
+            Set<Entity> es = entitiesByType.get(type);
+            if (es == null) continue;
+            es.remove(entity);
+            if (es.isEmpty()) {
+                entitiesByType.remove(type);
+            }
+        }
+    }
+
+    /**
+     * Record that the state of an entity changed outside of a move, so the next snapshot picks it up
+     */
+    public void markChanged(Entity entity) {
+        entityChanged(entity);
+        terrainChanged(entity);
+    }
+
+    private void entityChanged(Entity entity) {
+        changes.entityChanged(entity);
+        goalChanged(entity);
+    }
+
+    private void goalChanged(Entity entity) {
+        if (entity instanceof Switch) {
+            goalChanged(GoalEvent.SWITCHES);
+        } else if (entity instanceof Treasure || entity instanceof SunStone) {
+            goalChanged(GoalEvent.TREASURE);
+        } else if (entity instanceof ZombieToastSpawner) {
+            goalChanged(GoalEvent.ENEMIES);
+        } else if (entity instanceof Exit || entity instanceof Player) {
+            goalChanged(GoalEvent.EXIT);
+        }
+    }
+
+    /**
+     * Record a change that may flip goals depending on event, for changes that happen outside of the map
+     */
+    public void goalChanged(GoalEvent event) {
+        goalVersions[event.ordinal()]++;
+    }
+
+    public int getGoalVersion(GoalEvent event) {
+        return goalVersions[event.ordinal()];
+    }
+
+    private void terrainChanged(Entity entity) {
+        if (!(entity instanceof Enemy) && !(entity instanceof Player)) terrainVersion++;
+    }
+
+    public MapChanges getChanges() {
+        return changes;
+    }
+
+    public GraphNode getNode(Position p) {
+        return lookup(p);
+    }
+
+    // every cell a search reads goes through here, so a planned search knows what its result depends on
+    private GraphNode lookup(Position p) {
+        if (planner != null && planner.isPlanning()) MovePlanner.read(p);
+        return nodes.get(p);
+    }
+
+    private void cellChanged(Position p) {
+        changes.cellChanged(p);
+        if (planner != null) planner.cellChanged(p);
+    }
+
+    int getTerrainVersion() {
+        return terrainVersion;
+    }
+
+    public List<GraphNode> getNodes() {
+        List<GraphNode> list = new ArrayList<>(nodes.size());
+        nodes.forEach(list::add);
+        return list;
+    }
+
+    /**
+     * Used when replaying a snapshot: registers an entity without placing it on a cell
+     */
+    public void restoreEntity(Entity entity) {
+        index(entity);
+    }
+
+    /**
+     * Used when replaying a snapshot: unregisters an entity without touching its cell
+     */
+    public void forgetEntity(Entity entity) {
+        unindex(entity);
+    }
+
+    /**
+     * Used when replaying a snapshot: replaces whatever is on a cell with the given entities
+     */
+    public void restoreNode(Position p, List<Entity> entities, int weight) {
+        terrainVersion++;
+        for (GoalEvent event : GoalEvent.values()) goalChanged(event);
+        if (planner != null) planner.cellChanged(p);
+        if (entities == null || entities.isEmpty()) {
+            nodes.remove(p);
+        } else {
+            putNode(new GraphNode(p, entities, weight));
+        }
+    }
+
+    public PathFinding getPathFinding() {
+        if (pathFinding == null) {
+            pathFinding = PathFinding.DIJKSTRA;
+            if (game != null && game.getEntityFactory() != null) {
+                EntityFactory factory = game.getEntityFactory();
+                if (factory.getConfigValue(A_STAR_PATH_FINDING, 0) == 1) pathFinding = PathFinding.A_STAR;
+                if (factory.getConfigValue(DISTANCE_FIELD_PATH_FINDING, 0) == 1) {
+                    pathFinding = PathFinding.DISTANCE_FIELD;
+                }
+            }
+        }
+        return pathFinding;
+    }
+
+    public void setPathFinding(PathFinding pathFinding) {
+        this.pathFinding = pathFinding;
+    }
+
+    public boolean isParallelMovement() {
+        if (parallelMovement == null) {
+            parallelMovement = game != null && game.getEntityFactory() != null
+                && game.getEntityFactory().getConfigValue(PARALLEL_MOVEMENT, 0) == 1;
+        }
+        return parallelMovement;
+    }
+
+    public void setParallelMovement(boolean parallelMovement) {
+        this.parallelMovement = parallelMovement;
     }
 
     public Player getPlayer() {
@@ -296,7 +622,37 @@ public class GameMap implements Serializable {
     }
 
     public void setNodes(Map<Position, GraphNode> nodes) {
-        this.nodes = nodes;
+        this.nodes = newNodeStore(nodeStorage);
+        nodes.values().forEach(this::putNode);
+        terrainVersion++;
+        entitiesByType = new HashMap<>();
+        entitiesById = new HashMap<>();
+        nodes.values().forEach(n -> n.getEntities().forEach(this::index));
+    }
+
+    public NodeStorage getNodeStorage() {
+        return nodeStorage;
+    }
+
+    /**
+     * Moves every cell over to the given kind of storage, a GRID map may still end up chunked when it is too big
+     */
+    public void setNodeStorage(NodeStorage nodeStorage) {
+        this.nodeStorage = nodeStorage;
+        NodeStore old = nodes;
+        nodes = newNodeStore(nodeStorage);
+        old.forEach(this::putNode);
+    }
+
+    private static NodeStore newNodeStore(NodeStorage nodeStorage) {
+        switch (nodeStorage) {
+        case HASH:
+            return new HashNodeStore();
+        case CHUNKED:
+            return new ChunkedNodeStore();
+        default:
+            return new GridNodeStore();
+        }
     }
 
     public Position getPlayerPosition() {
@@ -316,11 +672,11 @@ public class GameMap implements Serializable {
     }
 
     public int getTreasureSize() {
-        return getEntities(Treasure.class).size() + getEntities(SunStone.class).size();
+        return (int) (countEntities(Treasure.class) + countEntities(SunStone.class));
     }
 
     public boolean allSpawnersDestroyed() {
-        return getEntities(ZombieToastSpawner.class).stream().findAny().isEmpty();
+        return countEntities(ZombieToastSpawner.class) == 0;
     }
 
     public void battle(Player player, Enemy enemy) {
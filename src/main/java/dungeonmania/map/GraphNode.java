@@ -27,8 +27,17 @@ public class GraphNode implements Serializable {
         this.weight = weight;
     }
 
+    public GraphNode(Position p, List<Entity> entities, int weight) {
+        this.position = p;
+        this.entities.addAll(entities);
+        this.weight = weight;
+    }
+
     public boolean canMoveOnto(GameMap map, Entity entity) {
-        return entities.size() == 0 || entities.stream().allMatch(e -> e.canMoveOnto(map, entity));
+        for (int i = 0; i < entities.size(); i++) {
+            if (!entities.get(i).canMoveOnto(map, entity)) return false;
+        }
+        return true;
     }
 
     public int getWeight() {
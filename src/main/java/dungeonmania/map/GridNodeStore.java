@@ -0,0 +1,116 @@
+package dungeonmania.map;
+
+import java.util.function.Consumer;
+
+import dungeonmania.util.Position;
+
+/**
+ * GridNodeStore -- cells kept in one array over the bounding box of the map, row by row
+ * A lookup is a bounds check and an index, no hashing and no boxing.
+ *
+ * The box grows when a node is put outside of it, by half again in that direction so a map that is loaded one
+ * node at a time is only copied a handful of times. A box is never allowed to hold more than MAX_CELLS cells,
+ * a node that would need more is not accepted and the map moves on to a ChunkedNodeStore.
+ */
+class GridNodeStore implements NodeStore {
+    private static final long serialVersionUID = 1L;
+
+    static final int MAX_CELLS = 1 << 20;
+    private static final int MIN_GROWTH = 8;
+
+    private int minX = 0;
+    private int minY = 0;
+    private int width = 0;
+    private int height = 0;
+    private GraphNode[] cells = new GraphNode[0];
+    private int size = 0;
+
+    @Override
+    public GraphNode get(int x, int y) {
+        int i = index(x, y);
+        return i < 0 ? null : cells[i];
+    }
+
+    @Override
+    public void put(GraphNode node) {
+        Position p = node.getPosition();
+        int i = index(p.getX(), p.getY());
+        if (i < 0) {
+            grow(p.getX(), p.getY());
+            i = index(p.getX(), p.getY());
+        }
+        if (cells[i] == null) size++;
+        cells[i] = node;
+    }
+
+    @Override
+    public void remove(Position p) {
+        int i = index(p.getX(), p.getY());
+        if (i < 0 || cells[i] == null) return;
+        cells[i] = null;
+        size--;
+    }
+
+    @Override
+    public boolean accepts(Position p) {
+        if (index(p.getX(), p.getY()) >= 0) return true;
+        int[] box = boxAround(p.getX(), p.getY(), 0);
+        return area(box) <= MAX_CELLS;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(Consumer<GraphNode> action) {
+        for (GraphNode node : cells) {
+            if (node != null) action.accept(node);
+        }
+    }
+
+    private void grow(int x, int y) {
+        int[] box = boxAround(x, y, Math.max(MIN_GROWTH, Math.max(width, height) / 2));
+        if (area(box) > MAX_CELLS) box = boxAround(x, y, 0);
+
+        int newWidth = box[2] - box[0] + 1;
+        int newHeight = box[3] - box[1] + 1;
+        GraphNode[] grown = new GraphNode[newWidth * newHeight];
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(cells, row * width, grown, (minY + row - box[1]) * newWidth + minX - box[0], width);
+        }
+        minX = box[0];
+        minY = box[1];
+        width = newWidth;
+        height = newHeight;
+        cells = grown;
+    }
+
+    /**
+     * The smallest box holding the current one and (x, y), stretched by slack on the sides it had to grow
+     */
+    private int[] boxAround(int x, int y, int slack) {
+        if (cells.length == 0) return new int[] {x, y, x, y};
+        int loX = minX;
+        int loY = minY;
+        int hiX = minX + width - 1;
+        int hiY = minY + height - 1;
+        if (x < loX) loX = x - slack;
+        if (x > hiX) hiX = x + slack;
+        if (y < loY) loY = y - slack;
+        if (y > hiY) hiY = y + slack;
+        return new int[] {loX, loY, hiX, hiY};
+    }
+
+    private static long area(int[] box) {
+        return ((long) box[2] - box[0] + 1) * ((long) box[3] - box[1] + 1);
+    }
+
+    private int index(int x, int y) {
+        int dx = x - minX;
+        int dy = y - minY;
+        if (dx < 0 || dy < 0 || dx >= width || dy >= height) return -1;
+        return dy * width + dx;
+    }
+}
@@ -0,0 +1,51 @@
+package dungeonmania.map;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import dungeonmania.util.Position;
+
+/**
+ * HashNodeStore -- cells kept in a HashMap keyed by position, the way GameMap always kept them
+ */
+class HashNodeStore implements NodeStore {
+    private static final long serialVersionUID = 1L;
+
+    private Map<Position, GraphNode> nodes = new HashMap<>();
+
+    @Override
+    public GraphNode get(int x, int y) {
+        return nodes.get(Position.of(x, y));
+    }
+
+    @Override
+    public GraphNode get(Position p) {
+        return nodes.get(p);
+    }
+
+    @Override
+    public void put(GraphNode node) {
+        nodes.put(node.getPosition(), node);
+    }
+
+    @Override
+    public void remove(Position p) {
+        nodes.remove(p);
+    }
+
+    @Override
+    public boolean accepts(Position p) {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public void forEach(Consumer<GraphNode> action) {
+        nodes.values().forEach(action);
+    }
+}
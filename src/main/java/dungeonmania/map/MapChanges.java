@@ -0,0 +1,70 @@
+package dungeonmania.map;
+
+import java.io.Serializable;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import dungeonmania.entities.Entity;
+import dungeonmania.util.Position;
+
+/**
+ * MapChanges is a journal of everything that happened to a GameMap since it was last cleared,
+ * it is what incremental snapshots are built from
+ */
+public class MapChanges implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Set<Entity> added = new LinkedHashSet<>();
+    private Set<Entity> removed = new LinkedHashSet<>();
+    private Set<Entity> changed = new LinkedHashSet<>();
+    private Set<Position> cells = new LinkedHashSet<>();
+
+    void entityAdded(Entity entity) {
+        // an entity that leaves and comes back (e.g. a bomb being placed) is the same instance, so it only changed
+        if (removed.remove(entity)) {
+            changed.add(entity);
+        } else {
+            added.add(entity);
+        }
+    }
+
+    void entityRemoved(Entity entity) {
+        changed.remove(entity);
+        if (!added.remove(entity)) {
+            removed.add(entity);
+        }
+    }
+
+    void entityChanged(Entity entity) {
+        if (!added.contains(entity) && !removed.contains(entity)) {
+            changed.add(entity);
+        }
+    }
+
+    void cellChanged(Position position) {
+        cells.add(position);
+    }
+
+    public Set<Entity> getAdded() {
+        return added;
+    }
+
+    public Set<Entity> getRemoved() {
+        return removed;
+    }
+
+    public Set<Entity> getChanged() {
+        return changed;
+    }
+
+    public Set<Position> getCells() {
+        return cells;
+    }
+
+    public void clear() {
+        added.clear();
+        removed.clear();
+        changed.clear();
+        cells.clear();
+    }
+}
@@ -0,0 +1,138 @@
+package dungeonmania.map;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.util.Position;
+
+/**
+ * MovePlanner -- path finds for every mercenary due to move this tick at once, spread over a ForkJoinPool
+ * Planning happens the first time a path is asked for in a tick. While the searches run nothing writes to the map,
+ * and every cell a search looks at is recorded against its plan.
+ *
+ * Enemies still move one after another in the order their callbacks run. An enemy takes its planned step only if
+ * everything the search depended on is as it was: it is still where it was planned from, the player has not
+ * moved, the terrain version is the same and no cell the search looked at has had anything placed on it or taken
+ * off it since. Otherwise it searches again there and then, so a tick ends up exactly as it would without planning.
+ */
+class MovePlanner {
+    private static final ForkJoinPool POOL = ForkJoinPool.commonPool();
+    // the cells looked at by the search running on this thread, null outside of planning
+    private static final ThreadLocal<Set<Position>> READS = new ThreadLocal<>();
+
+    private final Map<Entity, Plan> plans = new IdentityHashMap<>();
+    // every cell changed since the plans were made
+    private final Set<Position> changed = new HashSet<>();
+    private int tick = Integer.MIN_VALUE;
+    private boolean planning = false;
+
+    static void read(Position p) {
+        Set<Position> reads = READS.get();
+        if (reads != null) reads.add(p);
+    }
+
+    boolean isPlanning() {
+        return planning;
+    }
+
+    boolean isPlannedFor(int tick) {
+        return this.tick == tick;
+    }
+
+    void cellChanged(Position p) {
+        if (!plans.isEmpty()) changed.add(p);
+    }
+
+    /**
+     * Searches for the next step of every mercenary that moves on the given tick, throwing away older plans
+     * mover is the entity whose search set off planning, it has already started its move
+     */
+    void plan(GameMap map, int tick, Entity mover) {
+        this.tick = tick;
+        plans.clear();
+        changed.clear();
+
+        Position player = map.getPlayerPosition();
+        PathFinding pathFinding = map.getPathFinding();
+        List<Plan> todo = new ArrayList<>();
+        for (Mercenary m : map.getEntities(Mercenary.class)) {
+            if (m != mover && m.getNextMoveTick() > tick) continue;
+            todo.add(new Plan(m, m.getPosition(), player, pathFinding, map.getTerrainVersion()));
+            // the searches may only read the shared distance field, so it is built up front
+            if (pathFinding == PathFinding.DISTANCE_FIELD) map.prepareDistanceField(m);
+        }
+        if (todo.isEmpty()) return;
+
+        List<Callable<Void>> tasks = new ArrayList<>(todo.size());
+        for (Plan plan : todo) {
+            tasks.add(() -> {
+                READS.set(plan.reads);
+                try {
+                    plan.step = map.search(plan.src, plan.dest, plan.entity);
+                } finally {
+                    READS.remove();
+                }
+                return null;
+            });
+        }
+        planning = true;
+        try {
+            // a search that fails is left unplanned and done again when the enemy moves
+            POOL.invokeAll(tasks);
+        } finally {
+            planning = false;
+        }
+        for (Plan plan : todo) {
+            if (plan.step != null) plans.put(plan.entity, plan);
+        }
+    }
+
+    /**
+     * The planned next step for entity, null when there is none or something it depended on has changed
+     * a plan is only handed out once
+     */
+    Position plannedStep(GameMap map, Entity entity, Position src, Position dest) {
+        Plan plan = plans.remove(entity);
+        if (plan == null || !plan.src.equals(src) || !plan.dest.equals(dest)
+            || !plan.dest.equals(map.getPlayerPosition()) || plan.pathFinding != map.getPathFinding()
+            || plan.terrainVersion != map.getTerrainVersion() || overlapsChanged(plan.reads)) {
+            return null;
+        }
+        return plan.step;
+    }
+
+    private boolean overlapsChanged(Set<Position> reads) {
+        Set<Position> small = reads.size() < changed.size() ? reads : changed;
+        Set<Position> large = small == reads ? changed : reads;
+        for (Position p : small) {
+            if (large.contains(p)) return true;
+        }
+        return false;
+    }
+
+    private static final class Plan {
+        private final Entity entity;
+        private final Position src;
+        private final Position dest;
+        private final PathFinding pathFinding;
+        private final int terrainVersion;
+        private final Set<Position> reads = new HashSet<>();
+        private Position step = null;
+
+        private Plan(Entity entity, Position src, Position dest, PathFinding pathFinding, int terrainVersion) {
+            this.entity = entity;
+            this.src = src;
+            this.dest = dest;
+            this.pathFinding = pathFinding;
+            this.terrainVersion = terrainVersion;
+        }
+    }
+}
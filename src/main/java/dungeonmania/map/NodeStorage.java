@@ -0,0 +1,12 @@
+package dungeonmania.map;
+
+/**
+ * How a GameMap keeps its cells
+ * GRID is a dense array over the bounding box of the map that falls back to CHUNKED once the box gets too big,
+ * CHUNKED only allocates the 16x16 chunks that hold something and HASH is the original HashMap
+ */
+public enum NodeStorage {
+    GRID,
+    CHUNKED,
+    HASH
+}
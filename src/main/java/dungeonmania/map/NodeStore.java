@@ -0,0 +1,33 @@
+package dungeonmania.map;
+
+import java.io.Serializable;
+import java.util.function.Consumer;
+
+import dungeonmania.util.Position;
+
+/**
+ * NodeStore -- the cells of a GameMap, at most one node per position
+ */
+interface NodeStore extends Serializable {
+    GraphNode get(int x, int y);
+
+    default GraphNode get(Position p) {
+        return get(p.getX(), p.getY());
+    }
+
+    /**
+     * Replaces whatever node is at the position of the given one
+     */
+    void put(GraphNode node);
+
+    void remove(Position p);
+
+    /**
+     * Whether a node at p can be put in this store, a store that says no has to be swapped for one that can
+     */
+    boolean accepts(Position p);
+
+    int size();
+
+    void forEach(Consumer<GraphNode> action);
+}
@@ -0,0 +1,13 @@
+package dungeonmania.map;
+
+/**
+ * How enemies that chase or follow the player find their way
+ * DIJKSTRA is the original search and the default. DISTANCE_FIELD shares one search from the player between
+ * all of them and A_STAR searches for each enemy, both are chosen in the config because they can break ties
+ * between equally short paths differently
+ */
+public enum PathFinding {
+    DISTANCE_FIELD,
+    A_STAR,
+    DIJKSTRA
+}
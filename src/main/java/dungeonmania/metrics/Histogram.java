@@ -0,0 +1,73 @@
+package dungeonmania.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram -- how many recorded values fell into each of a fixed set of buckets, without taking a lock
+ * The upper bounds of the buckets are the powers of two from 2^minExponent to 2^maxExponent, with one more
+ * bucket for everything larger. Recording a value finds its bucket from its leading zeros and increments it,
+ * so threads recording at the same time only ever contend on a counter.
+ *
+ * Values are recorded as longs in some base unit, e.g. nanoseconds, and written out multiplied by scale.
+ * A scrape reads the buckets one at a time while values are still being recorded, so the sum and the counts
+ * it writes can be a few values apart.
+ */
+public class Histogram implements Metrics.Metric {
+    private final int minExponent;
+    private final int maxExponent;
+    private final double scale;
+    private final AtomicLongArray counts;
+    private final LongAdder sum = new LongAdder();
+
+    Histogram(int minExponent, int maxExponent, double scale) {
+        this.minExponent = minExponent;
+        this.maxExponent = maxExponent;
+        this.scale = scale;
+        this.counts = new AtomicLongArray(maxExponent - minExponent + 2);
+    }
+
+    public void record(long value) {
+        counts.incrementAndGet(bucket(value));
+        sum.add(value);
+    }
+
+    /**
+     * Records the time since start, a System.nanoTime reading, for histograms kept in nanoseconds
+     */
+    public void recordSince(long start) {
+        record(System.nanoTime() - start);
+    }
+
+    private int bucket(long value) {
+        if (value <= 1L << minExponent) return 0;
+        // the smallest e with value <= 2^e
+        int exponent = 64 - Long.numberOfLeadingZeros(value - 1);
+        return Math.min(exponent, maxExponent + 1) - minExponent;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) count += counts.get(i);
+        return count;
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    @Override
+    public void write(StringBuilder out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+        long cumulative = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            cumulative += counts.get(i);
+            String le = i == counts.length() - 1 ? "+Inf" : Metrics.format((double) (1L << (minExponent + i)), scale);
+            out.append(name).append("_bucket").append(prefix).append("le=\"").append(le).append("\"} ")
+                .append(cumulative).append('\n');
+        }
+        out.append(name).append("_sum").append(labels).append(' ')
+            .append(Metrics.format((double) sum.sum(), scale)).append('\n');
+        out.append(name).append("_count").append(labels).append(' ').append(cumulative).append('\n');
+    }
+}
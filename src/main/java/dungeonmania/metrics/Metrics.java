@@ -0,0 +1,186 @@
+package dungeonmania.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Metrics -- every metric the server keeps, written out for /api/metrics in the Prometheus text format
+ * A metric is registered under a name and label pairs the first time it is asked for and kept for as long as
+ * the server runs, later calls with the same name and labels give back the same metric. Metrics with the same
+ * name make up a family, which is written with the help and type it was first registered with.
+ *
+ * Histograms and counters are updated without locks, gauges and function counters are read when scraped.
+ * Times are kept in nanoseconds and written in seconds.
+ */
+public final class Metrics {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    public static final String PHASE_SECONDS = "dungeonmania_phase_seconds";
+
+    // 1 microsecond to a little over a minute
+    private static final int MIN_NANOS_EXPONENT = 10;
+    private static final int MAX_NANOS_EXPONENT = 36;
+    private static final int MAX_COUNT_EXPONENT = 30;
+
+    private static final Map<String, Family> FAMILIES = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Writes its samples, name and labels as they are to be written, labels empty or in braces
+     */
+    interface Metric {
+        void write(StringBuilder out, String name, String labels);
+    }
+
+    private static final class Family {
+        private final String help;
+        private final String type;
+        private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+        private Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static final class Counter implements Metric {
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void write(StringBuilder out, String name, String labels) {
+            sample(out, name, labels, count.sum());
+        }
+    }
+
+    /**
+     * A histogram of times in nanoseconds, labels are name and value pairs
+     */
+    public static Histogram timer(String name, String help, String... labels) {
+        return register(name, help, "histogram", labels, Histogram.class,
+            () -> new Histogram(MIN_NANOS_EXPONENT, MAX_NANOS_EXPONENT, 1e-9));
+    }
+
+    /**
+     * A histogram of sizes or counts, from 1 to 2^30
+     */
+    public static Histogram histogram(String name, String help, String... labels) {
+        return register(name, help, "histogram", labels, Histogram.class,
+            () -> new Histogram(0, MAX_COUNT_EXPONENT, 1));
+    }
+
+    /**
+     * The time a phase of handling a command took, e.g. the snapshot or the tick
+     */
+    public static Histogram phase(String phase) {
+        return timer(PHASE_SECONDS, "Time spent in each phase of handling a command", "phase", phase);
+    }
+
+    public static LongAdder counter(String name, String help, String... labels) {
+        return register(name, help, "counter", labels, Counter.class, Counter::new).count;
+    }
+
+    /**
+     * A counter kept somewhere else, read when scraped, replaces any function counter already registered
+     */
+    public static void counter(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, "counter").metrics.put(labels(labels),
+            (out, n, l) -> sample(out, n, l, value.getAsLong()));
+    }
+
+    /**
+     * A value read when scraped, replaces any gauge already registered under the same name and labels
+     */
+    public static void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "gauge").metrics.put(labels(labels),
+            (out, n, l) -> out.append(n).append(l).append(' ').append(format(value.getAsDouble(), 1)).append('\n'));
+    }
+
+    /**
+     * Every metric, families sorted by name and the metrics in a family by their labels
+     */
+    public static String scrape() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Family> entry : new TreeMap<>(FAMILIES).entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Metric> metric : new TreeMap<>(family.metrics).entrySet()) {
+                try {
+                    metric.getValue().write(out, name, metric.getKey());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static <T extends Metric> T register(String name, String help, String type, String[] labels,
+     Class<T> kind, Supplier<T> factory) {
+        Metric metric = family(name, help, type).metrics.computeIfAbsent(labels(labels), k -> factory.get());
+        if (!kind.isInstance(metric)) {
+            throw new IllegalArgumentException(name + " is already registered as another kind of metric");
+        }
+        return kind.cast(metric);
+    }
+
+    private static Family family(String name, String help, String type) {
+        Family family = FAMILIES.computeIfAbsent(name, k -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    /**
+     * Label pairs as they are written, {a="1",b="2"}, or nothing without labels
+     */
+    private static String labels(String[] labels) {
+        if (labels.length % 2 != 0) throw new IllegalArgumentException("Labels must be name and value pairs");
+        if (labels.length == 0) return "";
+        StringBuilder out = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) out.append(',');
+            out.append(labels[i]).append("=\"");
+            for (char c : labels[i + 1].toCharArray()) {
+                switch (c) {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                default:
+                    out.append(c);
+                }
+            }
+            out.append('"');
+        }
+        return out.append('}').toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * value times scale, whole numbers without a fraction
+     */
+    static String format(double value, double scale) {
+        double scaled = value * scale;
+        if (Double.isNaN(scaled)) return "NaN";
+        if (Double.isInfinite(scaled)) return scaled > 0 ? "+Inf" : "-Inf";
+        if (scaled == Math.rint(scaled) && Math.abs(scaled) < 1e15) return Long.toString((long) scaled);
+        return Double.toString(scaled);
+    }
+}
@@ -0,0 +1,34 @@
+package dungeonmania.response.models;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * The state after a batch of commands, how many of them ran and, if asked for, what each of them did
+ * result is a DungeonResponse, or a DungeonDeltaResponse for a session in delta mode
+ */
+public class BatchResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Object result;
+    private int completed;
+    private List<BatchStepResponse> steps;
+
+    public BatchResponse(Object result, int completed, List<BatchStepResponse> steps) {
+        this.result = result;
+        this.completed = completed;
+        this.steps = steps;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public List<BatchStepResponse> getSteps() {
+        return steps;
+    }
+}
@@ -0,0 +1,55 @@
+package dungeonmania.response.models;
+
+import java.io.Serializable;
+
+/**
+ * What one command of a batch did, the tick and goals are as they were after it
+ * and the error fields are only set on the command that stopped the batch
+ */
+public class BatchStepResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String command;
+    private int tick;
+    private int battles;
+    private String goals;
+    private String errorTitle;
+    private String errorMessage;
+
+    public BatchStepResponse(String command, int tick, int battles, String goals) {
+        this.command = command;
+        this.tick = tick;
+        this.battles = battles;
+        this.goals = goals;
+    }
+
+    public BatchStepResponse(String command, Exception e) {
+        this.command = command;
+        this.errorTitle = e.getClass().getSimpleName();
+        this.errorMessage = e.getLocalizedMessage();
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public int getBattles() {
+        return battles;
+    }
+
+    public String getGoals() {
+        return goals;
+    }
+
+    public String getErrorTitle() {
+        return errorTitle;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -0,0 +1,46 @@
+package dungeonmania.response.models;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A page of the battle log, the battles numbered from up to but not including to,
+ * first and next are the oldest battle the log still holds and the number the next battle will get
+ */
+public class BattlePageResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int first;
+    private int next;
+    private int from;
+    private int to;
+    private List<BattleResponse> battles;
+
+    public BattlePageResponse(int first, int next, int from, int to, List<BattleResponse> battles) {
+        this.first = first;
+        this.next = next;
+        this.from = from;
+        this.to = to;
+        this.battles = battles;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getNext() {
+        return next;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public List<BattleResponse> getBattles() {
+        return battles;
+    }
+}
@@ -0,0 +1,205 @@
+package dungeonmania.response.models;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * ColumnarWriter -- a binary encoding of responses, for clients that send CONTENT_TYPE in their Accept header
+ * Every body starts with "DM", the format version and what follows:
+ *   KIND_JSON     the response as ResponseWriter writes it, for errors and anything that isn't a DungeonResponse
+ *   KIND_DUNGEON  a successful DungeonResponse, entities and inventory as columns
+ *
+ * A dungeon is written as
+ *   dungeonId, dungeonName, goals, nextBattle
+ *   the type dictionary: every entity and item type once, entities and items refer to types by their index
+ *   entities: count, ids, type indices, x, y, layer, then isInteractable as a bit set
+ *   inventory: count, ids, type indices
+ *   buildables: count, names
+ *   battles and animations as one JSON object, they are rare and nested
+ * Counts, indices, layers and nextBattle are unsigned varints and x and y zigzag varints. Strings are a varint
+ * of their UTF-8 length plus one, 0 being null, followed by the bytes. An id column starts with a byte that is
+ * ID_UUID when every id in it is a UUID, each then taking 16 bytes, otherwise ID_STRING and a string per id.
+ * The decoder for the client is in client/src/utils/Columnar.ts.
+ */
+public final class ColumnarWriter {
+    public static final String CONTENT_TYPE = "application/vnd.dungeonmania.columnar";
+    public static final int VERSION = 1;
+    public static final int KIND_JSON = 0;
+    public static final int KIND_DUNGEON = 1;
+    public static final int ID_STRING = 0;
+    public static final int ID_UUID = 1;
+
+    private ColumnarWriter() {
+    }
+
+    /**
+     * Whether a request with this Accept header asked for the columnar encoding
+     */
+    public static boolean accepts(String accept) {
+        return accept != null && accept.contains(CONTENT_TYPE);
+    }
+
+    /**
+     * Writes value to out and flushes it, out is not closed
+     */
+    public static void write(OutputStream out, Object value, Gson gson) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeByte('D');
+        data.writeByte('M');
+        data.writeByte(VERSION);
+        DungeonResponse dungeon = columnar(value);
+        if (dungeon == null) {
+            data.writeByte(KIND_JSON);
+            Writer writer = new OutputStreamWriter(data, StandardCharsets.UTF_8);
+            ResponseWriter.write(writer, value, gson);
+        } else {
+            data.writeByte(KIND_DUNGEON);
+            write(data, dungeon, gson);
+        }
+        data.flush();
+    }
+
+    /**
+     * The dungeon in value if it can be written as columns, a successful response with nothing missing
+     */
+    private static DungeonResponse columnar(Object value) {
+        if (!(value instanceof GenericResponseWrapper)) return null;
+        GenericResponseWrapper<?> wrapper = (GenericResponseWrapper<?>) value;
+        if (wrapper.isError() || !(wrapper.getResult() instanceof DungeonResponse)) return null;
+        DungeonResponse dungeon = (DungeonResponse) wrapper.getResult();
+        if (dungeon.getEntities() == null || dungeon.getInventory() == null) return null;
+        for (EntityResponse entity : dungeon.getEntities()) {
+            if (entity == null || entity.getId() == null || entity.getType() == null || entity.getPosition() == null) {
+                return null;
+            }
+        }
+        for (ItemResponse item : dungeon.getInventory()) {
+            if (item == null || item.getId() == null || item.getType() == null) return null;
+        }
+        return dungeon;
+    }
+
+    private static void write(DataOutputStream out, DungeonResponse dungeon, Gson gson) throws IOException {
+        writeString(out, dungeon.getDungeonId());
+        writeString(out, dungeon.getDungeonName());
+        writeString(out, dungeon.getGoals());
+        writeVarint(out, dungeon.getNextBattle());
+
+        List<EntityResponse> entities = dungeon.getEntities();
+        List<ItemResponse> inventory = dungeon.getInventory();
+        Map<String, Integer> types = new LinkedHashMap<>();
+        for (EntityResponse entity : entities) types.putIfAbsent(entity.getType(), types.size());
+        for (ItemResponse item : inventory) types.putIfAbsent(item.getType(), types.size());
+        writeVarint(out, types.size());
+        for (String type : types.keySet()) writeString(out, type);
+
+        int n = entities.size();
+        writeVarint(out, n);
+        String[] ids = new String[n];
+        for (int i = 0; i < n; i++) ids[i] = entities.get(i).getId();
+        writeIds(out, ids);
+        for (EntityResponse entity : entities) writeVarint(out, types.get(entity.getType()));
+        for (EntityResponse entity : entities) writeVarint(out, zigzag(entity.getPosition().getX()));
+        for (EntityResponse entity : entities) writeVarint(out, zigzag(entity.getPosition().getY()));
+        for (EntityResponse entity : entities) writeVarint(out, entity.getPosition().getLayer());
+        byte[] interactable = new byte[(n + 7) / 8];
+        for (int i = 0; i < n; i++) {
+            if (entities.get(i).isInteractable()) interactable[i / 8] |= 1 << (i % 8);
+        }
+        out.write(interactable);
+
+        int m = inventory.size();
+        writeVarint(out, m);
+        ids = new String[m];
+        for (int i = 0; i < m; i++) ids[i] = inventory.get(i).getId();
+        writeIds(out, ids);
+        for (ItemResponse item : inventory) writeVarint(out, types.get(item.getType()));
+
+        List<String> buildables = dungeon.getBuildables();
+        writeVarint(out, buildables == null ? 0 : buildables.size());
+        if (buildables != null) for (String buildable : buildables) writeString(out, buildable);
+
+        JsonObject rest = new JsonObject();
+        rest.add("battles", gson.toJsonTree(dungeon.getBattles()));
+        rest.add("animations", gson.toJsonTree(dungeon.getAnimations()));
+        writeString(out, gson.toJson(rest));
+    }
+
+    private static void writeIds(DataOutputStream out, String[] ids) throws IOException {
+        UUID[] uuids = new UUID[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            uuids[i] = uuid(ids[i]);
+            if (uuids[i] == null) {
+                out.writeByte(ID_STRING);
+                for (String id : ids) writeString(out, id);
+                return;
+            }
+        }
+        out.writeByte(ID_UUID);
+        for (UUID uuid : uuids) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    /**
+     * id as a UUID if it is one written the way UUID.toString writes it, so it decodes back to the same string
+     */
+    private static UUID uuid(String id) {
+        if (id.length() != 36) return null;
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    /**
+     * value encoded into a byte array, for tests and for measuring sizes
+     */
+    public static byte[] toBytes(Object value, Gson gson) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(out, value, gson);
+        } catch (IOException e) {
+            // a ByteArrayOutputStream doesn't throw
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+}
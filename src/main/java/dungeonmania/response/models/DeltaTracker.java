@@ -0,0 +1,189 @@
+package dungeonmania.response.models;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import dungeonmania.Game;
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.EntityTypes;
+import dungeonmania.entities.Interactable;
+import dungeonmania.entities.Player;
+import dungeonmania.map.GameMap;
+import dungeonmania.map.MapChanges;
+
+/**
+ * DeltaTracker -- numbers the responses of one session and remembers which entities each of them touched
+ * record has to be called after every action, before the next snapshot clears the map's changes.
+ * A delta from an acknowledged version is the union of what the versions after it touched,
+ * an entity still on the map is sent as it is now and one that is gone is sent as removed.
+ * Whether an entity can be interacted with depends on the player as well as on the entity, so those flags are
+ * compared against the last version too: every interactable entity when the player moved or its inventory changed,
+ * otherwise only the ones the map's changes touched.
+ * Only the last HISTORY versions are kept, anything older or from another game is answered with a resync.
+ */
+public class DeltaTracker {
+    public static final int HISTORY = 64;
+
+    private Game game = null;
+    private int version = 0;
+    // the oldest entry is the version deltas can start from, it touched nothing
+    private final ArrayDeque<Version> versions = new ArrayDeque<>();
+    private final Map<String, Boolean> interactable = new HashMap<>();
+    // the player and its inventory version the interactable flags were last checked against
+    private Player player = null;
+    private int inventoryVersion = 0;
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Starts a new version holding what changed on the map since the last one
+     */
+    public void record(Game game) {
+        if (game != this.game) {
+            reset(game);
+            return;
+        }
+        GameMap map = game.getMap();
+        MapChanges changes = map.getChanges();
+        Set<String> touched = new LinkedHashSet<>();
+        changes.getAdded().forEach(e -> touched.add(e.getId()));
+        changes.getChanged().forEach(e -> touched.add(e.getId()));
+        changes.getRemoved().forEach(e -> {
+            touched.add(e.getId());
+            interactable.remove(e.getId());
+        });
+        Collection<? extends Entity> recheck = hasPlayerChanged(game)
+            ? map.getEntities(Interactable.class).stream().map(Entity.class::cast).collect(Collectors.toList())
+            : touchedOnMap(changes);
+        for (Entity e : recheck) {
+            if (!EntityTypes.of(e).isInteractable()) continue;
+            boolean now = ((Interactable) e).isInteractable(game.getPlayer());
+            Boolean before = interactable.put(e.getId(), now);
+            if (before == null || before != now) touched.add(e.getId());
+        }
+        rememberPlayer(game);
+        version++;
+        versions.addLast(new Version(version, touched, battleCount(game)));
+        while (versions.size() > HISTORY + 1) versions.removeFirst();
+    }
+
+    /**
+     * What changed since ackVersion, or everything when the tracker cannot tell
+     */
+    public DungeonDeltaResponse since(Game game, int ackVersion) {
+        if (game != this.game) reset(game);
+        if (versions.isEmpty() || ackVersion < versions.getFirst().version || ackVersion > version) {
+            return resync(game);
+        }
+
+        Iterator<Version> iter = versions.iterator();
+        Version base = iter.next();
+        while (base.version != ackVersion) base = iter.next();
+        Set<String> touched = new LinkedHashSet<>();
+        iter.forEachRemaining(v -> touched.addAll(v.touched));
+
+        GameMap map = game.getMap();
+        List<EntityResponse> entities = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (String id : touched) {
+            Entity e = map.getEntity(id);
+            if (e != null) {
+                entities.add(ResponseBuilder.getEntityResponse(game, e));
+            } else {
+                removed.add(id);
+            }
+        }
+        List<BattleResponse> battles = game.getBattleFacade().getBattleLog().getResponses(base.battles);
+        return response(game, ackVersion, false, entities, removed, battles);
+    }
+
+    private DungeonDeltaResponse resync(Game game) {
+        List<EntityResponse> entities = new ArrayList<>();
+        game.getMap().getEntities().forEach(e -> entities.add(ResponseBuilder.getEntityResponse(game, e)));
+        List<BattleResponse> battles = game.getBattleFacade().getBattleResponses();
+        return response(game, -1, true, entities, Collections.emptyList(), battles);
+    }
+
+    private DungeonDeltaResponse response(Game game, int baseVersion, boolean resync, List<EntityResponse> entities,
+            List<String> removed, List<BattleResponse> battles) {
+        return new DungeonDeltaResponse(
+                game.getId(),
+                game.getName(),
+                version,
+                baseVersion,
+                resync,
+                entities,
+                removed,
+                (game.getPlayer() != null) ? ResponseBuilder.getInventoryResponse(game.getPlayer().getInventory())
+                    : null,
+                battles,
+                (game.getPlayer() != null) ? game.getBuildables() : null,
+                game.getGoalString());
+    }
+
+    /**
+     * Forgets every version, the next delta has to start from the version this makes
+     */
+    private void reset(Game game) {
+        this.game = game;
+        versions.clear();
+        interactable.clear();
+        for (Interactable e : game.getMap().getEntities(Interactable.class)) {
+            interactable.put(((Entity) e).getId(), e.isInteractable(game.getPlayer()));
+        }
+        rememberPlayer(game);
+        version++;
+        versions.addLast(new Version(version, Collections.emptySet(), battleCount(game)));
+    }
+
+    /**
+     * Whether the player is another one, has moved or been changed on the map, or has gained or lost an item
+     */
+    private boolean hasPlayerChanged(Game game) {
+        Player now = game.getPlayer();
+        if (now != player) return true;
+        if (now == null) return false;
+        MapChanges changes = game.getMap().getChanges();
+        return now.getInventory().getVersion() != inventoryVersion || changes.getChanged().contains(now)
+            || changes.getAdded().contains(now);
+    }
+
+    private void rememberPlayer(Game game) {
+        player = game.getPlayer();
+        inventoryVersion = player == null ? 0 : player.getInventory().getVersion();
+    }
+
+    private static List<Entity> touchedOnMap(MapChanges changes) {
+        List<Entity> entities = new ArrayList<>(changes.getAdded());
+        entities.addAll(changes.getChanged());
+        return entities;
+    }
+
+    // the number of the next battle, so deltas start after the last battle a version saw
+    private static int battleCount(Game game) {
+        return game.getBattleFacade().getBattleLog().getNext();
+    }
+
+    private static final class Version {
+        private final int version;
+        private final Set<String> touched;
+        private final int battles;
+
+        private Version(int version, Set<String> touched, int battles) {
+            this.version = version;
+            this.touched = touched;
+            this.battles = battles;
+        }
+    }
+}
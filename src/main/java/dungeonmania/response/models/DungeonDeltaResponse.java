@@ -0,0 +1,107 @@
+package dungeonmania.response.models;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The entities added, changed or removed since baseVersion, the version the client said it already has
+ * A resync carries every entity and every battle and has no base version, the client drops what it had and starts
+ * over from it. The inventory, buildables and goals are small enough to always be sent whole.
+ */
+public final class DungeonDeltaResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String dungeonId;
+    private final String dungeonName;
+    private final int version;
+    private final int baseVersion;
+    private final boolean resync;
+    private final List<EntityResponse> entities;
+    private final List<String> removed;
+    private final List<ItemResponse> inventory;
+    private final List<BattleResponse> battles;
+    private final List<String> buildables;
+    private final String goals;
+    private final List<AnimationQueue> animations;
+
+    public DungeonDeltaResponse(String dungeonId, String dungeonName, int version, int baseVersion, boolean resync,
+            List<EntityResponse> entities, List<String> removed, List<ItemResponse> inventory,
+            List<BattleResponse> battles, List<String> buildables, String goals) {
+        this.dungeonId = dungeonId;
+        this.dungeonName = dungeonName;
+        this.version = version;
+        this.baseVersion = baseVersion;
+        this.resync = resync;
+        this.entities = entities;
+        this.removed = removed;
+        this.inventory = inventory;
+        this.battles = battles;
+        this.buildables = buildables;
+        this.goals = goals;
+        this.animations = new ArrayList<>();
+    }
+
+    public final String getDungeonId() {
+        return dungeonId;
+    }
+
+    public final String getDungeonName() {
+        return dungeonName;
+    }
+
+    /**
+     * The version to acknowledge once this response has been applied
+     */
+    public final int getVersion() {
+        return version;
+    }
+
+    /**
+     * The version this response applies on top of, -1 for a resync
+     */
+    public final int getBaseVersion() {
+        return baseVersion;
+    }
+
+    public final boolean isResync() {
+        return resync;
+    }
+
+    /**
+     * Entities that were added or changed, every entity on the map for a resync
+     */
+    public final List<EntityResponse> getEntities() {
+        return entities;
+    }
+
+    /**
+     * Ids of entities that left the map
+     */
+    public final List<String> getRemoved() {
+        return removed;
+    }
+
+    public final List<ItemResponse> getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Battles fought since the base version, every battle for a resync
+     */
+    public final List<BattleResponse> getBattles() {
+        return battles;
+    }
+
+    public final List<String> getBuildables() {
+        return buildables;
+    }
+
+    public final String getGoals() {
+        return goals;
+    }
+
+    public List<AnimationQueue> getAnimations() {
+        return animations;
+    }
+}
@@ -13,6 +13,8 @@ public final class DungeonResponse implements Serializable {
     private final List<String> buildables;
     private final String goals;
     private final List<AnimationQueue> animations;
+    // the number the next battle will get, what to pass as the battle cursor to only get newer battles
+    private final int nextBattle;
 
     public DungeonResponse(String dungeonId, String dungeonName, List<EntityResponse> entities,
             List<ItemResponse> inventory, List<BattleResponse> battles, List<String> buildables, String goals) {
@@ -22,6 +24,13 @@ public final class DungeonResponse implements Serializable {
     public DungeonResponse(String dungeonId, String dungeonName, List<EntityResponse> entities,
             List<ItemResponse> inventory, List<BattleResponse> battles, List<String> buildables, String goals,
             List<AnimationQueue> animations) {
+        this(dungeonId, dungeonName, entities, inventory, battles, buildables, goals, animations,
+            battles == null ? 0 : battles.size());
+    }
+
+    public DungeonResponse(String dungeonId, String dungeonName, List<EntityResponse> entities,
+            List<ItemResponse> inventory, List<BattleResponse> battles, List<String> buildables, String goals,
+            List<AnimationQueue> animations, int nextBattle) {
         this.dungeonId = dungeonId;
         this.dungeonName = dungeonName;
         this.entities = entities;
@@ -30,6 +39,7 @@ public final class DungeonResponse implements Serializable {
         this.buildables = buildables;
         this.goals = goals;
         this.animations = animations;
+        this.nextBattle = nextBattle;
     }
 
     public List<AnimationQueue> getAnimations() {
@@ -56,6 +66,10 @@ public final class DungeonResponse implements Serializable {
         return goals;
     }
 
+    public final int getNextBattle() {
+        return nextBattle;
+    }
+
     public final String getDungeonId() {
         return dungeonId;
     }
@@ -0,0 +1,64 @@
+package dungeonmania.response.models;
+
+import java.io.Serializable;
+
+/**
+ * How much the rewind history holds and where it is kept,
+ * byte counts are the size of the stored snapshot data, not of the objects wrapping them
+ */
+public class HistoryResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int snapshots;
+    private int keyframes;
+    private int spilledKeyframes;
+    private long heapBytes;
+    private long spilledBytes;
+    private int oldestTick;
+    private int newestTick;
+    private int retention;
+
+    public HistoryResponse(int snapshots, int keyframes, int spilledKeyframes, long heapBytes, long spilledBytes,
+            int oldestTick, int newestTick, int retention) {
+        this.snapshots = snapshots;
+        this.keyframes = keyframes;
+        this.spilledKeyframes = spilledKeyframes;
+        this.heapBytes = heapBytes;
+        this.spilledBytes = spilledBytes;
+        this.oldestTick = oldestTick;
+        this.newestTick = newestTick;
+        this.retention = retention;
+    }
+
+    public int getSnapshots() {
+        return snapshots;
+    }
+
+    public int getKeyframes() {
+        return keyframes;
+    }
+
+    public int getSpilledKeyframes() {
+        return spilledKeyframes;
+    }
+
+    public long getHeapBytes() {
+        return heapBytes;
+    }
+
+    public long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    public int getOldestTick() {
+        return oldestTick;
+    }
+
+    public int getNewestTick() {
+        return newestTick;
+    }
+
+    public int getRetention() {
+        return retention;
+    }
+}
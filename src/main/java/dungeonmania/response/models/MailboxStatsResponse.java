@@ -0,0 +1,64 @@
+package dungeonmania.response.models;
+
+import java.io.Serializable;
+
+/**
+ * How busy the session workers are, queue depths are counts of commands and waits are from being submitted
+ * to starting to run, averaged over every command run since the server started
+ */
+public class MailboxStatsResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int workers;
+    private int mailboxCapacity;
+    private int queuedCommands;
+    private int maxQueueDepth;
+    private long completedCommands;
+    private long rejectedCommands;
+    private long meanWaitMicros;
+    private long maxWaitMicros;
+
+    public MailboxStatsResponse(int workers, int mailboxCapacity, int queuedCommands, int maxQueueDepth,
+            long completedCommands, long rejectedCommands, long meanWaitMicros, long maxWaitMicros) {
+        this.workers = workers;
+        this.mailboxCapacity = mailboxCapacity;
+        this.queuedCommands = queuedCommands;
+        this.maxQueueDepth = maxQueueDepth;
+        this.completedCommands = completedCommands;
+        this.rejectedCommands = rejectedCommands;
+        this.meanWaitMicros = meanWaitMicros;
+        this.maxWaitMicros = maxWaitMicros;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getMailboxCapacity() {
+        return mailboxCapacity;
+    }
+
+    public int getQueuedCommands() {
+        return queuedCommands;
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public long getCompletedCommands() {
+        return completedCommands;
+    }
+
+    public long getRejectedCommands() {
+        return rejectedCommands;
+    }
+
+    public long getMeanWaitMicros() {
+        return meanWaitMicros;
+    }
+
+    public long getMaxWaitMicros() {
+        return maxWaitMicros;
+    }
+}
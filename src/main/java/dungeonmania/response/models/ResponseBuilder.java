@@ -6,14 +6,24 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import dungeonmania.Game;
+import dungeonmania.battles.BattleLog;
 import dungeonmania.battles.BattleRound;
 import dungeonmania.entities.Entity;
+import dungeonmania.entities.EntityType;
+import dungeonmania.entities.EntityTypes;
 import dungeonmania.entities.Interactable;
 import dungeonmania.entities.inventory.Inventory;
-import dungeonmania.util.NameConverter;
 
 public class ResponseBuilder implements Serializable {
     public static DungeonResponse getDungeonResponse(Game game) {
+        return getDungeonResponse(game, 0);
+    }
+
+    /**
+     * The response for game with only the battles numbered battleCursor onwards
+     */
+    public static DungeonResponse getDungeonResponse(Game game, int battleCursor) {
+        BattleLog battles = game.getBattleFacade().getBattleLog();
         List<EntityResponse> entityResponse = new ArrayList<>();
         game.getMap().getEntities().forEach(e -> {
             entityResponse.add(ResponseBuilder.getEntityResponse(game, e));
@@ -23,13 +33,14 @@ public class ResponseBuilder implements Serializable {
                 game.getName(),
                 entityResponse,
                 (game.getPlayer() != null) ? getInventoryResponse(game.getPlayer().getInventory()) : null,
-                game.getBattleFacade().getBattleResponses(),
+                battles.getResponses(battleCursor),
                 (game.getPlayer() != null) ? game.getBuildables() : null,
-                (game.getGoals().achieved(game, game.getMap(), game.getPlayer())) ? ""
-                        : game.getGoals().toString(game));
+                game.getGoalString(),
+                new ArrayList<>(),
+                battles.getNext());
     }
 
-    private static List<ItemResponse> getInventoryResponse(Inventory inventory) {
+    static List<ItemResponse> getInventoryResponse(Inventory inventory) {
         return inventory.getEntities()
                         .stream()
                         .map(ResponseBuilder::getItemResponse)
@@ -37,15 +48,16 @@ public class ResponseBuilder implements Serializable {
     }
 
     public static ItemResponse getItemResponse(Entity entity) {
-        return new ItemResponse(entity.getId(), NameConverter.toSnakeCase(entity));
+        return new ItemResponse(entity.getId(), EntityTypes.of(entity).getName(entity));
     }
 
     public static EntityResponse getEntityResponse(Game game, Entity entity) {
+        EntityType type = EntityTypes.of(entity);
         return new EntityResponse(
                 entity.getId(),
-                NameConverter.toSnakeCase(entity),
+                type.getName(entity),
                 entity.getPosition(),
-                (entity instanceof Interactable) && ((Interactable) entity).isInteractable(game.getPlayer()));
+                type.isInteractable() && ((Interactable) entity).isInteractable(game.getPlayer()));
     }
 
     public static RoundResponse getRoundResponse(BattleRound round) {
@@ -0,0 +1,9 @@
+package dungeonmania.response.models;
+
+/**
+ * What a session gets back after each action, the whole dungeon or only what changed since the version it has
+ */
+public enum ResponseMode {
+    FULL,
+    DELTA
+}
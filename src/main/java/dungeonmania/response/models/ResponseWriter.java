@@ -0,0 +1,243 @@
+package dungeonmania.response.models;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import dungeonmania.util.Position;
+
+/**
+ * ResponseWriter -- writes responses as JSON straight to a Writer, field by field
+ * The output is the same, byte for byte, as Gson's default toJson: fields in the order they are declared,
+ * null fields left out and HTML characters escaped. The escaping is left to Gson's JsonWriter.
+ * Results of any other type are handed to Gson, which writes them to the same stream.
+ */
+public final class ResponseWriter {
+    private ResponseWriter() {
+    }
+
+    /**
+     * Writes value to out as gson.toJson(value) would and flushes it, out is not closed
+     */
+    public static void write(Writer out, Object value, Gson gson) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.setHtmlSafe(true);
+        json.setSerializeNulls(false);
+        write(json, value, gson);
+        json.flush();
+    }
+
+    private static void write(JsonWriter out, Object value, Gson gson) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else if (value instanceof GenericResponseWrapper) {
+            write(out, (GenericResponseWrapper<?>) value, gson);
+        } else if (value instanceof DungeonResponse) {
+            write(out, (DungeonResponse) value);
+        } else if (value instanceof DungeonDeltaResponse) {
+            write(out, (DungeonDeltaResponse) value);
+        } else {
+            gson.toJson(value, value.getClass(), out);
+        }
+    }
+
+    private static void write(JsonWriter out, GenericResponseWrapper<?> wrapper, Gson gson) throws IOException {
+        out.beginObject();
+        if (wrapper.getResult() != null) {
+            out.name("result");
+            write(out, wrapper.getResult(), gson);
+        }
+        out.name("errorTitle").value(wrapper.getErrorTitle());
+        out.name("errorMessage").value(wrapper.getErrorMessage());
+        out.name("isError").value(wrapper.isError());
+        out.endObject();
+    }
+
+    public static void write(JsonWriter out, DungeonResponse response) throws IOException {
+        out.beginObject();
+        out.name("dungeonId").value(response.getDungeonId());
+        out.name("dungeonName").value(response.getDungeonName());
+        out.name("entities");
+        writeEntities(out, response.getEntities());
+        out.name("inventory");
+        writeItems(out, response.getInventory());
+        out.name("battles");
+        writeBattles(out, response.getBattles());
+        out.name("buildables");
+        writeStrings(out, response.getBuildables());
+        out.name("goals").value(response.getGoals());
+        out.name("animations");
+        writeAnimations(out, response.getAnimations());
+        out.name("nextBattle").value(response.getNextBattle());
+        out.endObject();
+    }
+
+    public static void write(JsonWriter out, DungeonDeltaResponse response) throws IOException {
+        out.beginObject();
+        out.name("dungeonId").value(response.getDungeonId());
+        out.name("dungeonName").value(response.getDungeonName());
+        out.name("version").value(response.getVersion());
+        out.name("baseVersion").value(response.getBaseVersion());
+        out.name("resync").value(response.isResync());
+        out.name("entities");
+        writeEntities(out, response.getEntities());
+        out.name("removed");
+        writeStrings(out, response.getRemoved());
+        out.name("inventory");
+        writeItems(out, response.getInventory());
+        out.name("battles");
+        writeBattles(out, response.getBattles());
+        out.name("buildables");
+        writeStrings(out, response.getBuildables());
+        out.name("goals").value(response.getGoals());
+        out.name("animations");
+        writeAnimations(out, response.getAnimations());
+        out.endObject();
+    }
+
+    public static void write(JsonWriter out, EntityResponse entity) throws IOException {
+        out.beginObject();
+        out.name("id").value(entity.getId());
+        out.name("type").value(entity.getType());
+        out.name("position");
+        write(out, entity.getPosition());
+        out.name("isInteractable").value(entity.isInteractable());
+        out.endObject();
+    }
+
+    public static void write(JsonWriter out, ItemResponse item) throws IOException {
+        out.beginObject();
+        out.name("id").value(item.getId());
+        out.name("type").value(item.getType());
+        out.endObject();
+    }
+
+    public static void write(JsonWriter out, BattleResponse battle) throws IOException {
+        out.beginObject();
+        out.name("enemy").value(battle.getEnemy());
+        out.name("initialPlayerHealth").value(battle.getInitialPlayerHealth());
+        out.name("initialEnemyHealth").value(battle.getInitialEnemyHealth());
+        out.name("battleItems");
+        writeItems(out, battle.getBattleItems());
+        out.name("rounds");
+        if (battle.getRounds() == null) {
+            out.nullValue();
+        } else {
+            out.beginArray();
+            for (RoundResponse round : battle.getRounds()) write(out, round);
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    public static void write(JsonWriter out, RoundResponse round) throws IOException {
+        if (round == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("deltaPlayerHealth").value(round.getDeltaCharacterHealth());
+        out.name("deltaEnemyHealth").value(round.getDeltaEnemyHealth());
+        out.endObject();
+    }
+
+    private static void write(JsonWriter out, Position position) throws IOException {
+        if (position == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("x").value(position.getX());
+        out.name("y").value(position.getY());
+        out.name("layer").value(position.getLayer());
+        out.endObject();
+    }
+
+    private static void write(JsonWriter out, AnimationQueue animation) throws IOException {
+        out.beginObject();
+        out.name("when").value(animation.getWhen());
+        out.name("entityId").value(animation.getEntityId());
+        out.name("queue");
+        writeStrings(out, animation.getQueue());
+        out.name("loop").value(animation.isLoop());
+        out.name("duration").value(animation.getDuration());
+        out.endObject();
+    }
+
+    private static void writeEntities(JsonWriter out, List<EntityResponse> entities) throws IOException {
+        if (entities == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (EntityResponse entity : entities) {
+            if (entity == null) {
+                out.nullValue();
+            } else {
+                write(out, entity);
+            }
+        }
+        out.endArray();
+    }
+
+    private static void writeItems(JsonWriter out, List<ItemResponse> items) throws IOException {
+        if (items == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (ItemResponse item : items) {
+            if (item == null) {
+                out.nullValue();
+            } else {
+                write(out, item);
+            }
+        }
+        out.endArray();
+    }
+
+    private static void writeBattles(JsonWriter out, List<BattleResponse> battles) throws IOException {
+        if (battles == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (BattleResponse battle : battles) {
+            if (battle == null) {
+                out.nullValue();
+            } else {
+                write(out, battle);
+            }
+        }
+        out.endArray();
+    }
+
+    private static void writeAnimations(JsonWriter out, List<AnimationQueue> animations) throws IOException {
+        if (animations == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (AnimationQueue animation : animations) {
+            if (animation == null) {
+                out.nullValue();
+            } else {
+                write(out, animation);
+            }
+        }
+        out.endArray();
+    }
+
+    private static void writeStrings(JsonWriter out, List<String> strings) throws IOException {
+        if (strings == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (String s : strings) out.value(s);
+        out.endArray();
+    }
+}
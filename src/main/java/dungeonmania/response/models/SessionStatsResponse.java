@@ -0,0 +1,51 @@
+package dungeonmania.response.models;
+
+import java.io.Serializable;
+
+/**
+ * How many sessions are live and how many have been created and evicted since the server started
+ */
+public class SessionStatsResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int liveSessions;
+    private long createdSessions;
+    private long idleEvictions;
+    private long lruEvictions;
+    private int maxSessions;
+    private long idleTtlSeconds;
+
+    public SessionStatsResponse(int liveSessions, long createdSessions, long idleEvictions, long lruEvictions,
+            int maxSessions, long idleTtlSeconds) {
+        this.liveSessions = liveSessions;
+        this.createdSessions = createdSessions;
+        this.idleEvictions = idleEvictions;
+        this.lruEvictions = lruEvictions;
+        this.maxSessions = maxSessions;
+        this.idleTtlSeconds = idleTtlSeconds;
+    }
+
+    public int getLiveSessions() {
+        return liveSessions;
+    }
+
+    public long getCreatedSessions() {
+        return createdSessions;
+    }
+
+    public long getIdleEvictions() {
+        return idleEvictions;
+    }
+
+    public long getLruEvictions() {
+        return lruEvictions;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public long getIdleTtlSeconds() {
+        return idleTtlSeconds;
+    }
+}
@@ -0,0 +1,43 @@
+package dungeonmania.saves;
+
+/**
+ * SaveSlot -- what the save index knows about one save without opening it
+ */
+public final class SaveSlot {
+    private final String name;
+    private final String dungeonName;
+    private final int tick;
+    private final long length;
+    private final long savedAt;
+
+    public SaveSlot(String name, String dungeonName, int tick, long length, long savedAt) {
+        this.name = name;
+        this.dungeonName = dungeonName;
+        this.tick = tick;
+        this.length = length;
+        this.savedAt = savedAt;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDungeonName() {
+        return dungeonName;
+    }
+
+    /**
+     * -1 for saves the index could not read a header from
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getSavedAt() {
+        return savedAt;
+    }
+}
@@ -0,0 +1,171 @@
+package dungeonmania.saves;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import dungeonmania.Game;
+import dungeonmania.codec.GameCodec;
+
+/**
+ * SaveSlotStore -- the saves in one directory
+ * Every save is a single `<name>.save` file holding a GameCodec encoding, written and read through a memory
+ * mapping. Next to them `slots.index` lists every slot with its dungeon name and tick, so listing the saves
+ * never opens a payload.
+ *
+ * The index is rebuilt from the directory when it is missing, files without the .save suffix are taken to be
+ * saves from before slots existed and can still be loaded by name.
+ */
+public class SaveSlotStore {
+    public static final String SUFFIX = ".save";
+    public static final String INDEX = "slots.index";
+    private static final int INDEX_MAGIC = 0x444d5349; // "DMSI"
+    private static final short INDEX_VERSION = 1;
+
+    private final Path directory;
+    private Map<String, SaveSlot> slots = null;
+
+    public SaveSlotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public synchronized void save(String name, Game game) throws IOException {
+        Files.createDirectories(directory);
+        byte[] data = GameCodec.encode(game);
+        try (FileChannel channel = FileChannel.open(slotPath(name), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, data.length);
+            buffer.put(data);
+            buffer.force();
+        }
+        index().put(name, new SaveSlot(name, game.getName(), game.getTick(), data.length,
+            System.currentTimeMillis()));
+        writeIndex();
+    }
+
+    public synchronized Game load(String name) throws IOException, ClassNotFoundException {
+        Path path = slotPath(name);
+        if (!Files.exists(path)) path = directory.resolve(name);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (isEncoded(buffer)) {
+                return GameCodec.read(new DataInputStream(new ByteBufferInputStream(buffer)));
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(buffer))) {
+                return (Game) in.readObject();
+            }
+        }
+    }
+
+    public synchronized List<SaveSlot> getSlots() throws IOException {
+        return new ArrayList<>(index().values());
+    }
+
+    public synchronized List<String> getNames() throws IOException {
+        return index().values().stream().map(SaveSlot::getName).collect(Collectors.toList());
+    }
+
+    private Path slotPath(String name) {
+        return directory.resolve(name + SUFFIX);
+    }
+
+    private Map<String, SaveSlot> index() throws IOException {
+        if (slots != null) return slots;
+        try {
+            slots = readIndex();
+        } catch (NoSuchFileException | EOFException e) {
+            slots = scan();
+            if (!slots.isEmpty()) writeIndex();
+        }
+        return slots;
+    }
+
+    private Map<String, SaveSlot> readIndex() throws IOException {
+        Map<String, SaveSlot> index = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(directory.resolve(INDEX), StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(new ByteBufferInputStream(
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+            if (in.readInt() != INDEX_MAGIC || in.readShort() != INDEX_VERSION) return scan();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                SaveSlot slot = new SaveSlot(in.readUTF(), in.readUTF(), in.readInt(), in.readLong(), in.readLong());
+                index.put(slot.getName(), slot);
+            }
+        }
+        return index;
+    }
+
+    private void writeIndex() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeShort(INDEX_VERSION);
+            out.writeInt(slots.size());
+            for (SaveSlot slot : slots.values()) {
+                out.writeUTF(slot.getName());
+                out.writeUTF(slot.getDungeonName());
+                out.writeInt(slot.getTick());
+                out.writeLong(slot.getLength());
+                out.writeLong(slot.getSavedAt());
+            }
+        }
+        Path temp = Files.createTempFile(directory, INDEX, ".tmp");
+        Files.write(temp, bytes.toByteArray());
+        Files.move(temp, directory.resolve(INDEX), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Only the header of each save is read, everything past the tick is never paged in
+     */
+    private Map<String, SaveSlot> scan() throws IOException {
+        Map<String, SaveSlot> index = new LinkedHashMap<>();
+        File[] files = directory.toFile().listFiles();
+        if (files == null) return index;
+        for (File file : files) {
+            String fileName = file.getName();
+            if (!file.isFile() || fileName.startsWith(".") || fileName.startsWith(INDEX)) continue;
+            String name = fileName.endsWith(SUFFIX)
+                ? fileName.substring(0, fileName.length() - SUFFIX.length())
+                : fileName;
+            SaveSlot slot = new SaveSlot(name, "", -1, file.length(), file.lastModified());
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (isEncoded(buffer)) {
+                    Game header = GameCodec.readHeader(new DataInputStream(new ByteBufferInputStream(buffer)));
+                    slot = new SaveSlot(name, header.getName(), header.getTick(), file.length(), file.lastModified());
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            // a slot file wins over a legacy file of the same name
+            if (fileName.endsWith(SUFFIX) || !index.containsKey(name)) index.put(name, slot);
+        }
+        return index;
+    }
+
+    private static boolean isEncoded(ByteBuffer buffer) {
+        return buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == GameCodec.MAGIC;
+    }
+}
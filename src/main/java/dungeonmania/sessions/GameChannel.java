@@ -0,0 +1,157 @@
+package dungeonmania.sessions;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.response.models.DungeonDeltaResponse;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.GenericResponseWrapper;
+import dungeonmania.response.models.ResponseMode;
+import dungeonmania.response.models.ResponseWriter;
+
+/**
+ * GameChannel -- one open socket to a session's game
+ * Commands come in as frames of one letter followed by its argument:
+ *   m[UDLRN]      move up, down, left, right or stay put
+ *   u[itemId]     use an item
+ *   b[buildable]  build
+ *   i[entityId]   interact
+ *   r[ticks]      rewind
+ *   s             send the state again
+ * all but the last are run by DungeonManiaController.command.
+ * Each command runs on the session's mailbox, in order with the session's REST requests, and the state after it
+ * is pushed back as the same JSON the REST routes answer with.
+ * The channel remembers what it last pushed, so only battles fought since then are sent and a session in
+ * delta mode is sent what changed since the last push.
+ *
+ * Frames are built on the session's mailbox but pushed from a mailbox of the writers executor, in the order they
+ * were built, so a client that is slow to read only holds up its own pushes and never a session worker.
+ * When too many pushes are waiting for it the new ones are dropped and the next push after that is the whole state.
+ */
+public class GameChannel {
+    private final GameSession session;
+    private final SessionExecutor executor;
+    private final Gson gson;
+    private final SessionExecutor writers;
+    private final SessionExecutor.Mailbox pushes;
+    private final Consumer<String> push;
+
+    // only touched on the mailbox
+    private int version = -1;
+    private int nextBattle = 0;
+    // set when a push was dropped, the client no longer has what version and nextBattle say it has
+    private volatile boolean resync = false;
+
+    public GameChannel(GameSession session, SessionExecutor executor, SessionExecutor writers, Gson gson,
+     Consumer<String> push) {
+        this.session = session;
+        this.executor = executor;
+        this.writers = writers;
+        this.pushes = writers.newMailbox();
+        this.gson = gson;
+        this.push = push;
+    }
+
+    /**
+     * Pushes the state of the game the session is already playing, if there is one
+     */
+    public CompletableFuture<Void> open() {
+        return submit(dmc -> {
+            if (dmc.getGame() == null) return null;
+            return state(dmc);
+        });
+    }
+
+    public CompletableFuture<Void> receive(String frame) {
+        return submit(dmc -> {
+            if (frame == null || frame.isEmpty()) throw new IllegalArgumentException("Empty frame");
+            if (frame.equals("s")) {
+                forgetPushed();
+            } else {
+                dmc.command(frame);
+            }
+            return state(dmc);
+        });
+    }
+
+    /**
+     * What changed since the last push in delta mode, otherwise the whole dungeon with only the battles since then
+     */
+    private Object state(DungeonManiaController dmc) {
+        if (resync) forgetPushed();
+        if (dmc.getResponseMode() == ResponseMode.DELTA) {
+            DungeonDeltaResponse delta = dmc.getDeltaResponse(version);
+            version = delta.getVersion();
+            return delta;
+        }
+        dmc.setBattleCursor(nextBattle);
+        DungeonResponse response = dmc.getDungeonResponseModel();
+        if (response.getNextBattle() < nextBattle) {
+            // a loaded game numbers its battles from 0 again
+            dmc.setBattleCursor(0);
+            response = dmc.getDungeonResponseModel();
+        }
+        nextBattle = response.getNextBattle();
+        return response;
+    }
+
+    private void forgetPushed() {
+        resync = false;
+        version = -1;
+        nextBattle = 0;
+    }
+
+    /**
+     * Runs command on the session's mailbox, the future completes once what it answered has been pushed
+     */
+    private CompletableFuture<Void> submit(Command command) {
+        return executor.<CompletableFuture<Void>>submit(session.getMailbox(), () -> {
+            DungeonManiaController dmc = session.getController();
+            // the REST routes set their own cursor on every request, the channel's goes in before its command
+            dmc.setBattleCursor(nextBattle);
+            GenericResponseWrapper<Object> response;
+            try {
+                Object result = command.run(dmc);
+                if (result == null) return CompletableFuture.completedFuture(null);
+                response = GenericResponseWrapper.ok(result);
+            } catch (IllegalArgumentException | InvalidActionException e) {
+                response = GenericResponseWrapper.err(e);
+            }
+            // queued while still on the mailbox, so pushes go out in the order the commands ran
+            return send(response);
+        }).exceptionally(e -> {
+            // the mailbox was full or the command failed in a way the REST routes would also report
+            return send(GenericResponseWrapper.err(e instanceof Exception ? (Exception) e : new RuntimeException(e)));
+        }).thenCompose(pushed -> pushed);
+    }
+
+    private CompletableFuture<Void> send(GenericResponseWrapper<?> response) {
+        StringWriter out = new StringWriter();
+        try {
+            ResponseWriter.write(out, response, gson);
+        } catch (IOException e) {
+            // a StringWriter doesn't throw
+            throw new IllegalStateException(e);
+        }
+        String frame = out.toString();
+        return writers.<Void>submit(pushes, () -> {
+            push.accept(frame);
+            return null;
+        }).exceptionally(e -> {
+            // too many pushes were waiting or the push failed, either way this frame is lost
+            resync = true;
+            return null;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Command {
+        Object run(DungeonManiaController dmc) throws InvalidActionException;
+    }
+}
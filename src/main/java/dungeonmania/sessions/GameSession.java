@@ -0,0 +1,44 @@
+package dungeonmania.sessions;
+
+import java.net.HttpCookie;
+import java.util.List;
+
+import dungeonmania.DungeonManiaController;
+
+/**
+ * GameSession -- the game a session is playing and the mailbox its commands run on
+ * Anything touching the controller has to be submitted to the mailbox, that is what keeps it to one thread at a time.
+ */
+public class GameSession {
+    public static final String SESSION_COOKIE = "JSESSIONID";
+
+    private final DungeonManiaController controller = new DungeonManiaController();
+    private final SessionExecutor.Mailbox mailbox;
+
+    public GameSession(SessionExecutor executor) {
+        this.mailbox = executor.newMailbox();
+    }
+
+    public DungeonManiaController getController() {
+        return controller;
+    }
+
+    public SessionExecutor.Mailbox getMailbox() {
+        return mailbox;
+    }
+
+    /**
+     * The id the REST routes know a session by, read from the session cookie, null when there is none
+     * Jetty's cookie holds the session id followed by the worker the session lives on, e.g. node0abc.node0,
+     * while the REST routes are keyed by the session id alone, so everything from the first dot is dropped
+     */
+    public static String idFromCookies(List<HttpCookie> cookies) {
+        if (cookies == null) return null;
+        for (HttpCookie cookie : cookies) {
+            if (!cookie.getName().equals(SESSION_COOKIE) || cookie.getValue().isEmpty()) continue;
+            int worker = cookie.getValue().indexOf('.');
+            return worker < 0 ? cookie.getValue() : cookie.getValue().substring(0, worker);
+        }
+        return null;
+    }
+}
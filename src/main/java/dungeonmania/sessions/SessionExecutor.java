@@ -0,0 +1,165 @@
+package dungeonmania.sessions;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import dungeonmania.response.models.MailboxStatsResponse;
+
+/**
+ * SessionExecutor -- runs the commands of each session one at a time, in the order they were submitted,
+ * on a fixed pool of worker threads
+ * Every session has a Mailbox. A mailbox with commands in it is queued on the pool once, the worker that picks
+ * it up runs at most batchSize of its commands and then queues it again behind the other sessions,
+ * so a session sending commands nonstop only ever holds one worker and only for batchSize commands at a time.
+ * A mailbox holds at most mailboxCapacity commands, submitting to a full one fails straight away.
+ */
+public class SessionExecutor {
+    public static final int DEFAULT_MAILBOX_CAPACITY = 64;
+    public static final int DEFAULT_BATCH_SIZE = 4;
+
+    private final ExecutorService workers;
+    private final int threads;
+    private final int mailboxCapacity;
+    private final int batchSize;
+
+    private final AtomicInteger queued = new AtomicInteger(0);
+    private final AtomicInteger maxDepth = new AtomicInteger(0);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong(0);
+
+    public SessionExecutor() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAILBOX_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    public SessionExecutor(int threads, int mailboxCapacity, int batchSize) {
+        this.threads = Math.max(1, threads);
+        this.mailboxCapacity = Math.max(1, mailboxCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        AtomicInteger count = new AtomicInteger(0);
+        this.workers = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread thread = new Thread(r, "session-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Mailbox newMailbox() {
+        return new Mailbox();
+    }
+
+    /**
+     * Queues command on mailbox, the future completes with what it returns or throws once a worker has run it
+     * The future fails with a RejectedExecutionException if the mailbox is full.
+     * It completes on the worker, so stages depending on it run there too and must not block, anything that does
+     * I/O belongs on another executor, e.g. a second SessionExecutor as App and GameChannel use for writing.
+     */
+    public <T> CompletableFuture<T> submit(Mailbox mailbox, Supplier<T> command) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        int depth = mailbox.size.incrementAndGet();
+        if (depth > mailboxCapacity) {
+            mailbox.size.decrementAndGet();
+            rejected.increment();
+            future.completeExceptionally(new RejectedExecutionException(
+                "Too many commands queued for this session, try again once some have finished"));
+            return future;
+        }
+        maxDepth.accumulateAndGet(depth, Math::max);
+        queued.incrementAndGet();
+        mailbox.commands.add(new Command<>(command, future, System.nanoTime()));
+        if (mailbox.scheduled.compareAndSet(false, true)) workers.execute(() -> drain(mailbox));
+        return future;
+    }
+
+    private void drain(Mailbox mailbox) {
+        for (int i = 0; i < batchSize; i++) {
+            Command<?> command = mailbox.commands.poll();
+            if (command == null) break;
+            queued.decrementAndGet();
+            long waited = System.nanoTime() - command.submitted;
+            waitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            command.run();
+            // counted before the future completes so whoever is waiting on it sees room in the mailbox
+            mailbox.size.decrementAndGet();
+            completed.increment();
+            command.complete();
+        }
+        mailbox.scheduled.set(false);
+        // a command submitted after the last poll saw scheduled still set, so it is up to this worker to queue it
+        if (!mailbox.commands.isEmpty() && mailbox.scheduled.compareAndSet(false, true)) {
+            workers.execute(() -> drain(mailbox));
+        }
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    public MailboxStatsResponse getStats() {
+        long count = completed.sum();
+        return new MailboxStatsResponse(threads, mailboxCapacity, queued.get(), maxDepth.get(), count,
+            rejected.sum(), count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(waitNanos.sum() / count),
+            TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()));
+    }
+
+    /**
+     * The commands of one session waiting to run
+     */
+    public static final class Mailbox {
+        private final Queue<Command<?>> commands = new ConcurrentLinkedQueue<>();
+        // queued plus running, what the capacity is checked against
+        private final AtomicInteger size = new AtomicInteger(0);
+        // whether the mailbox is queued on or being drained by a worker
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private Mailbox() {
+        }
+
+        public int size() {
+            return size.get();
+        }
+    }
+
+    private static final class Command<T> {
+        private final Supplier<T> command;
+        private final CompletableFuture<T> future;
+        private final long submitted;
+        private T result;
+        private Throwable error;
+
+        private Command(Supplier<T> command, CompletableFuture<T> future, long submitted) {
+            this.command = command;
+            this.future = future;
+            this.submitted = submitted;
+        }
+
+        private void run() {
+            try {
+                result = command.get();
+            } catch (Throwable e) {
+                // whoever is waiting on the future has to hear about it, and the worker has to move on
+                error = e;
+            }
+        }
+
+        private void complete() {
+            if (error == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(error);
+            }
+        }
+    }
+}
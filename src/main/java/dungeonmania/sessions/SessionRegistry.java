@@ -0,0 +1,156 @@
+package dungeonmania.sessions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import dungeonmania.response.models.SessionStatsResponse;
+
+/**
+ * SessionRegistry -- what each session is playing, looked up without a global lock
+ * Sessions live in a ConcurrentHashMap, so a lookup only ever contends with a new session hashing to the same bin.
+ *
+ * Sessions not used for idleTtl are evicted, and once there are more than maxSessions the least recently used
+ * ones are evicted until there are maxSessions again. Eviction is a sweep over the map that at most one request
+ * runs at a time, it is started every sweepInterval or as soon as the map grows past maxSessions,
+ * any other request that would start one carries on without waiting.
+ * A request still holding an evicted session finishes with it, the next request for it starts a new one.
+ */
+public class SessionRegistry<T> {
+    public static final long DEFAULT_IDLE_TTL = TimeUnit.MINUTES.toNanos(30);
+    public static final int DEFAULT_MAX_SESSIONS = 10000;
+
+    private final ConcurrentHashMap<String, Session<T>> sessions = new ConcurrentHashMap<>();
+    private final Supplier<T> factory;
+    private final long idleTtl;
+    private final int maxSessions;
+    private final long sweepInterval;
+    private final LongSupplier clock;
+
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+    private final AtomicLong lastSweep;
+    private final LongAdder created = new LongAdder();
+    private final LongAdder idleEvictions = new LongAdder();
+    private final LongAdder lruEvictions = new LongAdder();
+
+    public SessionRegistry(Supplier<T> factory) {
+        this(factory, DEFAULT_IDLE_TTL, DEFAULT_MAX_SESSIONS, System::nanoTime);
+    }
+
+    /**
+     * clock and idleTtl are in nanoseconds, an idleTtl below 1 never evicts idle sessions
+     */
+    public SessionRegistry(Supplier<T> factory, long idleTtl, int maxSessions, LongSupplier clock) {
+        this.factory = factory;
+        this.idleTtl = idleTtl;
+        this.maxSessions = Math.max(1, maxSessions);
+        // sweeping a few times per ttl keeps sessions from outliving it by much
+        this.sweepInterval = idleTtl > 0 ? Math.max(1, idleTtl / 4) : Long.MAX_VALUE;
+        this.clock = clock;
+        this.lastSweep = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * The value for session id, a new one if it has none or it was evicted
+     */
+    public T get(String id) {
+        long now = clock.getAsLong();
+        Session<T> session = sessions.get(id);
+        if (session == null) {
+            session = sessions.computeIfAbsent(id, k -> {
+                created.increment();
+                return new Session<>(factory.get(), now);
+            });
+        }
+        session.lastUsed = now;
+        if (sessions.size() > maxSessions || now - lastSweep.get() >= sweepInterval) sweep(now);
+        return session.value;
+    }
+
+    /**
+     * The value for session id if it has one, without creating or touching it
+     */
+    public T peek(String id) {
+        Session<T> session = sessions.get(id);
+        return session == null ? null : session.value;
+    }
+
+    public void remove(String id) {
+        sessions.remove(id);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Runs action on the value of every live session, sessions created or evicted meanwhile may be missed
+     */
+    public void forEach(Consumer<T> action) {
+        for (Session<T> session : sessions.values()) action.accept(session.value);
+    }
+
+    /**
+     * Evicts idle sessions then, while there are too many, the least recently used ones
+     * Does nothing if another request is already sweeping.
+     */
+    public void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) return;
+        try {
+            lastSweep.set(now);
+            List<Map.Entry<String, Session<T>>> live = new ArrayList<>(sessions.size());
+            for (Map.Entry<String, Session<T>> entry : sessions.entrySet()) {
+                Session<T> session = entry.getValue();
+                if (idleTtl > 0 && now - session.lastUsed >= idleTtl) {
+                    // only the session that was seen idle, a request may have just replaced it
+                    if (sessions.remove(entry.getKey(), session)) idleEvictions.increment();
+                } else {
+                    live.add(entry);
+                }
+            }
+
+            int excess = live.size() - maxSessions;
+            if (excess <= 0) return;
+            // lastUsed can move while sorting, so sort on a copy of it
+            long[] lastUsed = new long[live.size()];
+            Integer[] order = new Integer[live.size()];
+            for (int i = 0; i < order.length; i++) {
+                lastUsed[i] = live.get(i).getValue().lastUsed;
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingLong(i -> lastUsed[i]));
+            for (int i = 0; i < excess; i++) {
+                Map.Entry<String, Session<T>> entry = live.get(order[i]);
+                if (sessions.remove(entry.getKey(), entry.getValue())) lruEvictions.increment();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public SessionStatsResponse getStats() {
+        return new SessionStatsResponse(sessions.size(), created.sum(), idleEvictions.sum(), lruEvictions.sum(),
+            maxSessions, TimeUnit.NANOSECONDS.toSeconds(idleTtl));
+    }
+
+    private static final class Session<T> {
+        private final T value;
+        // written by every request for the session, a stale read only makes eviction a little early or late
+        private volatile long lastUsed;
+
+        private Session(T value, long lastUsed) {
+            this.value = value;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package dungeonmania.snapshots;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dungeonmania.entities.Entity;
+
+/**
+ * Copies the instance fields of an entity in and out of a flat array,
+ * so a delta can overwrite an entity in place and keep every reference to it valid
+ */
+final class EntityState {
+    private static final Map<Class<?>, List<Field>> FIELDS = new ConcurrentHashMap<>();
+
+    private EntityState() { }
+
+    static Object[] capture(Entity entity) {
+        List<Field> fields = fieldsOf(entity.getClass());
+        Object[] values = new Object[fields.size()];
+        try {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = fields.get(i).get(entity);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return values;
+    }
+
+    static void restore(Entity entity, Object[] values) {
+        List<Field> fields = fieldsOf(entity.getClass());
+        try {
+            for (int i = 0; i < values.length; i++) {
+                fields.get(i).set(entity, values[i]);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Field> fieldsOf(Class<?> clazz) {
+        return FIELDS.computeIfAbsent(clazz, c -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> k = c; k != Object.class; k = k.getSuperclass()) {
+                for (Field f : k.getDeclaredFields()) {
+                    int mod = f.getModifiers();
+                    if (Modifier.isStatic(mod) || Modifier.isTransient(mod)) continue;
+                    f.setAccessible(true);
+                    fields.add(f);
+                }
+            }
+            return fields;
+        });
+    }
+}
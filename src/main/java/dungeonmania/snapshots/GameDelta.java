@@ -0,0 +1,138 @@
+package dungeonmania.snapshots;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import dungeonmania.Game;
+import dungeonmania.TickScheduler;
+import dungeonmania.battles.BattleLog;
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.EntityFactory;
+import dungeonmania.map.GameMap;
+import dungeonmania.map.GraphNode;
+import dungeonmania.map.MapChanges;
+import dungeonmania.util.Position;
+
+/**
+ * A GameDelta holds what changed in a game since the previous snapshot:
+ * 1. entities added to the map (by value)
+ * 2. ids of entities removed from the map
+ * 3. the fields of every entity that changed, including the player
+ * 4. the contents of every cell that changed
+ * 5. the game counters, battles fought since and the callbacks if they were touched
+ */
+final class GameDelta {
+    private GameDelta() { }
+
+    static byte[] capture(Game game, int battlesSeen, boolean subscriptionsChanged) throws IOException {
+        GameMap map = game.getMap();
+        MapChanges changes = map.getChanges();
+        Set<Entity> added = changes.getAdded();
+
+        List<Entity> changed = new ArrayList<>();
+        changes.getChanged().stream().filter(e -> SnapshotRef.isShared(game, e)).forEach(changed::add);
+        if (game.getPlayer() != null && !changed.contains(game.getPlayer()) && !added.contains(game.getPlayer()))
+            changed.add(game.getPlayer());
+
+        List<String> removed = new ArrayList<>();
+        changes.getRemoved().forEach(e -> removed.add(e.getId()));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SnapshotOutputStream out = new SnapshotOutputStream(bytes, game, added)) {
+            out.writeObject(new ArrayList<>(added));
+            out.writeObject(removed);
+
+            out.writeInt(changed.size());
+            for (Entity e : changed) {
+                out.writeObject(e);
+                out.writeObject(EntityState.capture(e));
+            }
+
+            out.writeInt(changes.getCells().size());
+            for (Position p : changes.getCells()) {
+                GraphNode node = map.getNode(p);
+                out.writeObject(p);
+                out.writeObject(node == null ? null : new ArrayList<>(node.getEntities()));
+                out.writeInt(node == null ? 1 : node.getWeight());
+            }
+
+            out.writeInt(game.getTick());
+            out.writeInt(game.getEnemiesDestroyed());
+            out.writeInt(game.getInitialTreasureCount());
+            out.writeObject(game.getId());
+            out.writeObject(game.getEntityFactory());
+
+            out.writeObject(new ArrayList<>(game.getBattleFacade().getBattleLog().since(battlesSeen)));
+
+            out.writeBoolean(subscriptionsChanged);
+            if (subscriptionsChanged) {
+                out.writeObject(game.getScheduler());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    static void apply(Game game, byte[] delta) throws IOException, ClassNotFoundException {
+        GameMap map = game.getMap();
+        try (SnapshotInputStream in = new SnapshotInputStream(new ByteArrayInputStream(delta), game)) {
+            // every reference in the stream resolves against the game as it was before this delta
+            List<Entity> added = (List<Entity>) in.readObject();
+            List<String> removed = (List<String>) in.readObject();
+
+            int changedCount = in.readInt();
+            List<Entity> changed = new ArrayList<>();
+            List<Object[]> states = new ArrayList<>();
+            for (int i = 0; i < changedCount; i++) {
+                changed.add((Entity) in.readObject());
+                states.add((Object[]) in.readObject());
+            }
+
+            int cellCount = in.readInt();
+            List<Position> cells = new ArrayList<>();
+            List<List<Entity>> cellEntities = new ArrayList<>();
+            List<Integer> cellWeights = new ArrayList<>();
+            for (int i = 0; i < cellCount; i++) {
+                cells.add((Position) in.readObject());
+                cellEntities.add((List<Entity>) in.readObject());
+                cellWeights.add(in.readInt());
+            }
+
+            int tick = in.readInt();
+            int enemiesDestroyed = in.readInt();
+            int initialTreasureCount = in.readInt();
+            String id = (String) in.readObject();
+            EntityFactory factory = (EntityFactory) in.readObject();
+            List<BattleLog.Battle> battles = (List<BattleLog.Battle>) in.readObject();
+
+            boolean subscriptionsChanged = in.readBoolean();
+            TickScheduler scheduler = subscriptionsChanged ? (TickScheduler) in.readObject() : null;
+
+            removed.forEach(entityId -> {
+                Entity e = map.getEntity(entityId);
+                if (e != null) map.forgetEntity(e);
+            });
+            added.forEach(map::restoreEntity);
+            for (int i = 0; i < changed.size(); i++) {
+                EntityState.restore(changed.get(i), states.get(i));
+            }
+            for (int i = 0; i < cells.size(); i++) {
+                map.restoreNode(cells.get(i), cellEntities.get(i), cellWeights.get(i));
+            }
+
+            game.setTickCount(tick);
+            game.setEnemiesDestroyed(enemiesDestroyed);
+            game.setInitialTreasureCount(initialTreasureCount);
+            game.setId(id);
+            game.setEntityFactory(factory);
+            game.getBattleFacade().getBattleLog().addAll(battles);
+            if (subscriptionsChanged) {
+                game.setScheduler(scheduler);
+            }
+        }
+    }
+}
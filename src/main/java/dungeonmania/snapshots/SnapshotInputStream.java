@@ -0,0 +1,27 @@
+package dungeonmania.snapshots;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+
+import dungeonmania.Game;
+
+/**
+ * Reads what SnapshotOutputStream wrote, pointing every SnapshotRef back at the live objects of a game
+ */
+class SnapshotInputStream extends ObjectInputStream {
+    private final Game game;
+
+    SnapshotInputStream(InputStream in, Game game) throws IOException {
+        super(in);
+        this.game = game;
+        enableResolveObject(true);
+    }
+
+    @Override
+    protected Object resolveObject(Object obj) {
+        if (obj instanceof SnapshotRef)
+            return ((SnapshotRef) obj).resolve(game);
+        return obj;
+    }
+}
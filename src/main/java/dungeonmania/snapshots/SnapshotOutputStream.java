@@ -0,0 +1,36 @@
+package dungeonmania.snapshots;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Set;
+
+import dungeonmania.Game;
+import dungeonmania.entities.Entity;
+
+/**
+ * Writes objects belonging to a game, replacing the game, its map and every registered entity
+ * (other than the ones listed in byValue) with a SnapshotRef
+ */
+class SnapshotOutputStream extends ObjectOutputStream {
+    private final Game game;
+    private final Set<Entity> byValue;
+
+    SnapshotOutputStream(OutputStream out, Game game, Set<Entity> byValue) throws IOException {
+        super(out);
+        this.game = game;
+        this.byValue = byValue;
+        enableReplaceObject(true);
+    }
+
+    @Override
+    protected Object replaceObject(Object obj) {
+        if (obj == game)
+            return SnapshotRef.game();
+        if (obj == game.getMap())
+            return SnapshotRef.map();
+        if (obj instanceof Entity && !byValue.contains(obj) && SnapshotRef.isShared(game, (Entity) obj))
+            return SnapshotRef.entity((Entity) obj);
+        return obj;
+    }
+}
@@ -0,0 +1,61 @@
+package dungeonmania.snapshots;
+
+import java.io.Serializable;
+
+import dungeonmania.Game;
+import dungeonmania.entities.Entity;
+
+/**
+ * Stands in for the game, the map or an entity that already exists in the game a delta is applied to,
+ * so a delta never carries copies of objects it did not change
+ */
+class SnapshotRef implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int GAME = 0;
+    private static final int MAP = 1;
+    private static final int ENTITY = 2;
+
+    private final int kind;
+    private final String entityId;
+
+    private SnapshotRef(int kind, String entityId) {
+        this.kind = kind;
+        this.entityId = entityId;
+    }
+
+    static SnapshotRef game() {
+        return new SnapshotRef(GAME, null);
+    }
+
+    static SnapshotRef map() {
+        return new SnapshotRef(MAP, null);
+    }
+
+    static SnapshotRef entity(Entity entity) {
+        return new SnapshotRef(ENTITY, entity.getId());
+    }
+
+    /**
+     * An entity is shared (and so written as a reference) if the game can find it again by id
+     */
+    static boolean isShared(Game game, Entity entity) {
+        return entity == game.getPlayer() || game.getMap().getEntity(entity.getId()) == entity;
+    }
+
+    Object resolve(Game game) {
+        switch (kind) {
+        case GAME:
+            return game;
+        case MAP:
+            return game.getMap();
+        default:
+            if (game.getPlayer() != null && game.getPlayer().getId().equals(entityId))
+                return game.getPlayer();
+            Entity entity = game.getMap().getEntity(entityId);
+            if (entity == null)
+                throw new IllegalStateException("Snapshot refers to missing entity " + entityId);
+            return entity;
+        }
+    }
+}
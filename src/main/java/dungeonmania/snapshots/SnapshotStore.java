@@ -0,0 +1,266 @@
+package dungeonmania.snapshots;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import dungeonmania.Game;
+import dungeonmania.metrics.Histogram;
+import dungeonmania.metrics.Metrics;
+import dungeonmania.response.models.HistoryResponse;
+
+/**
+ * SnapshotStore -- the rewind history of a game, one snapshot per game tick
+ * Every keyframeInterval-th snapshot (and the first one after the game is swapped out) is a full
+ * serialized copy of the game, the ones in between only hold a GameDelta against the snapshot before them.
+ *
+ * Snapshots live in a ring buffer that only covers the last `retention` ticks, whole keyframe groups are
+ * dropped once they fall out of that window. Keyframes other than the newest one can optionally be spilled
+ * to temporary files to take them off the heap.
+ */
+public class SnapshotStore {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 10;
+    // a time travelling portal sends the player 30 ticks back
+    public static final int DEFAULT_RETENTION = 30;
+    private static final String SNAPSHOT_BYTES = "dungeonmania_snapshot_bytes";
+    private static final Histogram KEYFRAME_BYTES = Metrics.histogram(SNAPSHOT_BYTES, "Size of each snapshot taken",
+        "kind", "keyframe");
+    private static final Histogram DELTA_BYTES = Metrics.histogram(SNAPSHOT_BYTES, "Size of each snapshot taken",
+        "kind", "delta");
+
+    private final int keyframeInterval;
+    private final int retention;
+    private final boolean spillKeyframes;
+
+    // snapshot i of the ring holds the game as it was at tick firstTick + i
+    private final Snapshot[] ring;
+    private int head = 0;
+    private int size = 0;
+    private int firstTick = 0;
+
+    // what the newest snapshot was taken from
+    private Game lastGame = null;
+    private int battlesSeen = 0;
+    private int subscriptionVersion = 0;
+    private int sinceKeyframe = 0;
+
+    public SnapshotStore() {
+        this(DEFAULT_RETENTION, DEFAULT_KEYFRAME_INTERVAL, false);
+    }
+
+    public SnapshotStore(int retention, int keyframeInterval, boolean spillKeyframes) {
+        this.retention = Math.max(1, retention);
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+        this.spillKeyframes = spillKeyframes;
+        // evicting whole keyframe groups keeps at most retention + keyframeInterval snapshots
+        this.ring = new Snapshot[this.retention + this.keyframeInterval + 1];
+    }
+
+    /**
+     * Store the game as it is at its current tick
+     * 1. a tick at or before the newest snapshot means the timeline changed (rewind, build, new game),
+     *    so everything from that tick on is dropped
+     * 2. store a keyframe or a delta
+     * 3. drop keyframe groups that are no longer needed to reach back `retention` ticks
+     * if this throws before the snapshot is stored, the changes are carried over to the next call
+     */
+    public void save(Game game) throws IOException {
+        int tick = game.getTick();
+        if (size > 0 && (tick < firstTick || tick > newestTick() + 1)) {
+            clear();
+        } else if (size > 0 && tick <= newestTick()) {
+            while (newestTick() >= tick) {
+                ring[slot(size - 1)].discard();
+                ring[slot(size - 1)] = null;
+                size--;
+            }
+            lastGame = null;
+        }
+
+        boolean keyframe = size == 0 || game != lastGame || sinceKeyframe + 1 >= keyframeInterval;
+        byte[] data;
+        if (keyframe) {
+            game.getMap().getChanges().clear();
+            data = serialize(game);
+        } else {
+            data = GameDelta.capture(game, battlesSeen, game.getSubscriptionVersion() != subscriptionVersion);
+        }
+        (keyframe ? KEYFRAME_BYTES : DELTA_BYTES).record(data.length);
+
+        if (size == 0) firstTick = tick;
+        ring[slot(size)] = new Snapshot(keyframe, data);
+        size++;
+        game.getMap().getChanges().clear();
+        lastGame = game;
+        battlesSeen = game.getBattleFacade().getBattleLog().getNext();
+        subscriptionVersion = game.getSubscriptionVersion();
+        sinceKeyframe = keyframe ? 0 : sinceKeyframe + 1;
+
+        evict();
+        if (spillKeyframes && keyframe) spillOlderKeyframes();
+    }
+
+    /**
+     * Rebuild the game as it was at the given tick, the returned game shares nothing with the store
+     * ticks that fell out of the retention window can't be rebuilt any more
+     */
+    public Game get(int tick) throws IllegalArgumentException {
+        if (size == 0 || tick > newestTick())
+            throw new IndexOutOfBoundsException(String.format("No snapshot at tick %d", tick));
+        if (tick < firstTick) {
+            throw new IllegalArgumentException(String.format(
+                "Can't rewind to tick %d, the history only goes back to tick %d", tick, firstTick));
+        }
+
+        int index = tick - firstTick;
+        int keyframe = index;
+        while (!ring[slot(keyframe)].isKeyframe()) keyframe--;
+        try {
+            Game game = deserialize(ring[slot(keyframe)].load());
+            for (int i = keyframe + 1; i <= index; i++) {
+                GameDelta.apply(game, ring[slot(i)].load());
+            }
+            return game;
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("Snapshot could not be restored", e);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The oldest tick that can still be rebuilt, -1 when there is none
+     */
+    public int getOldestTick() {
+        return size == 0 ? -1 : firstTick;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            ring[slot(i)].discard();
+            ring[slot(i)] = null;
+        }
+        head = 0;
+        size = 0;
+        lastGame = null;
+        sinceKeyframe = 0;
+    }
+
+    public HistoryResponse getStats() {
+        int keyframes = 0;
+        int spilled = 0;
+        long heapBytes = 0;
+        long spilledBytes = 0;
+        for (int i = 0; i < size; i++) {
+            Snapshot s = ring[slot(i)];
+            if (s.isKeyframe()) keyframes++;
+            if (s.isSpilled()) {
+                spilled++;
+                spilledBytes += s.length();
+            } else {
+                heapBytes += s.length();
+            }
+        }
+        return new HistoryResponse(size, keyframes, spilled, heapBytes, spilledBytes,
+            getOldestTick(), size == 0 ? -1 : newestTick(), retention);
+    }
+
+    /**
+     * The oldest group can go once the next keyframe alone reaches back far enough
+     */
+    private void evict() {
+        int oldestNeeded = newestTick() + 1 - retention;
+        while (true) {
+            int next = 1;
+            while (next < size && !ring[slot(next)].isKeyframe()) next++;
+            if (next >= size || firstTick + next > oldestNeeded) return;
+            for (int i = 0; i < next; i++) {
+                ring[slot(i)].discard();
+                ring[slot(i)] = null;
+            }
+            head = slot(next);
+            size -= next;
+            firstTick += next;
+        }
+    }
+
+    /**
+     * Deltas are only ever replayed on top of a keyframe, so everything but the newest keyframe can go to disk
+     */
+    private void spillOlderKeyframes() throws IOException {
+        for (int i = 0; i < size - 1; i++) {
+            if (ring[slot(i)].isKeyframe()) ring[slot(i)].spill();
+        }
+    }
+
+    private int slot(int index) {
+        return (head + index) % ring.length;
+    }
+
+    private int newestTick() {
+        return firstTick + size - 1;
+    }
+
+    private static byte[] serialize(Game game) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(game);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Game deserialize(byte[] data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (Game) in.readObject();
+        }
+    }
+
+    private static final class Snapshot {
+        private final boolean keyframe;
+        private final int length;
+        private byte[] data;
+        private File file = null;
+
+        private Snapshot(boolean keyframe, byte[] data) {
+            this.keyframe = keyframe;
+            this.length = data.length;
+            this.data = data;
+        }
+
+        private boolean isKeyframe() {
+            return keyframe;
+        }
+
+        private boolean isSpilled() {
+            return file != null;
+        }
+
+        private int length() {
+            return length;
+        }
+
+        private byte[] load() throws IOException {
+            return isSpilled() ? Files.readAllBytes(file.toPath()) : data;
+        }
+
+        private void spill() throws IOException {
+            if (isSpilled()) return;
+            Path path = Files.createTempFile("dungeonmania-snapshot", ".bin");
+            path.toFile().deleteOnExit();
+            Files.write(path, data);
+            file = path.toFile();
+            data = null;
+        }
+
+        private void discard() {
+            if (isSpilled()) file.delete();
+        }
+    }
+}
@@ -3,33 +3,17 @@ package dungeonmania.util;
 import java.util.Arrays;
 import java.util.Iterator;
 
-import dungeonmania.entities.Door;
 import dungeonmania.entities.Entity;
-import dungeonmania.entities.Portal;
+import dungeonmania.entities.EntityTypes;
 import dungeonmania.entities.logical.AndRule;
 import dungeonmania.entities.logical.LightBulb;
-import dungeonmania.entities.logical.SwitchDoor;
 
 public class NameConverter {
+    /**
+     * The name responses use for entity, looked up in EntityTypes rather than worked out from the class
+     */
     public static String toSnakeCase(Entity entity) {
-        String nameBasic = toSnakeCase(entity.getClass().getSimpleName());
-        if (entity instanceof Portal) {
-            String color = "_" + ((Portal) entity).getColor().toLowerCase();
-            return nameBasic + color;
-        }
-        if (entity instanceof Door) {
-            String open = ((Door) entity).isOpen() ? "_open" : "";
-            return nameBasic + open;
-        }
-        if (entity instanceof SwitchDoor) {
-            String open = ((SwitchDoor) entity).isActivated() ? "_open" : "";
-            return nameBasic + open;
-        }
-        if (entity instanceof LightBulb) {
-            String status = ((LightBulb) entity).isActivated() ? "_on" : "_off";
-            return nameBasic + status;
-        }
-        return nameBasic;
+        return EntityTypes.of(entity).getName(entity);
     }
 
     public static String toSnakeCase(String name) {
@@ -3,7 +3,6 @@ package dungeonmania.util;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 public final class Position implements Serializable {
     public static final int FLOOR_LAYER = 0;
@@ -11,6 +10,19 @@ public final class Position implements Serializable {
     public static final int DOOR_LAYER = 2;
     public static final int CHARACTER_LAYER = 3;
 
+    // neighbours are numbered the way getAdjacentPositions and getCardinallyAdjacentPositions list them
+    public static final int ADJACENT_POSITIONS = 8;
+    public static final int CARDINALLY_ADJACENT_POSITIONS = 4;
+    private static final int[] ADJACENT_X = {-1, 0, 1, 1, 1, 0, -1, -1};
+    private static final int[] ADJACENT_Y = {-1, -1, -1, 0, 1, 1, 1, 0};
+    private static final int[] CARDINAL_X = {0, 1, 0, -1};
+    private static final int[] CARDINAL_Y = {-1, 0, 1, 0};
+
+    // positions on the floor layer inside [CACHE_LOW, CACHE_HIGH) in both axes are shared, rows are made on demand
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final Position[][] CACHE = new Position[CACHE_HIGH - CACHE_LOW][];
+
     private final int x;
     private final int y;
     private final int layer;
@@ -27,9 +39,35 @@ public final class Position implements Serializable {
         this.layer = 0;
     }
 
+    /**
+     * The position (x, y) on the floor layer, shared between callers when it is close enough to the origin
+     * Positions are immutable, so this can be used anywhere new Position(x, y) would be.
+     * Two threads asking at once may each get their own copy, which is harmless since positions compare by value.
+     */
+    public static Position of(int x, int y) {
+        if (x < CACHE_LOW || y < CACHE_LOW || x >= CACHE_HIGH || y >= CACHE_HIGH) return new Position(x, y);
+        Position[] row = CACHE[y - CACHE_LOW];
+        if (row == null) {
+            row = new Position[CACHE_HIGH - CACHE_LOW];
+            CACHE[y - CACHE_LOW] = row;
+        }
+        Position p = row[x - CACHE_LOW];
+        if (p == null) {
+            p = new Position(x, y);
+            row[x - CACHE_LOW] = p;
+        }
+        return p;
+    }
+
+    // loaded positions are swapped for the shared ones
+    private Object readResolve() {
+        return layer == 0 ? of(x, y) : this;
+    }
+
+    // same value as Objects.hash(x, y), without boxing x and y
     @Override
     public final int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * (31 + x) + y;
     }
 
     @Override
@@ -62,11 +100,12 @@ public final class Position implements Serializable {
     }
 
     public final Position asLayer(int layer) {
-        return new Position(x, y, layer);
+        return layer == 0 ? of(x, y) : new Position(x, y, layer);
     }
 
     public static final Position translateBy(Position old, int deltaX, int deltaY) {
-        return translateBy(old, new Position(deltaX, deltaY));
+        return old.layer == 0 ? of(old.x + deltaX, old.y + deltaY)
+            : new Position(old.x + deltaX, old.y + deltaY, old.layer);
     }
 
     public static final Position translateBy(Position old, Direction direction) {
@@ -74,7 +113,9 @@ public final class Position implements Serializable {
     }
 
     public static final Position translateBy(Position old, Position delta) {
-        return new Position(old.x + delta.x, old.y + delta.y, old.layer + delta.layer);
+        int newLayer = old.layer + delta.layer;
+        return newLayer == 0 ? of(old.x + delta.x, old.y + delta.y)
+            : new Position(old.x + delta.x, old.y + delta.y, newLayer);
     }
 
     // (Note: doesn't include z)
@@ -86,7 +127,7 @@ public final class Position implements Serializable {
      */
 
     public static final Position calculatePositionBetween(Position a, Position b) {
-        return new Position(b.x - a.x, b.y - a.y);
+        return of(b.x - a.x, b.y - a.y);
     }
 
     public static final boolean isAdjacent(Position a, Position b) {
@@ -104,28 +145,32 @@ public final class Position implements Serializable {
     // 7 p 3
     // 6 5 4
     public List<Position> getAdjacentPositions() {
-        List<Position> adjacentPositions = new ArrayList<>();
-        adjacentPositions.add(new Position(x - 1, y - 1));
-        adjacentPositions.add(new Position(x, y - 1));
-        adjacentPositions.add(new Position(x + 1, y - 1));
-        adjacentPositions.add(new Position(x + 1, y));
-        adjacentPositions.add(new Position(x + 1, y + 1));
-        adjacentPositions.add(new Position(x, y + 1));
-        adjacentPositions.add(new Position(x - 1, y + 1));
-        adjacentPositions.add(new Position(x - 1, y));
+        List<Position> adjacentPositions = new ArrayList<>(ADJACENT_POSITIONS);
+        for (int i = 0; i < ADJACENT_POSITIONS; i++) adjacentPositions.add(getAdjacentPosition(i));
         return adjacentPositions;
     }
 
+    /**
+     * The i-th of the positions getAdjacentPositions lists, without building the list
+     */
+    public Position getAdjacentPosition(int i) {
+        return of(x + ADJACENT_X[i], y + ADJACENT_Y[i]);
+    }
+
     /**
      * Get cardinally adjacent positions only
      * @return
      */
     public List<Position> getCardinallyAdjacentPositions() {
-        List<Position> adjacentPositions = new ArrayList<>();
-        adjacentPositions.add(new Position(x, y - 1));
-        adjacentPositions.add(new Position(x + 1, y));
-        adjacentPositions.add(new Position(x, y + 1));
-        adjacentPositions.add(new Position(x - 1, y));
+        List<Position> adjacentPositions = new ArrayList<>(CARDINALLY_ADJACENT_POSITIONS);
+        for (int i = 0; i < CARDINALLY_ADJACENT_POSITIONS; i++) adjacentPositions.add(getCardinallyAdjacentPosition(i));
         return adjacentPositions;
     }
+
+    /**
+     * The i-th of the positions getCardinallyAdjacentPositions lists (up, right, down, left), without building the list
+     */
+    public Position getCardinallyAdjacentPosition(int i) {
+        return of(x + CARDINAL_X[i], y + CARDINAL_Y[i]);
+    }
 }
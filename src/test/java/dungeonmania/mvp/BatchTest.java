@@ -0,0 +1,102 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.metrics.Histogram;
+import dungeonmania.metrics.Metrics;
+import dungeonmania.response.models.BatchResponse;
+import dungeonmania.response.models.BatchStepResponse;
+import dungeonmania.response.models.DungeonDeltaResponse;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.ResponseMode;
+import dungeonmania.util.Direction;
+
+public class BatchTest {
+    @Test
+    @Tag("30-1")
+    @DisplayName("Test a batch leaves the game as the same commands sent one at a time")
+    public void matchesSingleCommands() throws InvalidActionException {
+        DungeonManiaController single = new DungeonManiaController();
+        single.newGame("d_BuildablesTest_BuildBow", "c_BuildablesTest_BuildBow");
+        for (int i = 0; i < 4; i++) single.tick(Direction.RIGHT);
+        single.build("bow");
+        DungeonResponse expected = single.tick(Direction.DOWN);
+
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame("d_BuildablesTest_BuildBow", "c_BuildablesTest_BuildBow");
+        BatchResponse batch = dmc.batch(Arrays.asList("mR", "mR", "mR", "mR", "bbow", "mD"), false);
+        DungeonResponse res = (DungeonResponse) batch.getResult();
+
+        assertEquals(6, batch.getCompleted());
+        assertTrue(batch.getSteps() == null);
+        assertEquals(TestUtils.getPlayerPos(expected), TestUtils.getPlayerPos(res));
+        assertEquals(1, TestUtils.getInventory(res, "bow").size());
+        assertEquals(0, TestUtils.getInventory(res, "wood").size());
+        assertEquals(expected.getEntities().size(), res.getEntities().size());
+        assertEquals(expected.getGoals(), res.getGoals());
+        assertEquals(res.getEntities().size(), dmc.getDungeonResponseModel().getEntities().size());
+
+        // every tick of the batch was snapshotted
+        res = dmc.rewind(1);
+        assertEquals(TestUtils.getPlayerPos(single.rewind(1)), TestUtils.getPlayerPos(res));
+    }
+
+    @Test
+    @Tag("30-2")
+    @DisplayName("Test step summaries and a batch stopping at the first command that fails")
+    public void stepsAndFailure() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        assertThrows(IllegalArgumentException.class, () -> dmc.batch(Arrays.asList("mR"), true));
+        dmc.newGame("d_BuildablesTest_BuildBow", "c_BuildablesTest_BuildBow");
+
+        BatchResponse batch = dmc.batch(Arrays.asList("mR", "bbow", "mR", "mR"), true);
+        assertEquals(1, batch.getCompleted());
+        List<BatchStepResponse> steps = batch.getSteps();
+        assertEquals(2, steps.size());
+        assertEquals("mR", steps.get(0).getCommand());
+        assertEquals(1, steps.get(0).getTick());
+        assertTrue(steps.get(0).getErrorTitle() == null);
+        assertEquals("bbow", steps.get(1).getCommand());
+        assertEquals("InvalidActionException", steps.get(1).getErrorTitle());
+        // the state is where the batch stopped
+        assertEquals(1, TestUtils.getInventory((DungeonResponse) batch.getResult(), "wood").size());
+
+        batch = dmc.batch(Arrays.asList("mR", "mR", "mR", "x"), false);
+        assertEquals(3, batch.getCompleted());
+        assertEquals(1, batch.getSteps().size());
+        assertEquals("IllegalArgumentException", batch.getSteps().get(0).getErrorTitle());
+        assertEquals(3, TestUtils.getInventory((DungeonResponse) batch.getResult(), "arrow").size());
+    }
+
+    @Test
+    @Tag("30-3")
+    @DisplayName("Test a batch in delta mode only builds the delta since the acknowledged version")
+    public void deltaMode() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame("d_BuildablesTest_BuildBow", "c_BuildablesTest_BuildBow");
+        dmc.setResponseMode(ResponseMode.DELTA);
+        int acked = dmc.getDeltaResponse(-1).getVersion();
+
+        Histogram builds = Metrics.phase("build");
+        long before = builds.getCount();
+        BatchResponse batch = dmc.batch(Arrays.asList("mR", "mR", "mR"), false, acked);
+        // one delta recorded per command and the one answering the batch, no full response
+        assertEquals(4, builds.getCount() - before);
+
+        DungeonDeltaResponse delta = (DungeonDeltaResponse) batch.getResult();
+        assertEquals(3, batch.getCompleted());
+        assertEquals(acked, delta.getBaseVersion());
+        assertTrue(!delta.isResync());
+    }
+}
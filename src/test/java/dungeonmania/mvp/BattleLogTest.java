@@ -0,0 +1,119 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.Game;
+import dungeonmania.battles.BattleLog;
+import dungeonmania.codec.GameCodec;
+import dungeonmania.response.models.BattlePageResponse;
+import dungeonmania.response.models.BattleResponse;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+
+public class BattleLogTest {
+    private static final int WINDOW = 5;
+    private final Gson gson = new Gson();
+
+    @Test
+    @Tag("26-1")
+    @DisplayName("Test responses only hold battles after the cursor and the log only keeps the configured window")
+    public void cursorAndWindow() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame("d_battleTest_thirtyEnemies", "c_battleLogTest_window");
+        List<BattleResponse> seen = new ArrayList<>(res.getBattles());
+        for (int i = 0; i < 12; i++) {
+            dmc.setBattleCursor(res.getNextBattle());
+            int before = res.getNextBattle();
+            res = dmc.tick(Direction.RIGHT);
+            assertEquals(res.getNextBattle() - before, res.getBattles().size());
+            seen.addAll(res.getBattles());
+        }
+        assertTrue(res.getNextBattle() > WINDOW);
+        assertEquals(res.getNextBattle(), seen.size());
+
+        // a cursor past the window only gets what the log still holds
+        dmc.setBattleCursor(0);
+        List<BattleResponse> kept = dmc.getDungeonResponseModel().getBattles();
+        assertEquals(WINDOW, kept.size());
+        assertEquals(gson.toJson(seen.subList(seen.size() - WINDOW, seen.size())), gson.toJson(kept));
+        assertEquals(res.getNextBattle(), dmc.getDungeonResponseModel().getNextBattle());
+    }
+
+    @Test
+    @Tag("26-2")
+    @DisplayName("Test paging back through the log from the newest battle")
+    public void paging() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame("d_battleTest_thirtyEnemies", "c_battleLogTest_window");
+        for (int i = 0; i < 12; i++) dmc.tick(Direction.RIGHT);
+        List<BattleResponse> kept = dmc.getDungeonResponseModel().getBattles();
+
+        List<BattleResponse> paged = new ArrayList<>();
+        BattlePageResponse page = dmc.getBattles(-1, 2);
+        int next = page.getNext();
+        assertEquals(next, page.getTo());
+        while (true) {
+            assertEquals(page.getTo() - page.getFrom(), page.getBattles().size());
+            paged.addAll(0, page.getBattles());
+            if (page.getFrom() == page.getFirst()) break;
+            page = dmc.getBattles(page.getFrom(), 2);
+        }
+        assertEquals(next - WINDOW, page.getFirst());
+        assertEquals(gson.toJson(kept), gson.toJson(paged));
+
+        // older than the log holds is an empty page, not an error
+        page = dmc.getBattles(page.getFirst(), 2);
+        assertEquals(0, page.getBattles().size());
+        assertThrows(IllegalArgumentException.class, () -> dmc.getBattles(-1, 0));
+    }
+
+    @Test
+    @Tag("26-3")
+    @DisplayName("Test rewinding puts the battle log back to how it was")
+    public void rewind() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame("d_battleTest_thirtyEnemies", "c_battleLogTest_window");
+        List<String> logs = new ArrayList<>();
+        List<Integer> nexts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            DungeonResponse res = dmc.tick(Direction.RIGHT);
+            logs.add(gson.toJson(res.getBattles()));
+            nexts.add(res.getNextBattle());
+        }
+        DungeonResponse res = dmc.rewind(4);
+        assertEquals((int) nexts.get(5), res.getNextBattle());
+        assertEquals(logs.get(5), gson.toJson(res.getBattles()));
+    }
+
+    @Test
+    @Tag("26-4")
+    @DisplayName("Test saved games keep numbering their battles from where the log was")
+    public void numberingSurvivesSaving() throws IOException {
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame("d_battleTest_thirtyEnemies", "c_battleLogTest_window");
+        for (int i = 0; i < 12; i++) dmc.tick(Direction.RIGHT);
+        BattleLog log = dmc.getGame().getBattleFacade().getBattleLog();
+        assertTrue(log.getFirst() > 0);
+
+        Game loaded = GameCodec.decode(GameCodec.encode(dmc.getGame()));
+        BattleLog loadedLog = loaded.getBattleFacade().getBattleLog();
+        assertEquals(log.getFirst(), loadedLog.getFirst());
+        assertEquals(log.getNext(), loadedLog.getNext());
+        assertEquals(WINDOW, loadedLog.getWindow());
+        assertEquals(gson.toJson(log.getResponses(0)), gson.toJson(loadedLog.getResponses(0)));
+        assertThrows(IllegalArgumentException.class, () -> loadedLog.setFirst(0));
+    }
+}
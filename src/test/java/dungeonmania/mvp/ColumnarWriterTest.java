@@ -0,0 +1,180 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.response.models.ColumnarWriter;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.response.models.GenericResponseWrapper;
+import dungeonmania.response.models.ItemResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+public class ColumnarWriterTest {
+    private final Gson gson = new Gson();
+
+    @Test
+    @Tag("31-1")
+    @DisplayName("Test columnar responses from real games decode to what the JSON responses hold")
+    public void gameResponsesRoundTrip() throws IOException {
+        String[][] dungeons = {
+            {"d_battleTest_thirtyEnemies", "c_battleLogTest_window"},
+            {"d_BuildablesTest_BuildBow", "c_BuildablesTest_BuildBow"},
+            {"d_logicalEntitiesTest_lightBulbWireOR", "c_logicalEntitiesTest"}};
+        for (String[] dungeon : dungeons) {
+            DungeonManiaController dmc = new DungeonManiaController();
+            dmc.newGame(dungeon[0], dungeon[1]);
+            for (int i = 0; i < 4; i++) dmc.tick(Direction.RIGHT);
+            GenericResponseWrapper<DungeonResponse> response = GenericResponseWrapper.ok(dmc.getDungeonResponseModel());
+            byte[] columnar = ColumnarWriter.toBytes(response, gson);
+            assertEquals(gson.toJsonTree(response), decode(columnar), dungeon[0]);
+            assertTrue(columnar.length * 2 < gson.toJson(response).getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+
+    @Test
+    @Tag("31-2")
+    @DisplayName("Test ids that aren't UUIDs, negative positions and errors survive the encoding")
+    public void edgeCases() throws IOException {
+        List<EntityResponse> entities = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            entities.add(new EntityResponse(UUID.randomUUID().toString(), i % 3 == 0 ? "wall" : "door",
+                new Position(-i * 100, i * 70000, i % 4), i % 2 == 0));
+        }
+        List<ItemResponse> items = Arrays.asList(new ItemResponse("key-1", "key"), new ItemResponse("\u00e9", "wall"));
+        DungeonResponse dungeon = new DungeonResponse("id", null, entities, items, new ArrayList<>(),
+            Arrays.asList("bow"), null);
+        assertEquals(gson.toJsonTree(GenericResponseWrapper.ok(dungeon)),
+            decode(ColumnarWriter.toBytes(GenericResponseWrapper.ok(dungeon), gson)));
+
+        // an uppercase UUID would come back lowercase, so it is sent as a string
+        entities.set(0, new EntityResponse(UUID.randomUUID().toString().toUpperCase(), "wall", new Position(0, 0),
+            false));
+        assertEquals(gson.toJsonTree(GenericResponseWrapper.ok(dungeon)),
+            decode(ColumnarWriter.toBytes(GenericResponseWrapper.ok(dungeon), gson)));
+
+        Object error = GenericResponseWrapper.err(new IllegalArgumentException("can't <build> that"));
+        byte[] bytes = ColumnarWriter.toBytes(error, gson);
+        assertEquals(ColumnarWriter.KIND_JSON, (int) bytes[3]);
+        assertEquals(gson.toJson(error), new String(bytes, 4, bytes.length - 4, StandardCharsets.UTF_8));
+        assertTrue(ColumnarWriter.accepts("application/json, " + ColumnarWriter.CONTENT_TYPE));
+        assertTrue(!ColumnarWriter.accepts("application/json"));
+    }
+
+    /**
+     * The response the bytes hold in the shape Gson gives it, following the layout in ColumnarWriter
+     */
+    private JsonObject decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        assertEquals((int) 'D', (int) in.readByte());
+        assertEquals((int) 'M', (int) in.readByte());
+        assertEquals(ColumnarWriter.VERSION, (int) in.readByte());
+        assertEquals(ColumnarWriter.KIND_DUNGEON, (int) in.readByte());
+
+        JsonObject dungeon = new JsonObject();
+        dungeon.addProperty("dungeonId", readString(in));
+        dungeon.addProperty("dungeonName", readString(in));
+        String goals = readString(in);
+        int nextBattle = readVarint(in);
+        String[] types = new String[readVarint(in)];
+        for (int i = 0; i < types.length; i++) types[i] = readString(in);
+
+        int n = readVarint(in);
+        String[] ids = readIds(in, n);
+        int[][] columns = new int[4][n];
+        for (int c = 0; c < 4; c++) {
+            for (int i = 0; i < n; i++) {
+                int v = readVarint(in);
+                columns[c][i] = (c == 1 || c == 2) ? (v >>> 1) ^ -(v & 1) : v;
+            }
+        }
+        byte[] interactable = new byte[(n + 7) / 8];
+        in.readFully(interactable);
+        JsonArray entities = new JsonArray();
+        for (int i = 0; i < n; i++) {
+            JsonObject entity = new JsonObject();
+            entity.addProperty("id", ids[i]);
+            entity.addProperty("type", types[columns[0][i]]);
+            JsonObject position = new JsonObject();
+            position.addProperty("x", columns[1][i]);
+            position.addProperty("y", columns[2][i]);
+            position.addProperty("layer", columns[3][i]);
+            entity.add("position", position);
+            entity.addProperty("isInteractable", (interactable[i / 8] & (1 << (i % 8))) != 0);
+            entities.add(entity);
+        }
+        dungeon.add("entities", entities);
+
+        int m = readVarint(in);
+        ids = readIds(in, m);
+        JsonArray inventory = new JsonArray();
+        for (int i = 0; i < m; i++) {
+            JsonObject item = new JsonObject();
+            item.addProperty("id", ids[i]);
+            item.addProperty("type", types[readVarint(in)]);
+            inventory.add(item);
+        }
+        dungeon.add("inventory", inventory);
+
+        JsonArray buildables = new JsonArray();
+        for (int i = readVarint(in); i > 0; i--) buildables.add(readString(in));
+        JsonObject rest = JsonParser.parseString(readString(in)).getAsJsonObject();
+        if (!rest.get("battles").isJsonNull()) dungeon.add("battles", rest.get("battles"));
+        dungeon.add("buildables", buildables);
+        dungeon.addProperty("goals", goals);
+        if (!rest.get("animations").isJsonNull()) dungeon.add("animations", rest.get("animations"));
+        dungeon.addProperty("nextBattle", nextBattle);
+        assertEquals(-1, in.read());
+
+        JsonObject response = new JsonObject();
+        response.add("result", gson.fromJson(gson.toJson(dungeon), JsonObject.class));
+        response.addProperty("isError", false);
+        return response;
+    }
+
+    private String[] readIds(DataInputStream in, int count) throws IOException {
+        String[] ids = new String[count];
+        boolean uuids = in.readByte() == ColumnarWriter.ID_UUID;
+        for (int i = 0; i < count; i++) {
+            ids[i] = uuids ? new UUID(in.readLong(), in.readLong()).toString() : readString(in);
+        }
+        return ids;
+    }
+
+    private int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0;; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = readVarint(in);
+        if (length == 0) return null;
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
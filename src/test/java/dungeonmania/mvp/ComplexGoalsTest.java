@@ -1,6 +1,8 @@
 package dungeonmania.mvp;
 
 import dungeonmania.DungeonManiaController;
+import dungeonmania.Game;
+import dungeonmania.goals.Goal;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.response.models.EntityResponse;
 import dungeonmania.util.Direction;
@@ -295,4 +297,35 @@ public class ComplexGoalsTest {
         // assert goal met
         assertEquals("", TestUtils.getGoals(res));
     }
+
+    @Test
+    @Tag("14-9")
+    @DisplayName("Test the goal string kept up to date from game events matches evaluating the goal tree")
+    public void goalStringMatchesTree() {
+        String[][] dungeons = {
+            {"d_complexGoalsTest_andAll", "c_complexGoalsTest_andAll"},
+            {"d_complexGoalsTest_orAll", "c_complexGoalsTest_orAll"},
+            {"d_complexGoalsTest_switchUnachieved", "c_complexGoalsTest_switchUnachieved"},
+            {"d_complexGoalsTest_activeSpawnerAndTreasure", "c_complexGoalsTest_activeSpawnerAndTreasure"},
+            {"d_basicGoalsTest_fiveSwitches", "c_basicGoalsTest_fiveSwitches"},
+            {"d_basicGoalsTest_exit", "c_basicGoalsTest_exit"}};
+        Direction[] moves = {Direction.RIGHT, Direction.RIGHT, Direction.DOWN, Direction.RIGHT, Direction.LEFT,
+            Direction.UP, Direction.RIGHT, Direction.RIGHT, Direction.DOWN, Direction.DOWN, Direction.LEFT,
+            Direction.LEFT, Direction.UP, Direction.RIGHT, Direction.RIGHT, Direction.RIGHT};
+
+        for (String[] dungeon : dungeons) {
+            DungeonManiaController dmc = new DungeonManiaController();
+            DungeonResponse res = dmc.newGame(dungeon[0], dungeon[1]);
+            assertEquals(treeGoals(dmc.getGame()), TestUtils.getGoals(res), dungeon[0]);
+            for (Direction move : moves) {
+                res = dmc.tick(move);
+                assertEquals(treeGoals(dmc.getGame()), TestUtils.getGoals(res), dungeon[0]);
+            }
+        }
+    }
+
+    private static String treeGoals(Game game) {
+        Goal goals = game.getGoals();
+        return goals.achieved(game, game.getMap(), game.getPlayer()) ? "" : goals.toString(game);
+    }
 }
@@ -0,0 +1,72 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.EntityFactory;
+import dungeonmania.entities.EntityType;
+import dungeonmania.entities.EntityTypes;
+import dungeonmania.entities.Interactable;
+import dungeonmania.entities.collectables.Collectable;
+import dungeonmania.entities.collectables.Treasure;
+import dungeonmania.entities.logical.Conductor;
+import dungeonmania.util.NameConverter;
+import dungeonmania.util.Position;
+
+public class EntityTypesTest {
+    @Test
+    @Tag("24-1")
+    @DisplayName("Test every type dungeon files can place builds an entity that matches its descriptor")
+    public void descriptorsMatchEntities() {
+        EntityFactory factory = new EntityFactory(new JSONObject());
+        for (EntityType type : EntityTypes.all()) {
+            JSONObject json = new JSONObject();
+            json.put("type", type.getName());
+            json.put("x", 3);
+            json.put("y", 4);
+            json.put("key", 1);
+            json.put("colour", "RED");
+            json.put("movement_factor", 2);
+            json.put("logic", "or");
+            Entity entity = factory.createEntity(json);
+            if (!type.isLoadable()) {
+                assertTrue(entity == null, type.getName());
+                continue;
+            }
+
+            assertEquals(type.getType(), entity.getClass(), type.getName());
+            assertEquals(type, EntityTypes.of(entity));
+            assertEquals(type.getLayer(), entity.getPosition().getLayer(), type.getName());
+            assertEquals(new Position(3, 4), new Position(entity.getPosition().getX(), entity.getPosition().getY()));
+            assertEquals(entity instanceof Interactable, type.isInteractable(), type.getName());
+            assertEquals(entity instanceof Collectable, type.isCollectable(), type.getName());
+            assertEquals(entity instanceof Conductor, type.isConductor(), type.getName());
+            String expected = type.getName().equals("portal") ? "portal_red" : type.getName();
+            assertEquals(expected, type.getName(entity));
+        }
+    }
+
+    @Test
+    @Tag("24-2")
+    @DisplayName("Test a class missing from the table is named after its class and can't be placed")
+    public void unknownClass() {
+        class GoldenTreasure extends Treasure {
+            GoldenTreasure() {
+                super(Position.of(0, 0));
+            }
+        }
+        Entity entity = new GoldenTreasure();
+        EntityType type = EntityTypes.of(entity);
+        assertEquals("golden_treasure", NameConverter.toSnakeCase(entity));
+        assertTrue(type.isCollectable());
+        assertFalse(type.isLoadable());
+        assertTrue(EntityTypes.get("golden_treasure") == null);
+    }
+}
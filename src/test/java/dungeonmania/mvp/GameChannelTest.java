@@ -0,0 +1,203 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.HttpCookie;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.response.models.BattleResponse;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.ResponseMode;
+import dungeonmania.sessions.GameChannel;
+import dungeonmania.sessions.GameSession;
+import dungeonmania.sessions.SessionExecutor;
+import dungeonmania.sessions.SessionRegistry;
+
+public class GameChannelTest {
+    private final Gson gson = new Gson();
+
+    @Test
+    @Tag("29-1")
+    @DisplayName("Test commands over the channel push the same state the controller gives, battles only once")
+    public void pushesState() throws ExecutionException, InterruptedException {
+        SessionExecutor executor = new SessionExecutor(2, 16, 4);
+        SessionExecutor writers = new SessionExecutor(1, 16, 4);
+        GameSession session = new GameSession(executor);
+        List<String> pushed = new CopyOnWriteArrayList<>();
+        GameChannel channel = new GameChannel(session, executor, writers, gson, pushed::add);
+
+        // nothing to push before there is a game
+        channel.open().get();
+        assertEquals(0, pushed.size());
+
+        DungeonManiaController dmc = session.getController();
+        DungeonResponse start = executor.submit(session.getMailbox(),
+            () -> dmc.newGame("d_battleTest_thirtyEnemies", "c_battleLogTest_window")).get();
+        channel.open().get();
+        assertEquals(gson.toJson(start.getEntities()), result(pushed.get(0)).get("entities").toString());
+
+        List<BattleResponse> battles = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            channel.receive("mR").get();
+            JsonObject pushedResult = result(pushed.get(pushed.size() - 1));
+            DungeonResponse res = executor.submit(session.getMailbox(), () -> {
+                dmc.setBattleCursor(0);
+                return dmc.getDungeonResponseModel();
+            }).get();
+            assertEquals(gson.toJson(res.getEntities()), pushedResult.get("entities").toString());
+            assertEquals(res.getNextBattle(), pushedResult.get("nextBattle").getAsInt());
+            for (JsonElement battle : pushedResult.getAsJsonArray("battles")) {
+                battles.add(gson.fromJson(battle, BattleResponse.class));
+            }
+        }
+        // every battle pushed once, in order
+        DungeonResponse res = dmc.getDungeonResponseModel();
+        assertTrue(res.getNextBattle() > 0);
+        assertEquals(res.getNextBattle(), battles.size());
+        assertEquals(gson.toJson(res.getBattles()),
+            gson.toJson(battles.subList(battles.size() - res.getBattles().size(), battles.size())));
+
+        // a resync sends every battle the log holds
+        channel.receive("s").get();
+        assertEquals(res.getBattles().size(), result(pushed.get(pushed.size() - 1)).getAsJsonArray("battles").size());
+        executor.shutdown();
+        writers.shutdown();
+    }
+
+    @Test
+    @Tag("29-2")
+    @DisplayName("Test bad frames push errors and delta sessions are pushed what changed since the last push")
+    public void errorsAndDeltas() throws ExecutionException, InterruptedException {
+        SessionExecutor executor = new SessionExecutor(1, 16, 4);
+        SessionExecutor writers = new SessionExecutor(1, 16, 4);
+        GameSession session = new GameSession(executor);
+        List<String> pushed = new CopyOnWriteArrayList<>();
+        GameChannel channel = new GameChannel(session, executor, writers, gson, pushed::add);
+        executor.submit(session.getMailbox(),
+            () -> session.getController().newGame("d_battleTest_thirtyEnemies", "c_battleLogTest_window")).get();
+
+        for (String frame : new String[] {"", "x", "mQ", "rabc", "unot_an_item"}) {
+            channel.receive(frame).get();
+            JsonObject response = gson.fromJson(pushed.get(pushed.size() - 1), JsonObject.class);
+            assertTrue(response.get("isError").getAsBoolean(), frame);
+        }
+
+        session.getController().setResponseMode(ResponseMode.DELTA);
+        channel.receive("s").get();
+        JsonObject first = result(pushed.get(pushed.size() - 1));
+        assertTrue(first.get("resync").getAsBoolean());
+        channel.receive("mR").get();
+        JsonObject second = result(pushed.get(pushed.size() - 1));
+        assertFalse(second.get("resync").getAsBoolean());
+        assertEquals(first.get("version").getAsInt(), second.get("baseVersion").getAsInt());
+        executor.shutdown();
+        writers.shutdown();
+    }
+
+    @Test
+    @Tag("29-3")
+    @DisplayName("Test a socket carrying the REST session cookie plays the game started over REST")
+    public void socketJoinsRestSession() throws ExecutionException, InterruptedException {
+        SessionExecutor executor = new SessionExecutor(1, 16, 4);
+        SessionExecutor writers = new SessionExecutor(1, 16, 4);
+        SessionRegistry<GameSession> sessions = new SessionRegistry<>(() -> new GameSession(executor));
+
+        // REST routes key sessions by request.session().id(), the cookie Jetty sends also names its worker
+        String restId = "node01q2w3e4r5t6y7";
+        GameSession rest = sessions.get(restId);
+        DungeonResponse started = executor.submit(rest.getMailbox(),
+            () -> rest.getController().newGame("d_battleTest_thirtyEnemies", "c_battleLogTest_window")).get();
+
+        List<HttpCookie> cookies = List.of(new HttpCookie("other", "x"),
+            new HttpCookie(GameSession.SESSION_COOKIE, restId + ".node0"));
+        String socketId = GameSession.idFromCookies(cookies);
+        assertEquals(restId, socketId);
+        assertTrue(GameSession.idFromCookies(List.of(new HttpCookie("other", "x"))) == null);
+
+        List<String> pushed = new CopyOnWriteArrayList<>();
+        GameChannel channel = new GameChannel(sessions.get(socketId), executor, writers, gson, pushed::add);
+        channel.open().get();
+        assertEquals(1, sessions.size());
+        assertEquals(started.getDungeonId(), result(pushed.get(0)).get("dungeonId").getAsString());
+        assertEquals(gson.toJson(started.getEntities()), result(pushed.get(0)).get("entities").toString());
+
+        // a move over the socket is seen by the next REST request
+        channel.receive("mR").get();
+        DungeonResponse res = executor.submit(rest.getMailbox(), () -> rest.getController().getDungeonResponseModel())
+            .get();
+        assertEquals(gson.toJson(res.getEntities()), result(pushed.get(1)).get("entities").toString());
+        assertEquals(1, rest.getController().getGame().getTick());
+        executor.shutdown();
+        writers.shutdown();
+    }
+
+    @Test
+    @Tag("29-4")
+    @DisplayName("Test a client slow to read holds up neither the session workers nor the order of its pushes")
+    public void slowClient() throws Exception {
+        SessionExecutor executor = new SessionExecutor(1, 16, 4);
+        SessionExecutor writers = new SessionExecutor(2, 2, 4);
+        GameSession session = new GameSession(executor);
+        GameSession other = new GameSession(executor);
+        executor.submit(session.getMailbox(),
+            () -> session.getController().newGame("d_battleTest_thirtyEnemies", "c_battleLogTest_window")).get();
+        session.getController().setResponseMode(ResponseMode.DELTA);
+
+        CountDownLatch reading = new CountDownLatch(1);
+        List<String> pushed = new CopyOnWriteArrayList<>();
+        GameChannel channel = new GameChannel(session, executor, writers, gson, frame -> {
+            try {
+                reading.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pushed.add(frame);
+        });
+
+        // the first push blocks, the next one waits behind it and the third doesn't fit
+        List<CompletableFuture<Void>> moves = new ArrayList<>();
+        for (int i = 0; i < 3; i++) moves.add(channel.receive("mR"));
+        executor.submit(session.getMailbox(), () -> null).get(5, TimeUnit.SECONDS);
+        // the only session worker is free for every other session
+        DungeonResponse started = executor.submit(other.getMailbox(),
+            () -> other.getController().newGame("d_battleTest_thirtyEnemies", "c_battleLogTest_window"))
+            .get(5, TimeUnit.SECONDS);
+        assertEquals("d_battleTest_thirtyEnemies", started.getDungeonName());
+        assertFalse(moves.get(0).isDone());
+
+        reading.countDown();
+        for (CompletableFuture<Void> move : moves) move.get(5, TimeUnit.SECONDS);
+        assertEquals(2, pushed.size());
+        assertEquals(result(pushed.get(0)).get("version").getAsInt(),
+            result(pushed.get(1)).get("baseVersion").getAsInt());
+
+        // the dropped push made the client miss a version, so the next one is a resync
+        channel.receive("mR").get(5, TimeUnit.SECONDS);
+        assertTrue(result(pushed.get(2)).get("resync").getAsBoolean());
+        executor.shutdown();
+        writers.shutdown();
+    }
+
+    private JsonObject result(String frame) {
+        JsonObject response = gson.fromJson(frame, JsonObject.class);
+        assertFalse(response.get("isError").getAsBoolean(), frame);
+        return response.getAsJsonObject("result");
+    }
+}
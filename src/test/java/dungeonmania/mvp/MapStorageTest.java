@@ -0,0 +1,72 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.map.NodeStorage;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+public class MapStorageTest {
+    @Test
+    @Tag("20-1")
+    @DisplayName("Test every way of storing the map plays out the same as the hash map")
+    public void storageMatchesHashMap() {
+        String[][] dungeons = {
+            {"d_pathFindingTest_portalShortcut", "c_mercenaryTest_simpleMovement"},
+            {"d_mercenaryTest_doorMovement", "c_mercenaryTest_doorMovement"},
+            {"d_swampTileTest_aroundSwamp", "c_swampTileTest_allyInSwamp"},
+            {"d_boulderTest_twoBoulders", "c_boulderTest_twoBoulders"},
+            {"d_mapStorageTest_farApart", "c_mercenaryTest_simpleMovement"}};
+        Direction[] moves = {Direction.NONE, Direction.RIGHT, Direction.DOWN, Direction.RIGHT, Direction.UP,
+            Direction.LEFT, Direction.LEFT, Direction.DOWN, Direction.RIGHT, Direction.NONE};
+
+        for (String[] dungeon : dungeons) {
+            for (NodeStorage storage : NodeStorage.values()) {
+                DungeonManiaController dmc = new DungeonManiaController();
+                DungeonManiaController hash = new DungeonManiaController();
+                dmc.newGame(dungeon[0], dungeon[1]);
+                hash.newGame(dungeon[0], dungeon[1]);
+                dmc.getGame().getMap().setNodeStorage(storage);
+                hash.getGame().getMap().setNodeStorage(NodeStorage.HASH);
+
+                for (Direction move : moves) {
+                    DungeonResponse expected = hash.tick(move);
+                    DungeonResponse actual = dmc.tick(move);
+                    assertEquals(expected.getEntities().size(), actual.getEntities().size());
+                    assertTrue(TestUtils.entityListEqual(expected.getEntities(), actual.getEntities()),
+                        dungeon[0] + " " + storage);
+                }
+            }
+        }
+    }
+
+    @Test
+    @Tag("20-2")
+    @DisplayName("Test a map with entities thousands of cells apart still plays")
+    public void farApartEntities() {
+        //  (-4000, -4000) Treasure
+        //  ...
+        //  Wall
+        //  P    .    .    .    .    M
+        //  ...
+        //  (4000, 4000) Wall
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame("d_mapStorageTest_farApart", "c_mercenaryTest_simpleMovement");
+        assertEquals(NodeStorage.GRID, dmc.getGame().getMap().getNodeStorage());
+
+        res = dmc.tick(Direction.UP);
+        assertEquals(new Position(1, 1), TestUtils.getPlayerPos(res));
+        assertEquals(new Position(5, 1), TestUtils.getEntities(res, "mercenary").get(0).getPosition());
+
+        assertEquals(new Position(4000, 4000), TestUtils.getEntities(res, "wall").stream()
+            .map(e -> e.getPosition()).filter(p -> p.getX() > 1).findFirst().get());
+        assertEquals(new Position(-4000, -4000), TestUtils.getEntities(res, "treasure").get(0).getPosition());
+    }
+}
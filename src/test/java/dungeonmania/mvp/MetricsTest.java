@@ -0,0 +1,104 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.map.PathFinding;
+import dungeonmania.metrics.Histogram;
+import dungeonmania.metrics.Metrics;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+
+public class MetricsTest {
+    @Test
+    @Tag("32-1")
+    @DisplayName("Test playing a game records every phase, callback priority, path search and snapshot")
+    public void gameIsMeasured() {
+        for (PathFinding pathFinding : PathFinding.values()) {
+            Map<String, Double> before = scrape();
+            DungeonManiaController dmc = new DungeonManiaController();
+            dmc.newGame("d_mercenaryTest_evadeWall", "c_mercenaryTest_evadeWall");
+            dmc.getGame().getMap().setPathFinding(pathFinding);
+            DungeonResponse res = null;
+            for (int i = 0; i < 5; i++) res = dmc.tick(Direction.NONE);
+            Map<String, Double> after = scrape();
+
+            String search = pathFinding == PathFinding.DISTANCE_FIELD ? "distance_field"
+                : pathFinding == PathFinding.DIJKSTRA ? "dijkstra" : "a_star";
+            String expanded = "dungeonmania_pathfinding_nodes_expanded_sum{search=\"" + search + "\"}";
+            assertTrue(increase(before, after, expanded) > 0, pathFinding.toString());
+
+            // the new game builds a response too
+            assertEquals(6, increase(before, after, "dungeonmania_phase_seconds_count{phase=\"build\"}"));
+            assertEquals(5, increase(before, after, "dungeonmania_phase_seconds_count{phase=\"snapshot\"}"));
+            assertEquals(5, increase(before, after, "dungeonmania_phase_seconds_count{phase=\"tick\"}"));
+            assertEquals(5, increase(before, after, "dungeonmania_tick_priority_seconds_count{priority=\"0\"}"));
+            assertTrue(increase(before, after, "dungeonmania_tick_priority_seconds_count{priority=\"2\"}") >= 5);
+            assertEquals(5, increase(before, after, "dungeonmania_snapshot_bytes_count{kind=\"keyframe\"}")
+                + increase(before, after, "dungeonmania_snapshot_bytes_count{kind=\"delta\"}"));
+            assertTrue(increase(before, after, "dungeonmania_snapshot_bytes_sum{kind=\"keyframe\"}") > 1000);
+            assertEquals(res.getEntities().size(), dmc.getEntityCount());
+        }
+    }
+
+    @Test
+    @Tag("32-2")
+    @DisplayName("Test histograms, counters and gauges are written in the Prometheus text format")
+    public void scrapeFormat() {
+        Histogram histogram = Metrics.histogram("test_metrics_values", "Values", "label", "a \"b\"\\c");
+        assertTrue(histogram == Metrics.histogram("test_metrics_values", "Values", "label", "a \"b\"\\c"));
+        for (long value : new long[] {0, 1, 2, 3, 4, 1000, 1L << 40}) histogram.record(value);
+        Histogram timer = Metrics.timer("test_metrics_seconds", "Times");
+        timer.record(1500);
+        LongAdder counter = Metrics.counter("test_metrics_total", "Count", "kind", "x");
+        counter.add(3);
+        Metrics.gauge("test_metrics_gauge", "Gauge", () -> 2.5);
+        assertThrows(IllegalArgumentException.class, () -> Metrics.timer("test_metrics_total", "Count"));
+        assertThrows(IllegalArgumentException.class, () -> Metrics.counter("test_metrics_total", "Count", "kind"));
+
+        String text = Metrics.scrape();
+        assertTrue(text.contains("# TYPE test_metrics_values histogram\n"));
+        String labels = "{label=\"a \\\"b\\\"\\\\c\"";
+        assertTrue(text.contains("test_metrics_values_bucket" + labels + ",le=\"1\"} 2\n"));
+        assertTrue(text.contains("test_metrics_values_bucket" + labels + ",le=\"2\"} 3\n"));
+        assertTrue(text.contains("test_metrics_values_bucket" + labels + ",le=\"4\"} 5\n"));
+        assertTrue(text.contains("test_metrics_values_bucket" + labels + ",le=\"1024\"} 6\n"));
+        assertTrue(text.contains("test_metrics_values_bucket" + labels + ",le=\"1073741824\"} 6\n"));
+        assertTrue(text.contains("test_metrics_values_bucket" + labels + ",le=\"+Inf\"} 7\n"));
+        assertTrue(text.contains("test_metrics_values_count" + labels + "} 7\n"));
+        assertTrue(text.contains("test_metrics_values_sum" + labels + "} " + (1010 + (1L << 40)) + "\n"));
+
+        assertTrue(text.contains("test_metrics_seconds_bucket{le=\"1.024E-6\"} 0\n"));
+        assertTrue(text.contains("test_metrics_seconds_bucket{le=\"2.048E-6\"} 1\n"));
+        assertTrue(text.contains("test_metrics_seconds_sum 1.5E-6\n"));
+        assertTrue(text.contains("# TYPE test_metrics_total counter\ntest_metrics_total{kind=\"x\"} 3\n"));
+        assertTrue(text.contains("# TYPE test_metrics_gauge gauge\ntest_metrics_gauge 2.5\n"));
+    }
+
+    /**
+     * Every sample of a scrape by its name and labels
+     */
+    private Map<String, Double> scrape() {
+        Map<String, Double> samples = new HashMap<>();
+        for (String line : Metrics.scrape().split("\n")) {
+            if (line.startsWith("#")) continue;
+            int space = line.lastIndexOf(' ');
+            samples.put(line.substring(0, space), Double.parseDouble(line.substring(space + 1)));
+        }
+        return samples;
+    }
+
+    private double increase(Map<String, Double> before, Map<String, Double> after, String sample) {
+        return after.getOrDefault(sample, 0.0) - before.getOrDefault(sample, 0.0);
+    }
+}
@@ -0,0 +1,211 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.map.PathFinding;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+public class PathFindingTest {
+    @Test
+    @Tag("33-1")
+    @DisplayName("Test mercenary takes the portal when it is the shorter way to the player")
+    public void portalShortcut() {
+        //  P   .   .   .   .   .   .   .  Portal
+        //  ...
+        //  Wall Wall Wall Wall Wall Wall Wall Wall Wall
+        //  Portal
+        //  M
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame("d_pathFindingTest_portalShortcut", "c_mercenaryTest_simpleMovement");
+
+        res = dmc.tick(Direction.NONE);
+        assertEquals(new Position(7, 1), getMercPos(res));
+        res = dmc.tick(Direction.NONE);
+        assertEquals(new Position(6, 1), getMercPos(res));
+    }
+
+    @Test
+    @Tag("33-2")
+    @DisplayName("Test mercenary walks around a swamp tile when that is cheaper than crossing it")
+    public void swampDetour() {
+        //  Wall Wall Wall Wall  Wall Wall Wall
+        //  P    .    .    Swamp .    .    M
+        //  Wall Wall .    .     .    Wall Wall
+        //       Wall Wall Wall  Wall Wall
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame("d_pathFindingTest_swampDetour", "c_mercenaryTest_simpleMovement");
+
+        res = dmc.tick(Direction.NONE);
+        assertEquals(new Position(5, 2), getMercPos(res));
+        res = dmc.tick(Direction.NONE);
+        assertEquals(new Position(4, 2), getMercPos(res));
+        res = dmc.tick(Direction.NONE);
+        assertEquals(new Position(4, 3), getMercPos(res));
+        res = dmc.tick(Direction.NONE);
+        assertEquals(new Position(3, 3), getMercPos(res));
+    }
+
+    @Test
+    @Tag("33-3")
+    @DisplayName("Test every path finding mode moves enemies onto the same next step as Dijkstra")
+    public void pathFindingMatchesDijkstra() {
+        String[][] dungeons = {
+            {"d_pathFindingTest_portalShortcut", "c_mercenaryTest_simpleMovement"},
+            {"d_pathFindingTest_swampDetour", "c_mercenaryTest_simpleMovement"},
+            {"d_mercenaryTest_simpleMovement", "c_mercenaryTest_simpleMovement"},
+            {"d_mercenaryTest_doorMovement", "c_mercenaryTest_doorMovement"},
+            {"d_mercenaryTest_evadeWall", "c_mercenaryTest_evadeWall"},
+            {"d_assassinTest_doorMovement", "c_assassinTest_simpleMovement"},
+            {"d_swampTileTest_mercenaryInSwamp", "c_swampTileTest_mercenaryInSwamp"},
+            {"d_swampTileTest_aroundSwamp", "c_swampTileTest_allyInSwamp"}};
+        Direction[] moves = {Direction.NONE, Direction.RIGHT, Direction.NONE, Direction.DOWN, Direction.LEFT,
+            Direction.NONE, Direction.UP, Direction.NONE, Direction.RIGHT, Direction.NONE};
+
+        for (String[] dungeon : dungeons) {
+            for (PathFinding pathFinding : PathFinding.values()) {
+                DungeonManiaController dmc = new DungeonManiaController();
+                DungeonManiaController dijkstra = new DungeonManiaController();
+                dmc.newGame(dungeon[0], dungeon[1]);
+                dijkstra.newGame(dungeon[0], dungeon[1]);
+                dmc.getGame().getMap().setPathFinding(pathFinding);
+                dijkstra.getGame().getMap().setPathFinding(PathFinding.DIJKSTRA);
+
+                for (Direction move : moves) {
+                    DungeonResponse expected = dijkstra.tick(move);
+                    DungeonResponse actual = dmc.tick(move);
+                    assertTrue(TestUtils.entityListEqual(expected.getEntities(), actual.getEntities()),
+                        dungeon[0] + " " + pathFinding);
+                }
+            }
+        }
+    }
+
+    @Test
+    @Tag("33-4")
+    @DisplayName("Test mercenary heads for a gap blown in a wall while the player stands still")
+    public void distanceFieldFollowsTerrainChanges() throws InvalidActionException {
+        //          M
+        //
+        //
+        //  Wall Wall Wall Wall Wall ...
+        //  P    Boulder Switch
+        //  Bomb
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame("d_pathFindingTest_wallDestroyed", "c_bombTest_placeCardinallyActive");
+        dmc.getGame().getMap().setPathFinding(PathFinding.DISTANCE_FIELD);
+
+        // push the boulder onto the switch and pick up the bomb, the mercenary heads around the wall
+        res = dmc.tick(Direction.RIGHT);
+        res = dmc.tick(Direction.LEFT);
+        res = dmc.tick(Direction.DOWN);
+        res = dmc.tick(Direction.UP);
+        res = dmc.tick(Direction.RIGHT);
+        Position beforeBlast = getMercPos(res);
+        assertTrue(beforeBlast.getX() != 2);
+
+        // the bomb goes off next to the active switch and opens the wall above the player
+        res = dmc.tick(TestUtils.getFirstItemId(res, "bomb"));
+        assertEquals(0, TestUtils.getEntities(res, "bomb").size());
+        Position afterBlast = getMercPos(res);
+        assertTrue(Math.abs(afterBlast.getX() - 2) < Math.abs(beforeBlast.getX() - 2));
+    }
+
+    @Test
+    @Tag("33-5")
+    @DisplayName("Test planning mercenary moves in parallel ends every tick where moving them one by one does")
+    public void parallelMovementMatchesSequential() {
+        // a walled room crowded with mercenaries, with a pair of portals, a swamp tile and an exit
+        Direction[] moves = {Direction.NONE, Direction.LEFT, Direction.UP, Direction.NONE, Direction.RIGHT,
+            Direction.RIGHT, Direction.DOWN, Direction.DOWN, Direction.NONE, Direction.LEFT, Direction.NONE,
+            Direction.UP, Direction.RIGHT, Direction.NONE, Direction.DOWN, Direction.NONE};
+
+        for (PathFinding pathFinding : PathFinding.values()) {
+            DungeonManiaController dmc = new DungeonManiaController();
+            DungeonManiaController sequential = new DungeonManiaController();
+            dmc.newGame("d_pathFindingTest_crowd", "c_pathFindingTest_crowd");
+            sequential.newGame("d_pathFindingTest_crowd", "c_pathFindingTest_crowd");
+            dmc.getGame().getMap().setPathFinding(pathFinding);
+            sequential.getGame().getMap().setPathFinding(pathFinding);
+            dmc.getGame().getMap().setParallelMovement(true);
+
+            for (Direction move : moves) {
+                DungeonResponse expected = sequential.tick(move);
+                DungeonResponse actual = dmc.tick(move);
+                assertTrue(TestUtils.entityListEqual(expected.getEntities(), actual.getEntities()),
+                    pathFinding.toString());
+            }
+        }
+    }
+
+    @Test
+    @Tag("33-6")
+    @DisplayName("Test a mercenary stuck behind another in a corridor waits in every path finding mode")
+    public void crowdedCorridor() {
+        //  Wall Wall Wall Wall Wall Wall Wall Wall Wall
+        //       M    M    .    .    .    .    P    Wall
+        //  Wall Wall Wall Wall Wall Wall Wall Wall Wall
+        for (PathFinding pathFinding : PathFinding.values()) {
+            DungeonManiaController dmc = new DungeonManiaController();
+            DungeonManiaController dijkstra = new DungeonManiaController();
+            dmc.newGame("d_pathFindingTest_corridor", "c_pathFindingTest_crowd");
+            dijkstra.newGame("d_pathFindingTest_corridor", "c_pathFindingTest_crowd");
+            dmc.getGame().getMap().setPathFinding(pathFinding);
+            dijkstra.getGame().getMap().setPathFinding(PathFinding.DIJKSTRA);
+
+            int back = 0;
+            for (int i = 0; i < 4; i++) {
+                List<Integer> expected = getMercXs(dijkstra.tick(Direction.NONE));
+                List<Integer> actual = getMercXs(dmc.tick(Direction.NONE));
+                assertEquals(expected, actual, pathFinding.toString());
+                assertTrue(actual.get(0) >= back, pathFinding.toString());
+                back = actual.get(0);
+            }
+        }
+    }
+
+    @Test
+    @Tag("33-7")
+    @DisplayName("Test mercenary takes the step Dijkstra takes when two routes are equally short")
+    public void equallyShortRoutes() {
+        //       .    .    .
+        //  M    Wall P
+        //       .    .    .
+        DungeonManiaController dijkstra = new DungeonManiaController();
+        dijkstra.newGame("d_pathFindingTest_twoRoutes", "c_mercenaryTest_simpleMovement");
+        dijkstra.getGame().getMap().setPathFinding(PathFinding.DIJKSTRA);
+        Position expected = getMercPos(dijkstra.tick(Direction.NONE));
+
+        // other modes may break the tie the other way, so a game only uses them when its config asks for one
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame("d_pathFindingTest_twoRoutes", "c_mercenaryTest_simpleMovement");
+        assertEquals(PathFinding.DIJKSTRA, dmc.getGame().getMap().getPathFinding());
+        assertEquals(expected, getMercPos(dmc.tick(Direction.NONE)));
+
+        DungeonManiaController aStar = new DungeonManiaController();
+        aStar.newGame("d_pathFindingTest_twoRoutes", "c_pathFindingTest_aStar");
+        assertEquals(PathFinding.A_STAR, aStar.getGame().getMap().getPathFinding());
+        Position step = getMercPos(aStar.tick(Direction.NONE));
+        assertTrue(step.equals(new Position(0, -1)) || step.equals(new Position(0, 1)));
+    }
+
+    private Position getMercPos(DungeonResponse res) {
+        return TestUtils.getEntities(res, "mercenary").get(0).getPosition();
+    }
+
+    private List<Integer> getMercXs(DungeonResponse res) {
+        return TestUtils.getEntitiesStream(res, "mercenary").map(m -> m.getPosition().getX()).sorted()
+            .collect(Collectors.toList());
+    }
+}
@@ -1,9 +1,12 @@
 package dungeonmania.mvp;
 
 import dungeonmania.DungeonManiaController;
+import dungeonmania.Persistence;
 import dungeonmania.exceptions.InvalidActionException;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.response.models.EntityResponse;
+import dungeonmania.saves.SaveSlot;
+import dungeonmania.saves.SaveSlotStore;
 import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
 import org.junit.jupiter.api.DisplayName;
@@ -16,7 +19,14 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class PersistenceTest {
@@ -542,6 +552,103 @@ public class PersistenceTest {
         assertEquals(0, res.getBattles().size());
     }
 
+    @Test
+    @Tag("17-14")
+    @DisplayName("Test that a loaded game keeps playing out exactly like the game it was saved from")
+    public void loadedGamePlaysOutTheSame() {
+        String[][] dungeons = {
+            {"d_logicalEntitiesTest_lightBulbWireXOR", "c_logicalEntitiesTest"},
+            {"d_logicalEntitiesTest_multipleSources", "c_logicalEntitiesTest"},
+            {"d_logicalEntitiesTest_switchDoorWireOR", "c_logicalEntitiesTest"},
+            {"d_bombTest_placeCardinallyActivated", "c_bombTest_placeCardinallyActivated"},
+            {"d_mercenaryTest_allyMovement", "c_mercenaryTest_allyMovement"},
+            {"d_potionsTest_potionQueuing", "c_potionsTest_potionQueuing"},
+            {"d_PortalsTest_testMultiplePortalsChain", "c_PortalsTest_testMultiplePortalsChain"},
+            {"d_swampTileTest_mercenaryInSwamp", "c_swampTileTest_mercenaryInSwamp"},
+            {"d_spiderTest_basicMovement", "c_spiderTest_basicMovement"}};
+        Direction[] moves = {Direction.RIGHT, Direction.DOWN, Direction.RIGHT, Direction.UP, Direction.RIGHT,
+            Direction.RIGHT, Direction.LEFT, Direction.DOWN, Direction.DOWN, Direction.RIGHT};
+
+        for (String[] dungeon : dungeons) {
+            DungeonManiaController dmc = new DungeonManiaController();
+            dmc.newGame(dungeon[0], dungeon[1]);
+            for (int i = 0; i < 3; i++) dmc.tick(moves[i]);
+
+            DungeonResponse save = dmc.saveGame("save");
+            DungeonManiaController dmcNew = new DungeonManiaController();
+            DungeonResponse load = dmcNew.loadGame("save");
+            assertTrue(TestUtils.dungeonResponseEqual(save, load), dungeon[0]);
+
+            for (int i = 3; i < moves.length; i++) {
+                DungeonResponse expected = dmc.tick(moves[i]);
+                DungeonResponse actual = dmcNew.tick(moves[i]);
+                assertTrue(TestUtils.dungeonResponseEqual(expected, actual), dungeon[0]);
+                assertEquals(expected.getBattles().size(), actual.getBattles().size(), dungeon[0]);
+            }
+        }
+    }
+
+    @Test
+    @Tag("17-15")
+    @DisplayName("Test that saves written as serialized games can still be loaded")
+    public void serializedSaveStillLoads() throws IOException {
+        Path previous = Persistence.getStore().getDirectory();
+        Path directory = Files.createTempDirectory("dungeonmania-saves");
+        Persistence.setSaveDirectory(directory.toString());
+        try {
+            DungeonManiaController dmc = new DungeonManiaController();
+            dmc.newGame("d_mercenaryTest_simpleMovement", "c_mercenaryTest_simpleMovement");
+            DungeonResponse res = dmc.tick(Direction.RIGHT);
+
+            File file = directory.resolve("legacy").toFile();
+            try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+                out.writeObject(dmc.getGame());
+            }
+
+            DungeonManiaController dmcNew = new DungeonManiaController();
+            DungeonResponse load = dmcNew.loadGame("legacy");
+            assertTrue(TestUtils.dungeonResponseEqual(res, load));
+            assertEquals(new Position(6, 1), getMercPos(dmcNew.tick(Direction.RIGHT)));
+        } finally {
+            Persistence.setSaveDirectory(previous.toString());
+        }
+    }
+
+    @Test
+    @Tag("17-16")
+    @DisplayName("Test that saves are listed from the slot index of the configured directory")
+    public void saveSlotsAreIndexed() throws IOException {
+        Path previous = Persistence.getStore().getDirectory();
+        Path directory = Files.createTempDirectory("dungeonmania-saves");
+        Persistence.setSaveDirectory(directory.toString());
+        try {
+            DungeonManiaController dmc = new DungeonManiaController();
+            dmc.newGame("d_mercenaryTest_simpleMovement", "c_mercenaryTest_simpleMovement");
+            dmc.saveGame("first");
+            dmc.tick(Direction.RIGHT);
+            dmc.tick(Direction.RIGHT);
+            DungeonResponse save = dmc.saveGame("second");
+
+            assertEquals(Arrays.asList("first", "second"), dmc.allGames());
+            SaveSlot second = Persistence.allSlots().get(1);
+            assertEquals("d_mercenaryTest_simpleMovement", second.getDungeonName());
+            assertEquals(2, second.getTick());
+            assertTrue(Files.exists(directory.resolve("second" + SaveSlotStore.SUFFIX)));
+
+            // without the index the slots are found again from the save headers
+            Files.delete(directory.resolve(SaveSlotStore.INDEX));
+            Persistence.setSaveDirectory(directory.toString());
+            assertTrue(TestUtils.genericListsEqual(Arrays.asList("first", "second"), dmc.allGames()));
+            assertEquals(2, Persistence.allSlots().stream().filter(s -> s.getName().equals("second"))
+                .findFirst().get().getTick());
+
+            DungeonManiaController dmcNew = new DungeonManiaController();
+            assertTrue(TestUtils.dungeonResponseEqual(save, dmcNew.loadGame("second")));
+        } finally {
+            Persistence.setSaveDirectory(previous.toString());
+        }
+    }
+
     private List<EntityResponse> getZombies(DungeonResponse res) {
         return TestUtils.getEntities(res, "zombie_toast");
     }
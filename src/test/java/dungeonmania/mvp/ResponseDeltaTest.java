@@ -0,0 +1,159 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.response.models.DeltaTracker;
+import dungeonmania.response.models.DungeonDeltaResponse;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.response.models.ResponseMode;
+import dungeonmania.util.Direction;
+
+public class ResponseDeltaTest {
+    @Test
+    @Tag("22-1")
+    @DisplayName("Test applying every delta to what the client has gives the full response")
+    public void deltasMatchFullResponse() throws InvalidActionException {
+        String[][] dungeons = {
+            {"d_mercenaryTest_bribeRadius", "c_mercenaryTest_bribeRadius"},
+            {"d_DoorsKeysTest_useKeyWalkThroughOpenDoor", "c_DoorsKeysTest_useKeyWalkThroughOpenDoor"},
+            {"d_bombTest_placeCardinallyActive", "c_bombTest_placeCardinallyActive"},
+            {"d_logicalEntitiesTest_lightBulbWireOR", "c_logicalEntitiesTest"},
+            {"d_zombieTest_toastDestruction", "c_zombieTest_toastDestruction"},
+            {"d_basicGoalsTest_spawner", "c_basicGoalsTest_spawner"},
+            {"d_pathFindingTest_crowd", "c_pathFindingTest_crowd"}};
+        Direction[] moves = {Direction.RIGHT, Direction.RIGHT, Direction.DOWN, Direction.NONE, Direction.RIGHT,
+            Direction.LEFT, Direction.UP, Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.DOWN,
+            Direction.LEFT, Direction.NONE, Direction.RIGHT};
+
+        for (String[] dungeon : dungeons) {
+            DungeonManiaController dmc = new DungeonManiaController();
+            dmc.setResponseMode(ResponseMode.DELTA);
+            Map<String, EntityResponse> client = new HashMap<>();
+            dmc.newGame(dungeon[0], dungeon[1]);
+            DungeonDeltaResponse delta = dmc.getDeltaResponse(-1);
+            assertTrue(delta.isResync());
+            int battles = apply(client, delta);
+            assertMatches(client, battles, delta, dmc.getDungeonResponseModel(), dungeon[0]);
+
+            for (int i = 0; i < moves.length; i++) {
+                DungeonResponse full = dmc.getDungeonResponseModel();
+                if (i % 4 == 2 && !full.getInventory().isEmpty()) {
+                    // use or place whatever the player picked up first, some items can't be used
+                    try {
+                        dmc.tick(full.getInventory().get(0).getId());
+                    } catch (IllegalArgumentException | InvalidActionException e) {
+                        dmc.tick(moves[i]);
+                    }
+                } else if (i % 4 == 3 && full.getEntities().stream().anyMatch(EntityResponse::isInteractable)) {
+                    dmc.interact(full.getEntities().stream().filter(EntityResponse::isInteractable)
+                        .findFirst().get().getId());
+                } else {
+                    dmc.tick(moves[i]);
+                }
+                int base = delta.getVersion();
+                delta = dmc.getDeltaResponse(base);
+                assertFalse(delta.isResync());
+                assertEquals(base, delta.getBaseVersion());
+                battles += apply(client, delta);
+                assertMatches(client, battles, delta, dmc.getDungeonResponseModel(), dungeon[0] + " " + i);
+            }
+        }
+    }
+
+    @Test
+    @Tag("22-2")
+    @DisplayName("Test deltas reach back to older acknowledged versions and resync after a rewind")
+    public void acknowledgedVersions() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.setResponseMode(ResponseMode.DELTA);
+        Map<String, EntityResponse> client = new HashMap<>();
+        dmc.newGame("d_timeTravelTest_mercenaryPosition", "c_timeTravelTest");
+        DungeonDeltaResponse delta = dmc.getDeltaResponse(-1);
+        int battles = apply(client, delta);
+        int first = delta.getVersion();
+
+        // the client only acknowledges every third response
+        Direction[] moves = {Direction.DOWN, Direction.RIGHT, Direction.RIGHT, Direction.LEFT, Direction.NONE,
+            Direction.UP};
+        for (int i = 0; i < moves.length; i++) {
+            dmc.tick(moves[i]);
+            if (i % 3 != 2) continue;
+            delta = dmc.getDeltaResponse(delta.getVersion());
+            assertFalse(delta.isResync());
+            battles += apply(client, delta);
+            assertMatches(client, battles, delta, dmc.getDungeonResponseModel(), "tick " + i);
+        }
+
+        // an up to date client gets an empty delta, one that is ahead of the server has to resync
+        assertTrue(dmc.getDeltaResponse(delta.getVersion()).getEntities().isEmpty());
+        assertTrue(dmc.getDeltaResponse(delta.getVersion() + 1).isResync());
+
+        // versions older than the history are forgotten
+        for (int i = 0; i < DeltaTracker.HISTORY; i++) dmc.tick(Direction.NONE);
+        assertTrue(dmc.getDeltaResponse(first).isResync());
+
+        // a rewind hands back another game, so what the client has can't be built on
+        int beforeRewind = dmc.getDeltaResponse(-1).getVersion();
+        dmc.rewind(2);
+        delta = dmc.getDeltaResponse(beforeRewind);
+        assertTrue(delta.isResync());
+        client.clear();
+        battles = apply(client, delta);
+        assertMatches(client, battles, delta, dmc.getDungeonResponseModel(), "rewind");
+    }
+
+    @Test
+    @Tag("22-3")
+    @DisplayName("Test an entity that becomes interactable because of the player's inventory alone is in the delta")
+    public void interactableAfterBuilding() throws InvalidActionException {
+        //  P    Wood Arrow Arrow Arrow
+        //                        Spawner
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.setResponseMode(ResponseMode.DELTA);
+        dmc.newGame("d_responseDeltaTest_buildWeapon", "c_pathFindingTest_crowd");
+        for (int i = 0; i < 4; i++) dmc.tick(Direction.RIGHT);
+        DungeonDeltaResponse delta = dmc.getDeltaResponse(-1);
+        EntityResponse spawner = delta.getEntities().stream()
+            .filter(e -> e.getType().equals("zombie_toast_spawner")).findFirst().get();
+        assertFalse(spawner.isInteractable());
+
+        // neither the player nor the spawner moves, only the bow makes the spawner breakable
+        dmc.build("bow");
+        delta = dmc.getDeltaResponse(delta.getVersion());
+        assertFalse(delta.isResync());
+        assertTrue(delta.getEntities().stream().anyMatch(e -> e.getId().equals(spawner.getId()) && e.isInteractable()));
+    }
+
+    private static int apply(Map<String, EntityResponse> client, DungeonDeltaResponse delta) {
+        if (delta.isResync()) client.clear();
+        delta.getRemoved().forEach(client::remove);
+        delta.getEntities().forEach(e -> client.put(e.getId(), e));
+        return delta.getBattles().size();
+    }
+
+    private static void assertMatches(Map<String, EntityResponse> client, int battles, DungeonDeltaResponse delta,
+            DungeonResponse full, String message) {
+        Map<String, EntityResponse> expected = new HashMap<>();
+        full.getEntities().forEach(e -> expected.put(e.getId(), e));
+        assertEquals(expected, client, message);
+        assertEquals(full.getBattles().size(), battles, message);
+        assertEquals(full.getGoals(), delta.getGoals(), message);
+        List<String> buildables = full.getBuildables();
+        if (buildables != null) assertTrue(TestUtils.genericListsEqual(buildables, delta.getBuildables()), message);
+        if (full.getInventory() != null)
+            assertTrue(TestUtils.itemListEqual(full.getInventory(), delta.getInventory()), message);
+    }
+}
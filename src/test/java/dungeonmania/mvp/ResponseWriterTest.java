@@ -0,0 +1,90 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.response.models.AnimationQueue;
+import dungeonmania.response.models.BattleResponse;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.response.models.GenericResponseWrapper;
+import dungeonmania.response.models.ItemResponse;
+import dungeonmania.response.models.ResponseMode;
+import dungeonmania.response.models.ResponseWriter;
+import dungeonmania.response.models.RoundResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+public class ResponseWriterTest {
+    private final Gson gson = new GsonBuilder().create();
+
+    @Test
+    @Tag("25-1")
+    @DisplayName("Test responses from real games are written exactly as Gson writes them")
+    public void gameResponsesMatchGson() throws IOException {
+        String[][] dungeons = {
+            {"d_battleTest_thirtyEnemies", "c_battleTests_basicMercenaryMercenaryDies"},
+            {"d_pathFindingTest_crowd", "c_pathFindingTest_crowd"},
+            {"d_bombTest_placeCardinallyActive", "c_bombTest_placeCardinallyActive"},
+            {"d_logicalEntitiesTest_lightBulbWireOR", "c_logicalEntitiesTest"}};
+        Direction[] moves = {Direction.RIGHT, Direction.DOWN, Direction.LEFT, Direction.UP, Direction.NONE};
+
+        for (String[] dungeon : dungeons) {
+            DungeonManiaController dmc = new DungeonManiaController();
+            assertMatchesGson(GenericResponseWrapper.ok(dmc.newGame(dungeon[0], dungeon[1])));
+            for (Direction move : moves) assertMatchesGson(GenericResponseWrapper.ok(dmc.tick(move)));
+
+            dmc.setResponseMode(ResponseMode.DELTA);
+            dmc.tick(Direction.RIGHT);
+            assertMatchesGson(GenericResponseWrapper.ok(dmc.getDeltaResponse(-1)));
+            assertMatchesGson(GenericResponseWrapper.ok(dmc.getHistory()));
+        }
+        assertMatchesGson(GenericResponseWrapper.ok(DungeonManiaController.dungeons()));
+    }
+
+    @Test
+    @Tag("25-2")
+    @DisplayName("Test nulls, escaped characters and awkward doubles are written exactly as Gson writes them")
+    public void edgeCasesMatchGson() throws IOException {
+        String name = "<dungeon> & 'friends' = \"fun\"\t\u2028\u00e9";
+        List<EntityResponse> entities = new ArrayList<>(Arrays.asList(
+            new EntityResponse("a<b", "wall", new Position(-1, 2, 3), true),
+            new EntityResponse(null, "door_open", null, false),
+            null));
+        List<ItemResponse> items = Arrays.asList(new ItemResponse("id", "sword"), new ItemResponse(null, null));
+        List<RoundResponse> rounds = Arrays.asList(new RoundResponse(-0.0, 1e-7), new RoundResponse(1e21, 0.1), null);
+        List<BattleResponse> battles = Arrays.asList(
+            new BattleResponse("zombie_toast", rounds, items, 10.5, 3),
+            new BattleResponse(null, null, null, Double.MAX_VALUE, Double.MIN_VALUE),
+            new BattleResponse());
+        List<AnimationQueue> animations = Arrays.asList(
+            new AnimationQueue("PostTick", "a&b", Arrays.asList("healthbar set 0.5", null), true, 0.25));
+
+        assertMatchesGson(GenericResponseWrapper.ok(new DungeonResponse(name, name, entities, items, battles,
+            Arrays.asList("bow", "<shield>"), ":exit AND :treasure", animations)));
+        assertMatchesGson(GenericResponseWrapper.ok(new DungeonResponse(null, null, null, null, null, null, null,
+            null)));
+        assertMatchesGson(GenericResponseWrapper.err(new IllegalArgumentException("can't <build> \"that\"")));
+        assertMatchesGson(GenericResponseWrapper.err(new IllegalArgumentException()));
+        assertMatchesGson(GenericResponseWrapper.ok(null));
+    }
+
+    private void assertMatchesGson(Object value) throws IOException {
+        StringWriter out = new StringWriter();
+        ResponseWriter.write(out, value, gson);
+        assertEquals(gson.toJson(value), out.toString());
+    }
+}
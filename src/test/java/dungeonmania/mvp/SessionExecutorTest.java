@@ -0,0 +1,129 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.MailboxStatsResponse;
+import dungeonmania.sessions.SessionExecutor;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+public class SessionExecutorTest {
+    @Test
+    @Tag("28-1")
+    @DisplayName("Test each session's commands run in the order they were sent while sessions run side by side")
+    public void perSessionOrder() throws InterruptedException, ExecutionException {
+        SessionExecutor executor = new SessionExecutor(4, 1000, 4);
+        int sessions = 6;
+        int commands = 200;
+        List<List<Integer>> ran = new ArrayList<>();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int s = 0; s < sessions; s++) {
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            ran.add(order);
+            SessionExecutor.Mailbox mailbox = executor.newMailbox();
+            for (int i = 0; i < commands; i++) {
+                int n = i;
+                futures.add(executor.submit(mailbox, () -> {
+                    order.add(n);
+                    return n;
+                }));
+            }
+        }
+        for (CompletableFuture<Integer> future : futures) future.get();
+
+        for (List<Integer> order : ran) {
+            assertEquals(commands, order.size());
+            for (int i = 0; i < commands; i++) assertEquals(i, order.get(i));
+        }
+        assertEquals(sessions * commands, executor.getStats().getCompletedCommands());
+        assertEquals(0, executor.getStats().getQueuedCommands());
+        executor.shutdown();
+    }
+
+    @Test
+    @Tag("28-2")
+    @DisplayName("Test a full mailbox turns commands away until it has room and games still play through it")
+    public void backpressure() throws InterruptedException, ExecutionException {
+        SessionExecutor executor = new SessionExecutor(1, 2, 4);
+        SessionExecutor.Mailbox mailbox = executor.newMailbox();
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> blocked = executor.submit(mailbox, () -> {
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        DungeonManiaController dmc = new DungeonManiaController();
+        CompletableFuture<DungeonResponse> newGame = executor.submit(mailbox,
+            () -> dmc.newGame("d_movementTest_testMovementDown", "c_movementTest_testMovementDown"));
+        CompletableFuture<DungeonResponse> rejected = executor.submit(mailbox, () -> dmc.tick(Direction.DOWN));
+        ExecutionException e = null;
+        try {
+            rejected.get();
+        } catch (ExecutionException thrown) {
+            e = thrown;
+        }
+        assertTrue(e != null && e.getCause() instanceof RejectedExecutionException);
+
+        release.countDown();
+        assertTrue(blocked.get());
+        newGame.get();
+        DungeonResponse res = executor.submit(mailbox, () -> dmc.tick(Direction.DOWN)).get();
+        Position start = TestUtils.getEntities(newGame.get(), "player").get(0).getPosition();
+        assertEquals(Position.translateBy(start, Direction.DOWN),
+            TestUtils.getEntities(res, "player").get(0).getPosition());
+
+        MailboxStatsResponse stats = executor.getStats();
+        assertEquals(1, stats.getRejectedCommands());
+        assertEquals(3, stats.getCompletedCommands());
+        assertEquals(2, stats.getMaxQueueDepth());
+        executor.shutdown();
+    }
+
+    @Test
+    @Tag("28-3")
+    @DisplayName("Test a session sending commands nonstop doesn't keep another session waiting behind all of them")
+    public void fairness() throws InterruptedException, ExecutionException {
+        SessionExecutor executor = new SessionExecutor(1, 1000, 2);
+        SessionExecutor.Mailbox hot = executor.newMailbox();
+        SessionExecutor.Mailbox quiet = executor.newMailbox();
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(hot, () -> {
+            started.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        started.await();
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) futures.add(executor.submit(hot, () -> ran.add("hot")));
+        futures.add(executor.submit(quiet, () -> ran.add("quiet")));
+        release.countDown();
+        for (CompletableFuture<Boolean> future : futures) future.get();
+
+        // the first batch of the hot session, then the quiet one gets its turn
+        assertEquals(1, ran.indexOf("quiet"));
+        executor.shutdown();
+    }
+}
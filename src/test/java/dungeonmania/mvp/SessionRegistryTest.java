@@ -0,0 +1,103 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.response.models.SessionStatsResponse;
+import dungeonmania.sessions.SessionRegistry;
+
+public class SessionRegistryTest {
+    @Test
+    @Tag("27-1")
+    @DisplayName("Test sessions left idle for the ttl are evicted and start over")
+    public void idleEviction() {
+        AtomicLong clock = new AtomicLong(0);
+        SessionRegistry<DungeonManiaController> registry = new SessionRegistry<>(DungeonManiaController::new, 100,
+            1000, clock::get);
+        DungeonManiaController a = registry.get("a");
+        DungeonManiaController b = registry.get("b");
+
+        clock.set(60);
+        assertSame(a, registry.get("a"));
+        clock.set(130);
+        // a was used 70 ago, b 130 ago
+        assertSame(a, registry.get("a"));
+        assertTrue(registry.peek("b") == null);
+        assertTrue(b != registry.get("b"));
+
+        SessionStatsResponse stats = registry.getStats();
+        assertEquals(2, stats.getLiveSessions());
+        assertEquals(3, stats.getCreatedSessions());
+        assertEquals(1, stats.getIdleEvictions());
+        assertEquals(0, stats.getLruEvictions());
+    }
+
+    @Test
+    @Tag("27-2")
+    @DisplayName("Test the least recently used sessions are evicted past the session cap")
+    public void lruEviction() {
+        AtomicLong clock = new AtomicLong(0);
+        SessionRegistry<DungeonManiaController> registry = new SessionRegistry<>(DungeonManiaController::new, 0,
+            3, clock::get);
+        DungeonManiaController[] controllers = new DungeonManiaController[3];
+        for (int i = 0; i < 3; i++) {
+            clock.incrementAndGet();
+            controllers[i] = registry.get("s" + i);
+        }
+        clock.incrementAndGet();
+        registry.get("s0");
+        clock.incrementAndGet();
+        registry.get("s3");
+
+        assertEquals(3, registry.size());
+        assertSame(controllers[0], registry.peek("s0"));
+        assertTrue(registry.peek("s1") == null);
+        assertSame(controllers[2], registry.peek("s2"));
+        assertEquals(1, registry.getStats().getLruEvictions());
+        assertEquals(0, registry.getStats().getIdleEvictions());
+    }
+
+    @Test
+    @Tag("27-3")
+    @DisplayName("Test requests racing for the same sessions all get the same controller")
+    public void concurrentLookups() throws InterruptedException {
+        SessionRegistry<DungeonManiaController> registry = new SessionRegistry<>(DungeonManiaController::new);
+        int threads = 8;
+        int sessions = 200;
+        DungeonManiaController[][] seen = new DungeonManiaController[threads][sessions];
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int s = 0; s < sessions; s++) seen[id][s] = registry.get("session" + s);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+
+        for (int s = 0; s < sessions; s++) {
+            for (int t = 1; t < threads; t++) assertSame(seen[0][s], seen[t][s]);
+        }
+        assertEquals(sessions, registry.getStats().getCreatedSessions());
+        assertEquals(sessions, registry.getStats().getLiveSessions());
+    }
+}
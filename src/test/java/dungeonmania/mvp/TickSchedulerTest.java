@@ -0,0 +1,147 @@
+package dungeonmania.mvp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.ComparableCallback;
+import dungeonmania.DeepCopy;
+import dungeonmania.DungeonManiaController;
+import dungeonmania.Game;
+import dungeonmania.TickScheduler;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+
+public class TickSchedulerTest {
+    @Test
+    @Tag("21-1")
+    @DisplayName("Test callbacks run by priority, then in the order they were registered")
+    public void runOrder() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame("d_movementTest_testMovementDown", "c_movementTest_testMovementDown");
+        Game game = dmc.getGame();
+        List<String> ran = new ArrayList<>();
+
+        game.register(record(ran, "ai1"), Game.AI_MOVEMENT, "ai1");
+        game.register(record(ran, "callback"), Game.AI_MOVEMENT_CALLBACK, "callback");
+        game.register(record(ran, "player"), Game.PLAYER_MOVEMENT, "player");
+        game.register(record(ran, "ai2"), Game.AI_MOVEMENT, "ai2");
+        game.registerOnce(record(ran, "once"), Game.PLAYER_MOVEMENT_CALLBACK, "once");
+
+        dmc.tick(Direction.NONE);
+        assertEquals(List.of("player", "once", "ai1", "ai2", "callback"), ran);
+
+        ran.clear();
+        dmc.tick(Direction.NONE);
+        assertEquals(List.of("player", "ai1", "ai2", "callback"), ran);
+    }
+
+    @Test
+    @Tag("21-2")
+    @DisplayName("Test callbacks unsubscribed or registered during a tick take effect straight away or next tick")
+    public void changesDuringTick() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame("d_movementTest_testMovementDown", "c_movementTest_testMovementDown");
+        Game game = dmc.getGame();
+        List<String> ran = new ArrayList<>();
+
+        game.register((Runnable & Serializable) () -> {
+            ran.add("first");
+            game.unsubscribe("second");
+            game.unsubscribe("first");
+            game.register(record(ran, "late"), Game.PLAYER_MOVEMENT, "late");
+        }, Game.PLAYER_MOVEMENT, "first");
+        game.register(record(ran, "second"), Game.AI_MOVEMENT, "second");
+
+        dmc.tick(Direction.NONE);
+        assertEquals(List.of("first"), ran);
+
+        ran.clear();
+        DungeonResponse res = dmc.tick(Direction.DOWN);
+        assertEquals(List.of("late"), ran);
+        assertEquals(1, TestUtils.getEntities(res, "player").size());
+    }
+
+    @Test
+    @Tag("21-3")
+    @DisplayName("Test a spawner asleep between spawns still spawns on time, also after a save and load")
+    public void sleepingSpawner() {
+        //  Wall Wall Wall
+        //  Wall P    Wall
+        //  Wall Wall Wall
+        //                  ...  ZombieToastSpawner
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame("d_tickSchedulerTest_slowSpawner", "c_tickSchedulerTest_slowSpawner");
+
+        for (int i = 0; i < 69; i++) res = dmc.tick(Direction.NONE);
+        assertEquals(0, TestUtils.getEntities(res, "zombie_toast").size());
+        res = dmc.tick(Direction.NONE);
+        assertEquals(1, TestUtils.getEntities(res, "zombie_toast").size());
+
+        dmc.saveGame("sleepingSpawner");
+        dmc.loadGame("sleepingSpawner");
+        for (int i = 0; i < 69; i++) res = dmc.tick(Direction.NONE);
+        assertEquals(1, TestUtils.getEntities(res, "zombie_toast").size());
+        res = dmc.tick(Direction.NONE);
+        assertEquals(2, TestUtils.getEntities(res, "zombie_toast").size());
+    }
+
+    @Test
+    @Tag("21-4")
+    @DisplayName("Test a copy of the schedule keeps driving the game it is put back into")
+    public void scheduleIsData() throws Exception {
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonManiaController expected = new DungeonManiaController();
+        dmc.newGame("d_mercenaryTest_simpleMovement", "c_mercenaryTest_simpleMovement");
+        expected.newGame("d_mercenaryTest_simpleMovement", "c_mercenaryTest_simpleMovement");
+
+        // a schedule of tasks refers to entities by id, so the copy brings no copy of the game along
+        Game game = dmc.getGame();
+        game.setScheduler((TickScheduler) DeepCopy.copy(game.getScheduler()));
+        for (int i = 0; i < 3; i++) {
+            DungeonResponse res = dmc.tick(Direction.NONE);
+            DungeonResponse exp = expected.tick(Direction.NONE);
+            assertTrue(TestUtils.entityListEqual(exp.getEntities(), res.getEntities()));
+        }
+    }
+
+    @Test
+    @Tag("21-5")
+    @DisplayName("Test callbacks compare the way the scheduler runs them")
+    public void compareByRunOrder() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame("d_movementTest_testMovementDown", "c_movementTest_testMovementDown");
+        Game game = dmc.getGame();
+        List<String> ran = new ArrayList<>();
+
+        game.register(record(ran, "ai1"), Game.AI_MOVEMENT, "ai1");
+        game.register(record(ran, "player"), Game.PLAYER_MOVEMENT, "player");
+        game.register(record(ran, "ai2"), Game.AI_MOVEMENT, "ai2");
+
+        List<ComparableCallback> ours = game.getScheduler().getCallbacks().stream()
+            .filter(c -> List.of("ai1", "player", "ai2").contains(c.getId())).collect(Collectors.toList());
+        assertEquals(List.of("player", "ai1", "ai2"),
+            ours.stream().map(ComparableCallback::getId).collect(Collectors.toList()));
+
+        ComparableCallback ai1 = ours.get(1);
+        ComparableCallback ai2 = ours.get(2);
+        assertEquals(0, ai1.compareTo(ai1));
+        assertTrue(ai1.compareTo(ai2) < 0);
+        assertTrue(ai2.compareTo(ai1) > 0);
+
+        dmc.tick(Direction.NONE);
+        assertEquals(List.of("player", "ai1", "ai2"), ran);
+    }
+
+    private static Runnable record(List<String> ran, String name) {
+        return (Runnable & Serializable) () -> ran.add(name);
+    }
+}
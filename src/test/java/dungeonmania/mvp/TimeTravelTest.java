@@ -2,13 +2,22 @@ package dungeonmania.mvp;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import dungeonmania.DungeonManiaController;
+import dungeonmania.response.models.BatchResponse;
 import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.response.models.HistoryResponse;
 import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
 
@@ -137,6 +146,70 @@ public class TimeTravelTest {
         assertEquals(getBoulderPos(res), startingPosition);
     }
 
+    @Test
+    @Tag("18-6")
+    @DisplayName("Test time travelling restores the map across stored keyframes")
+    public void timeTravelRestoresMapAcrossKeyframes() {
+        Direction[] moves = {Direction.DOWN, Direction.RIGHT, Direction.RIGHT, Direction.RIGHT, Direction.RIGHT,
+            Direction.RIGHT, Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT, Direction.LEFT,
+            Direction.RIGHT};
+
+        // rewinds land on a keyframe, just after one and on the last delta before the next one
+        for (int ticks : new int[] {2, 1, 3, 12}) {
+            DungeonManiaController dmc = new DungeonManiaController();
+            List<DungeonResponse> history = new ArrayList<>();
+            history.add(dmc.newGame("d_timeTravelTest_mercenaryPosition", "c_timeTravelTest"));
+            for (Direction d : moves) history.add(dmc.tick(d));
+
+            DungeonResponse res = dmc.rewind(ticks);
+            List<EntityResponse> expected = withoutPlayers(history.get(moves.length - ticks));
+            List<EntityResponse> actual = withoutPlayers(res);
+            assertEquals(expected.size(), actual.size());
+            assertTrue(TestUtils.entityListEqual(expected, actual));
+        }
+    }
+
+    @Test
+    @Tag("18-7")
+    @DisplayName("Test rewind history only keeps the configured number of ticks")
+    public void timeTravelHistoryIsBounded() {
+        Direction[] moves = {Direction.DOWN, Direction.RIGHT, Direction.RIGHT, Direction.RIGHT, Direction.RIGHT,
+            Direction.RIGHT, Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT, Direction.LEFT,
+            Direction.RIGHT};
+        DungeonManiaController dmc = new DungeonManiaController();
+        List<DungeonResponse> history = new ArrayList<>();
+        history.add(dmc.newGame("d_timeTravelTest_mercenaryPosition", "c_timeTravelTest_shortHistory"));
+        for (Direction d : moves) history.add(dmc.tick(d));
+
+        // 5 ticks retained, plus at most one keyframe group of 2 that is still needed
+        HistoryResponse stats = dmc.getHistory();
+        assertTrue(stats.getSnapshots() <= 7);
+        assertTrue(stats.getOldestTick() <= moves.length - 5);
+        assertEquals(moves.length - 1, stats.getNewestTick());
+        assertTrue(stats.getSpilledKeyframes() > 0);
+        assertTrue(stats.getHeapBytes() > 0);
+
+        // rewinding past the window fails and leaves the game where it was
+        int oldest = stats.getOldestTick();
+        assertThrows(IllegalArgumentException.class, () -> dmc.rewind(moves.length - oldest + 1));
+        assertEquals(moves.length, dmc.getGame().getTick());
+        BatchResponse batch = dmc.batch(List.of("r" + moves.length), false);
+        assertEquals(0, batch.getCompleted());
+        assertEquals("IllegalArgumentException", batch.getSteps().get(0).getErrorTitle());
+
+        // the oldest tick still kept can be rewound to
+        DungeonResponse res = dmc.rewind(moves.length - oldest);
+        List<EntityResponse> expected = withoutPlayers(history.get(stats.getOldestTick()));
+        List<EntityResponse> actual = withoutPlayers(res);
+        assertEquals(expected.size(), actual.size());
+        assertTrue(TestUtils.entityListEqual(expected, actual));
+    }
+
+    private List<EntityResponse> withoutPlayers(DungeonResponse res) {
+        return TestUtils.getEntities(res).stream().filter(e -> !e.getType().contains("player"))
+            .collect(Collectors.toList());
+    }
+
     private Position getBoulderPos(DungeonResponse res) {
         return TestUtils.getEntities(res, "boulder").get(0).getPosition();
     }